@@ -0,0 +1,74 @@
+package proyecto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Selección de asignaturas disponibles (getAvailableCourses, Student.canEnroll)
+ * e inscripción de estudiantes (enrollStudentInCourse).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnrollmentBenchmark {
+    private static final int STUDENTS = 10_000;
+    
+    private SimulationEngine engine;
+    private SemesterShard shard;
+    private int[] available;
+    private Course course;
+    private int courseIndex;
+    private int student;
+    
+    @Setup(Level.Iteration)
+    public void setUpEngine() {
+        engine = new SimulationEngine(42, STUDENTS);
+        shard = engine.createSequentialShard();
+        available = new int[2];
+        course = engine.getCourses().get("A");
+        courseIndex = engine.getCourseList().indexOf(course);
+    }
+    
+    /**
+     * La inscripción modifica a los estudiantes: cada invocación parte de una
+     * población nueva y se inscribe una vez a cada estudiante.
+     */
+    @State(Scope.Thread)
+    public static class FreshEngine {
+        SimulationEngine engine;
+        SemesterShard shard;
+        int courseIndex;
+        
+        @Setup(Level.Invocation)
+        public void setUp() {
+            engine = new SimulationEngine(42, STUDENTS);
+            shard = engine.createSequentialShard();
+            courseIndex = engine.getCurriculum().indexOf("A");
+        }
+    }
+    
+    @Benchmark
+    public int availableCourses() {
+        student = (student + 1) % STUDENTS;
+        return engine.getAvailableCourses(shard, student, available);
+    }
+    
+    @Benchmark
+    public boolean studentCanEnroll() {
+        student = (student + 1) % STUDENTS;
+        return engine.getPopulation().getStudent(student).canEnroll(course.getName(), course);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(STUDENTS)
+    public SemesterShard enrollStudentInCourse(FreshEngine fresh) {
+        for (int s = 0; s < STUDENTS; s++) {
+            fresh.engine.enrollStudentInCourse(fresh.shard, s, fresh.courseIndex, 1);
+        }
+        return fresh.shard;
+    }
+}
@@ -0,0 +1,50 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo por número de cada generador de {@link RandomSource}, y de una nota
+ * Normal generada con él.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RandomSourceBenchmark {
+    @Param({"WELL19937C", "SPLITMIX64", "XOSHIRO256"})
+    private RandomSource source;
+    
+    private RandomGenerator random;
+    private ScoreSampler normal;
+    
+    @Setup
+    public void setUp() {
+        random = source.create(42);
+        normal = new NormalScoreSampler(random, SimulationConfig.COURSE_A_MEAN, SimulationConfig.COURSE_A_VARIANCE);
+    }
+    
+    @Benchmark
+    public long nextLong() {
+        return random.nextLong();
+    }
+    
+    @Benchmark
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+    
+    @Benchmark
+    public double nextGaussian() {
+        return random.nextGaussian();
+    }
+    
+    @Benchmark
+    public double normalScore() {
+        return normal.sample();
+    }
+}
@@ -0,0 +1,94 @@
+package proyecto;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.PoissonDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generación de notas (generateScore) para asignaturas Normal, Poisson y empíricas
+ * (un histograma de 101 notas, muestreado con tabla de alias).
+ * Incluye la forma anterior, que creaba la distribución en cada nota, como referencia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScoreSamplerBenchmark {
+    private static final int BATCH = 1024;
+    
+    private RandomGenerator random;
+    private ScoreSampler normal;
+    private ScoreSampler poisson;
+    private ScoreSampler empirical;
+    private double[] batch;
+    
+    @Setup
+    public void setUp() {
+        random = new Well19937c(42);
+        normal = new NormalScoreSampler(random, SimulationConfig.COURSE_A_MEAN, SimulationConfig.COURSE_A_VARIANCE);
+        poisson = new PoissonScoreSampler(random, SimulationConfig.COURSE_C_LAMBDA);
+        double[] grades = new double[101];
+        double[] weights = new double[101];
+        for (int k = 0; k <= 100; k++) {
+            grades[k] = k;
+            weights[k] = Math.exp(-(k - 65) * (k - 65) / 200.0) + (k < 40 ? 0.2 : 0.0);
+        }
+        empirical = new EmpiricalScoreSampler(random, new GradeDistribution(grades, weights));
+        batch = new double[BATCH];
+    }
+    
+    @Benchmark
+    public double normalSample() {
+        return normal.sample();
+    }
+    
+    @Benchmark
+    public double poissonSample() {
+        return poisson.sample();
+    }
+    
+    @Benchmark
+    public double empiricalSample() {
+        return empirical.sample();
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] normalBatch() {
+        normal.sample(batch, BATCH);
+        return batch;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] poissonBatch() {
+        poisson.sample(batch, BATCH);
+        return batch;
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public double[] empiricalBatch() {
+        empirical.sample(batch, BATCH);
+        return batch;
+    }
+    
+    @Benchmark
+    public double normalNewDistributionPerScore() {
+        return new NormalDistribution(random, SimulationConfig.COURSE_A_MEAN,
+                                      Math.sqrt(SimulationConfig.COURSE_A_VARIANCE)).sample();
+    }
+    
+    @Benchmark
+    public double poissonNewDistributionPerScore() {
+        PoissonDistribution distribution = new PoissonDistribution(SimulationConfig.COURSE_C_LAMBDA);
+        distribution.reseedRandomGenerator(random.nextLong());
+        return distribution.sample();
+    }
+}
@@ -0,0 +1,34 @@
+package proyecto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Un semestre completo del motor (selección, inscripción, notas y suma de
+ * contadores) sobre una población nueva. El resultado se expresa por estudiante.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SemesterBenchmark {
+    private static final int STUDENTS = 100_000;
+    
+    private SimulationEngine engine;
+    private SemesterShard[] shards;
+    
+    @Setup(Level.Invocation)
+    public void setUp() {
+        engine = new SimulationEngine(42, STUDENTS);
+        shards = new SemesterShard[]{engine.createSequentialShard()};
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(STUDENTS)
+    public int firstSemester() {
+        return engine.runSemester(shards, null, 1);
+    }
+}
@@ -0,0 +1,70 @@
+package proyecto;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de StatisticsGenerator sobre una simulación ya ejecutada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    @Param({"120", "100000"})
+    public int students;
+    
+    private StatisticsGenerator statistics;
+    
+    @Setup
+    public void setUp() {
+        SimulationEngine engine = new SimulationEngine(42, students);
+        engine.runSimulation();
+        statistics = new StatisticsGenerator(engine);
+    }
+    
+    @Benchmark
+    public List<Double> completionTimes() {
+        return statistics.getCompletionTimes();
+    }
+    
+    @Benchmark
+    public StreamingStatistics completionTimeStatistics() {
+        return statistics.getCompletionTimeStatistics();
+    }
+    
+    @Benchmark
+    public Map<String, Double> averagePassingTimePerCourse() {
+        return statistics.getAveragePassingTimePerCourse();
+    }
+    
+    @Benchmark
+    public int studentsCompletedInRange() {
+        return statistics.getStudentsCompletedBetween3And15Semesters();
+    }
+    
+    @Benchmark
+    public List<Map.Entry<String, Double>> coursesByDifficulty() {
+        return statistics.getCoursesByDifficulty();
+    }
+    
+    @Benchmark
+    public Map<String, Integer> totalEnrollmentsPerCourse() {
+        return statistics.getTotalEnrollmentsPerCourse();
+    }
+    
+    @Benchmark
+    public Map<Integer, Integer> abandonmentsPerSemester() {
+        return statistics.getAbandonmentsPerSemester();
+    }
+    
+    @Benchmark
+    public String courseWithMostAbandonments() {
+        return statistics.getCourseWithMostAbandonments();
+    }
+}
@@ -0,0 +1,97 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Tabla de alias de Walker, construida con el método de Vose: muestrea un
+ * índice de una distribución discreta arbitraria en tiempo constante, con un
+ * solo uniforme por muestra, sin importar cuántos valores tenga.
+ *
+ * Cada una de las n columnas tiene probabilidad 1/n de elegirse; la columna i
+ * devuelve i con probabilidad probability[i] y alias[i] en otro caso.
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+    
+    /**
+     * @param weights pesos no negativos (no hace falta que sumen 1)
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        if (n == 0) {
+            throw new IllegalArgumentException("La tabla de alias necesita al menos un valor");
+        }
+        double total = 0.0;
+        for (double weight : weights) {
+            if (!(weight >= 0) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Peso inválido: " + weight);
+            }
+            total += weight;
+        }
+        if (!(total > 0)) {
+            throw new IllegalArgumentException("La suma de los pesos debe ser positiva");
+        }
+        
+        this.probability = new double[n];
+        this.alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n]; // columnas con menos de 1/n de masa
+        int[] large = new int[n]; // columnas con 1/n o más
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        // Cada columna chica se completa con masa de una grande
+        while (smallCount > 0 && largeCount > 0) {
+            int lower = small[--smallCount];
+            int upper = large[--largeCount];
+            probability[lower] = scaled[lower];
+            alias[lower] = upper;
+            scaled[upper] = (scaled[upper] + scaled[lower]) - 1.0;
+            if (scaled[upper] < 1.0) {
+                small[smallCount++] = upper;
+            } else {
+                large[largeCount++] = upper;
+            }
+        }
+        // Lo que queda tiene masa 1/n salvo errores de redondeo
+        while (largeCount > 0) {
+            int i = large[--largeCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            probability[i] = 1.0;
+            alias[i] = i;
+        }
+    }
+    
+    /**
+     * Un índice con probabilidad proporcional a su peso.
+     */
+    public int sample(RandomGenerator random) {
+        return sample(random.nextDouble());
+    }
+    
+    /**
+     * El índice que corresponde al uniforme u en [0, 1): la parte entera de
+     * u * n elige la columna y la fraccionaria decide entre ella y su alias.
+     */
+    public int sample(double u) {
+        double scaled = u * probability.length;
+        int column = Math.min((int) scaled, probability.length - 1);
+        return scaled - column < probability[column] ? column : alias[column];
+    }
+    
+    public int size() {
+        return probability.length;
+    }
+}
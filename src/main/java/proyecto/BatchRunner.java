@@ -0,0 +1,456 @@
+package proyecto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta muchos trabajos de simulación (cada uno una configuración, una
+ * cantidad de estudiantes y una cantidad de réplicas) en una sola JVM.
+ *
+ * Los trabajos esperan en una cola de prioridad: primero la prioridad más
+ * alta y, a igual prioridad, el más costoso (estudiantes por réplicas), para
+ * que los trabajos largos no queden para el final y la corrida termine cerca
+ * del límite de rendimiento de la máquina. A lo sumo {@code concurrentJobs}
+ * trabajos corren a la vez, y cada uno recibe al empezar una parte igual de
+ * los hilos entre los trabajos que quedan, de modo que los últimos no corren
+ * con un solo hilo.
+ *
+ * Cada trabajo puede tener un tiempo máximo y se puede cancelar por nombre;
+ * ambos detienen sus réplicas con {@link ReplicationRunner#cancel()}, incluso
+ * la que está a mitad de una simulación. El
+ * resultado de cada trabajo se escribe como una línea JSON apenas termina.
+ */
+public class BatchRunner {
+    public enum Status {
+        COMPLETED, TIMED_OUT, CANCELLED, FAILED
+    }
+    
+    /**
+     * Un trabajo de la cola.
+     */
+    public static final class Job {
+        private final String name;
+        private final SimulationParameters parameters;
+        private final int students;
+        private final int replications;
+        private final long seed;
+        private int priority;
+        private boolean analytic;
+        private long timeoutSeconds; // 0 = sin límite
+        private int order; // posición de llegada, para desempatar
+        
+        public Job(String name, SimulationParameters parameters, int students, int replications, long seed) {
+            if (students < 1 || replications < 1) {
+                throw new IllegalArgumentException("El trabajo " + name
+                    + " necesita al menos un estudiante y una réplica");
+            }
+            this.name = name;
+            this.parameters = parameters;
+            this.students = students;
+            this.replications = replications;
+            this.seed = seed;
+        }
+        
+        /**
+         * Lee un trabajo de un objeto JSON con name y, opcionalmente, priority,
+         * seed, students, replicas, analytic, timeoutSeconds y parameters (nombres
+         * de {@link SimulationParameters#with}).
+         * @param defaultSeed semilla si el trabajo no la indica
+         */
+        static Job fromJson(Map<?, ?> fields, SimulationParameters base, long defaultSeed) {
+            Object name = fields.get("name");
+            if (!(name instanceof String)) {
+                throw new IllegalArgumentException("Cada trabajo necesita un name");
+            }
+            SimulationParameters parameters = base;
+            Object overrides = fields.get("parameters");
+            if (overrides instanceof Map) {
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) overrides).entrySet()) {
+                    parameters = parameters.with((String) entry.getKey(),
+                                                 number(entry.getValue(), name + ".parameters"));
+                }
+            } else if (overrides != null) {
+                throw new IllegalArgumentException("parameters de " + name + " debe ser un objeto");
+            }
+            Job job = new Job((String) name, parameters,
+                              (int) integer(fields, name, "students", SimulationConfig.MAX_STUDENTS,
+                                            1, Integer.MAX_VALUE),
+                              (int) integer(fields, name, "replicas", 1, 1, Integer.MAX_VALUE),
+                              fields.containsKey("seed") ? seed(fields.get("seed"), name) : defaultSeed);
+            job.setPriority((int) integer(fields, name, "priority", 0, Integer.MIN_VALUE, Integer.MAX_VALUE));
+            job.setAnalytic(Boolean.TRUE.equals(fields.get("analytic")));
+            job.setTimeoutSeconds(integer(fields, name, "timeoutSeconds", 0, 0, Long.MAX_VALUE));
+            return job;
+        }
+        
+        /**
+         * Campo entero entre min y max (defaultValue si falta), validado antes
+         * de convertirlo: un 2.5 o un 1e12 no se truncan en silencio.
+         */
+        private static long integer(Map<?, ?> fields, Object job, String field, long defaultValue,
+                                    long min, long max) {
+            if (!fields.containsKey(field)) {
+                return defaultValue;
+            }
+            Object value = fields.get(field);
+            String fieldName = job + "." + field;
+            long result;
+            if (value instanceof Long || value instanceof Integer) {
+                result = ((Number) value).longValue();
+            } else {
+                double number = number(value, fieldName);
+                if (number != Math.rint(number)) {
+                    throw new IllegalArgumentException(fieldName + " debe ser entero");
+                }
+                result = (long) number; // los valores fuera de long quedan en sus extremos y fallan abajo
+            }
+            if (result < min || result > max) {
+                throw new IllegalArgumentException(fieldName + " debe estar entre " + min + " y " + max);
+            }
+            return result;
+        }
+        
+        /**
+         * Semilla como entero exacto: pasar por double perdería los bits bajos.
+         */
+        private static long seed(Object value, Object job) {
+            if (value instanceof Long || value instanceof Integer) {
+                return ((Number) value).longValue();
+            }
+            throw new IllegalArgumentException(job + ".seed debe ser entero");
+        }
+        
+        private static double number(Object value, String field) {
+            if (!(value instanceof Number)) {
+                throw new IllegalArgumentException(field + " debe ser numérico");
+            }
+            return ((Number) value).doubleValue();
+        }
+        
+        /** Los trabajos de mayor prioridad salen antes de la cola. */
+        public void setPriority(int priority) {
+            this.priority = priority;
+        }
+        
+        public void setAnalytic(boolean analytic) {
+            this.analytic = analytic;
+        }
+        
+        /** Tiempo máximo desde que empieza a correr (0 = sin límite). */
+        public void setTimeoutSeconds(long timeoutSeconds) {
+            if (timeoutSeconds < 0) {
+                throw new IllegalArgumentException("Tiempo máximo negativo: " + timeoutSeconds);
+            }
+            this.timeoutSeconds = timeoutSeconds;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public int getPriority() {
+            return priority;
+        }
+        
+        /** Costo estimado, para ordenar trabajos de igual prioridad. */
+        long getCost() {
+            return (long) students * replications;
+        }
+    }
+    
+    /**
+     * Resultado de un trabajo terminado, cancelado o fallido.
+     */
+    public static final class Result {
+        private final Job job;
+        private final Status status;
+        private final double seconds;
+        private final int threads;
+        private final ReplicationSummary summary; // null si no se completó
+        private final String error;
+        
+        Result(Job job, Status status, double seconds, int threads, ReplicationSummary summary, String error) {
+            this.job = job;
+            this.status = status;
+            this.seconds = seconds;
+            this.threads = threads;
+            this.summary = summary;
+            this.error = error;
+        }
+        
+        public String getName() {
+            return job.name;
+        }
+        
+        public Status getStatus() {
+            return status;
+        }
+        
+        public double getSeconds() {
+            return seconds;
+        }
+        
+        public ReplicationSummary getSummary() {
+            return summary;
+        }
+        
+        /**
+         * Resultado como mapa listo para JSON: estado, tiempo, hilos y, si se
+         * completó, media y semiancho del IC 95% de cada métrica.
+         */
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("name", job.name);
+            map.put("status", status.name());
+            map.put("priority", job.priority);
+            map.put("students", job.students);
+            map.put("replicas", job.replications);
+            map.put("seed", job.seed);
+            map.put("seconds", seconds);
+            map.put("threads", threads);
+            if (summary != null) {
+                Map<String, Object> metrics = new LinkedHashMap<>();
+                for (String metric : summary.getStatistics().keySet()) {
+                    Map<String, Object> value = new LinkedHashMap<>();
+                    value.put("mean", summary.getEstimate(metric));
+                    value.put("halfWidth", summary.getHalfWidth(metric, 0.95));
+                    metrics.put(metric, value);
+                }
+                map.put("metrics", metrics);
+            }
+            if (error != null) {
+                map.put("error", error);
+            }
+            return map;
+        }
+    }
+    
+    private static final Comparator<Job> QUEUE_ORDER = Comparator.comparingInt((Job job) -> -job.priority)
+            .thenComparingLong(job -> -job.getCost())
+            .thenComparingInt(job -> job.order);
+    
+    private final int threads;
+    private final int concurrentJobs;
+    private final PriorityBlockingQueue<Job> queue = new PriorityBlockingQueue<>(16, QUEUE_ORDER);
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+    private final Map<String, ReplicationRunner> running = new ConcurrentHashMap<>();
+    private final Map<String, Job> cancelledQueued = new ConcurrentHashMap<>();
+    private final AtomicInteger submitted = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private ResultCache cache;
+    
+    /**
+     * @param threads hilos en total para todas las réplicas
+     * @param concurrentJobs trabajos que corren a la vez (cada uno con threads / concurrentJobs hilos)
+     */
+    public BatchRunner(int threads, int concurrentJobs) {
+        if (threads < 1 || concurrentJobs < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo y un trabajo a la vez");
+        }
+        this.threads = threads;
+        this.concurrentJobs = Math.min(concurrentJobs, threads);
+    }
+    
+    /**
+     * Reutiliza y guarda las réplicas en la caché (null para no usarla).
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Agrega un trabajo a la cola.
+     * @throws IllegalArgumentException si ya se agregó un trabajo con ese
+     *         nombre: el nombre es el que identifica al trabajo en {@link #cancel}
+     */
+    public void submit(Job job) {
+        if (!names.add(job.name)) {
+            throw new IllegalArgumentException("Ya hay un trabajo llamado " + job.name);
+        }
+        job.order = submitted.getAndIncrement();
+        queue.add(job);
+    }
+    
+    /**
+     * Agrega los trabajos de un archivo JSON: un arreglo de objetos como los de
+     * {@link Job#fromJson}. Los trabajos sin semilla usan una derivada de
+     * masterSeed y de su posición en el archivo.
+     * @return cantidad de trabajos agregados
+     */
+    public int submitAll(Path jobFile, SimulationParameters base, long masterSeed) throws IOException {
+        Object parsed = Json.parse(new String(Files.readAllBytes(jobFile), StandardCharsets.UTF_8));
+        if (!(parsed instanceof List)) {
+            throw new IllegalArgumentException("El archivo de trabajos debe ser un arreglo JSON: " + jobFile);
+        }
+        List<?> jobs = (List<?>) parsed;
+        for (int i = 0; i < jobs.size(); i++) {
+            if (!(jobs.get(i) instanceof Map)) {
+                throw new IllegalArgumentException("El trabajo " + (i + 1) + " no es un objeto JSON");
+            }
+            submit(Job.fromJson((Map<?, ?>) jobs.get(i), base, Seeds.derive(masterSeed, i)));
+        }
+        return jobs.size();
+    }
+    
+    /**
+     * Cancela un trabajo: si está en la cola no se ejecuta; si está corriendo
+     * se detienen sus réplicas.
+     * @return false si no hay un trabajo pendiente con ese nombre
+     */
+    public synchronized boolean cancel(String name) {
+        ReplicationRunner runner = running.get(name);
+        if (runner != null) {
+            runner.cancel();
+            return true;
+        }
+        for (Job job : queue) {
+            if (job.name.equals(name) && queue.remove(job)) {
+                cancelledQueued.put(name, job);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Ejecuta todos los trabajos de la cola y escribe cada resultado como una
+     * línea JSON en output (null para no escribir) apenas termina.
+     * @return resultados en orden de finalización
+     */
+    public List<Result> run(Writer output) {
+        List<Result> results = Collections.synchronizedList(new ArrayList<>());
+        for (Job job : cancelledQueued.values()) {
+            record(new Result(job, Status.CANCELLED, 0.0, 0, null, null), results, output);
+        }
+        cancelledQueued.clear();
+        
+        ExecutorService workers = Executors.newFixedThreadPool(concurrentJobs);
+        ScheduledExecutorService timeouts = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tiempos-maximos");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> loops = new ArrayList<>();
+            for (int i = 0; i < concurrentJobs; i++) {
+                loops.add(workers.submit(() -> {
+                    Job job;
+                    while ((job = startNext()) != null) {
+                        record(runJob(job, timeouts), results, output);
+                    }
+                }));
+            }
+            for (Future<?> loop : loops) {
+                loop.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running.values().forEach(ReplicationRunner::cancel);
+            throw new IllegalStateException("Lote interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló el lote", e.getCause());
+        } finally {
+            workers.shutdown();
+            timeouts.shutdownNow();
+        }
+        for (Job job : cancelledQueued.values()) {
+            record(new Result(job, Status.CANCELLED, 0.0, 0, null, null), results, output);
+        }
+        cancelledQueued.clear();
+        return results;
+    }
+    
+    /**
+     * Saca el próximo trabajo de la cola y registra su ejecutor entre los que
+     * corren. Se sincroniza con {@link #cancel}, que así encuentra al trabajo
+     * en la cola o corriendo, nunca entre los dos.
+     * @return null si la cola está vacía
+     */
+    private synchronized Job startNext() {
+        Job job = queue.poll();
+        if (job == null) {
+            return null;
+        }
+        // Parte igual de los hilos entre los trabajos que corren o esperan, sin pasar de concurrentJobs
+        int sharing = Math.max(1, Math.min(concurrentJobs, active.incrementAndGet() + queue.size()));
+        ReplicationRunner runner = new ReplicationRunner(Math.max(1, threads / sharing), job.students,
+                                                         job.parameters);
+        runner.setAnalyticMode(job.analytic);
+        runner.setCache(cache);
+        running.put(job.name, runner);
+        return job;
+    }
+    
+    private Result runJob(Job job, ScheduledExecutorService timeouts) {
+        ReplicationRunner runner = running.get(job.name);
+        int jobThreads = runner.getParallelism();
+        
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> deadline = job.timeoutSeconds > 0
+                ? timeouts.schedule(() -> {
+                    timedOut.set(true);
+                    runner.cancel();
+                }, job.timeoutSeconds, TimeUnit.SECONDS)
+                : null;
+        long start = System.nanoTime();
+        try {
+            ReplicationSummary summary = runner.run(job.replications, job.seed);
+            return new Result(job, Status.COMPLETED, elapsed(start), jobThreads, summary, null);
+        } catch (CancellationException e) {
+            Status status = timedOut.get() ? Status.TIMED_OUT : Status.CANCELLED;
+            return new Result(job, status, elapsed(start), jobThreads, null, null);
+        } catch (RuntimeException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return new Result(job, Status.FAILED, elapsed(start), jobThreads, null, String.valueOf(cause));
+        } finally {
+            if (deadline != null) {
+                deadline.cancel(false);
+            }
+            running.remove(job.name);
+            active.decrementAndGet();
+        }
+    }
+    
+    private static double elapsed(long start) {
+        return (System.nanoTime() - start) / 1e9;
+    }
+    
+    private static void record(Result result, List<Result> results, Writer output) {
+        results.add(result);
+        if (output == null) {
+            return;
+        }
+        synchronized (output) {
+            try {
+                output.write(Json.write(result.toMap()));
+                output.write('\n');
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo escribir el resultado de " + result.getName(), e);
+            }
+        }
+    }
+}
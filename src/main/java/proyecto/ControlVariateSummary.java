@@ -0,0 +1,305 @@
+package proyecto;
+
+import org.apache.commons.math3.distribution.TDistribution;
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.ArrayRealVector;
+import org.apache.commons.math3.linear.DecompositionSolver;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.RealVector;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resumen de réplicas con variables de control.
+ *
+ * Las variables de control son las métricas course.X.passResidual
+ * ({@link SimulationMetrics#PASS_RESIDUAL}): aprobadas menos las esperadas
+ * con la probabilidad exacta de aprobar un intento, cuya esperanza es 0. Para
+ * cada métrica Y se ajusta por mínimos cuadrados Y = a + b'C sobre las
+ * réplicas y se estima la media como mean(Y) - b' mean(C): la parte de la
+ * variación de Y que explican las variables de control (réplicas con más o
+ * menos suerte en las notas) se descuenta. El intervalo de confianza usa la
+ * varianza de los residuos, con n - q - 1 grados de libertad para q variables
+ * de control (Lavenberg y Welch).
+ *
+ * No conserva las réplicas: acumula, como {@link StreamingStatistics}, las
+ * medias y las sumas de productos cruzados centrados de cada métrica con las
+ * variables de control y de las variables de control entre sí (actualización
+ * de Welford, el caso de un solo valor de la combinación de Chan et al.). La
+ * memoria no depende de la cantidad de réplicas, y cada consulta resuelve un
+ * sistema de q x q.
+ */
+public class ControlVariateSummary extends ReplicationSummary {
+    private List<String> controlNames; // fijadas con la primera réplica
+    private ControlMoments sharedControls; // réplicas con todas las variables de control definidas
+    private final Map<String, ResponseMoments> responses = new LinkedHashMap<>();
+    private double[] controlValues;
+    private double[] delta;
+    
+    /**
+     * Medias y sumas de productos cruzados centrados de las variables de control.
+     */
+    private static final class ControlMoments {
+        private long count;
+        private final double[] mean;
+        private final double[][] comoment; // triángulo inferior: suma de (c_j - media_j)(c_k - media_k), k <= j
+        
+        ControlMoments(int q) {
+            this.mean = new double[q];
+            this.comoment = new double[q][];
+            for (int j = 0; j < q; j++) {
+                comoment[j] = new double[j + 1];
+            }
+        }
+        
+        ControlMoments copy() {
+            ControlMoments copy = new ControlMoments(mean.length);
+            copy.count = count;
+            System.arraycopy(mean, 0, copy.mean, 0, mean.length);
+            for (int j = 0; j < comoment.length; j++) {
+                System.arraycopy(comoment[j], 0, copy.comoment[j], 0, comoment[j].length);
+            }
+            return copy;
+        }
+        
+        /**
+         * Agrega una réplica; deja en delta la diferencia con las medias anteriores.
+         */
+        void add(double[] values, double[] delta) {
+            count++;
+            for (int j = 0; j < mean.length; j++) {
+                delta[j] = values[j] - mean[j];
+                mean[j] += delta[j] / count;
+            }
+            for (int j = 0; j < mean.length; j++) {
+                for (int k = 0; k <= j; k++) {
+                    comoment[j][k] += delta[j] * (values[k] - mean[k]);
+                }
+            }
+        }
+        
+        double get(int j, int k) {
+            return j >= k ? comoment[j][k] : comoment[k][j];
+        }
+    }
+    
+    /**
+     * Media y sumas de productos cruzados centrados de una métrica, sobre las
+     * réplicas en que la métrica y todas las variables de control están definidas.
+     */
+    private static final class ResponseMoments {
+        // Las de todas las réplicas mientras la métrica esté siempre definida; al faltar
+        // por primera vez se copian y desde entonces se actualizan solo con sus réplicas
+        private ControlMoments controls;
+        private boolean ownControls;
+        private long count;
+        private double mean;
+        private double sumSquares; // suma de (y - media)^2
+        private final double[] cross; // suma de (c_j - media_j)(y - media)
+        
+        ResponseMoments(ControlMoments controls, boolean ownControls) {
+            this.controls = controls;
+            this.ownControls = ownControls;
+            this.cross = new double[controls.mean.length];
+        }
+        
+        void add(double value, double[] controlDelta) {
+            count++;
+            double deltaValue = value - mean;
+            mean += deltaValue / count;
+            sumSquares += deltaValue * (value - mean);
+            for (int j = 0; j < cross.length; j++) {
+                cross[j] += controlDelta[j] * (value - mean);
+            }
+        }
+    }
+    
+    /**
+     * Estimación ajustada de una métrica.
+     */
+    public static final class Estimate {
+        private final double mean;
+        private final double halfWidth;
+        private final double varianceReduction;
+        
+        Estimate(double mean, double halfWidth, double varianceReduction) {
+            this.mean = mean;
+            this.halfWidth = halfWidth;
+            this.varianceReduction = varianceReduction;
+        }
+        
+        public double getMean() {
+            return mean;
+        }
+        
+        public double getHalfWidth() {
+            return halfWidth;
+        }
+        
+        /**
+         * Varianza del promedio simple dividida por la del estimador ajustado
+         * (cuántas veces menos réplicas hacen falta para la misma precisión).
+         */
+        public double getVarianceReduction() {
+            return varianceReduction;
+        }
+    }
+    
+    @Override
+    public void add(SimulationMetrics metrics) {
+        super.add(metrics);
+        Map<String, Double> values = metrics.getValues();
+        if (controlNames == null) {
+            controlNames = new ArrayList<>();
+            for (String name : values.keySet()) {
+                if (isControl(name)) {
+                    controlNames.add(name);
+                }
+            }
+            sharedControls = new ControlMoments(controlNames.size());
+            controlValues = new double[controlNames.size()];
+            delta = new double[controlNames.size()];
+        }
+        for (int j = 0; j < controlValues.length; j++) {
+            controlValues[j] = metrics.get(controlNames.get(j));
+            if (Double.isNaN(controlValues[j])) {
+                return; // sin todas las variables de control, la réplica no entra en el ajuste
+            }
+        }
+        
+        // Las métricas que faltan en esta réplica dejan de compartir las variables de control
+        for (Map.Entry<String, ResponseMoments> entry : responses.entrySet()) {
+            ResponseMoments response = entry.getValue();
+            if (!response.ownControls && Double.isNaN(metrics.get(entry.getKey()))) {
+                response.controls = sharedControls.copy();
+                response.ownControls = true;
+            }
+        }
+        sharedControls.add(controlValues, delta);
+        double[] ownDelta = null;
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            String name = entry.getKey();
+            double value = entry.getValue();
+            if (isControl(name) || Double.isNaN(value)) {
+                continue;
+            }
+            ResponseMoments response = responses.get(name);
+            if (response == null) {
+                // Métrica nueva: si ya hubo réplicas sin ella, arranca con sus propias variables de control
+                boolean first = sharedControls.count == 1;
+                response = new ResponseMoments(first ? sharedControls : new ControlMoments(delta.length), !first);
+                responses.put(name, response);
+            }
+            if (response.ownControls) {
+                if (ownDelta == null) {
+                    ownDelta = new double[delta.length];
+                }
+                response.controls.add(controlValues, ownDelta);
+                response.add(value, ownDelta);
+            } else {
+                response.add(value, delta);
+            }
+        }
+    }
+    
+    public static boolean isControl(String metric) {
+        return metric.endsWith("." + SimulationMetrics.PASS_RESIDUAL);
+    }
+    
+    @Override
+    public double getEstimate(String metric) {
+        return estimate(metric, 0.95).getMean();
+    }
+    
+    @Override
+    public double getHalfWidth(String metric, double confidence) {
+        return estimate(metric, confidence).getHalfWidth();
+    }
+    
+    /**
+     * Estimación con variables de control. Para las propias variables de
+     * control, o si hay muy pocas réplicas para el ajuste, es el promedio simple.
+     * @throws IllegalArgumentException si la métrica no existe
+     */
+    public Estimate estimate(String metric, double confidence) {
+        double plainMean = super.getEstimate(metric);
+        double plainHalfWidth = super.getHalfWidth(metric, confidence);
+        Estimate plain = new Estimate(plainMean, plainHalfWidth, 1.0);
+        ResponseMoments response = responses.get(metric);
+        if (isControl(metric) || response == null) {
+            return plain;
+        }
+        
+        // Variables de control no constantes en las réplicas de la métrica
+        ControlMoments moments = response.controls;
+        List<Integer> controls = new ArrayList<>();
+        for (int j = 0; j < controlNames.size(); j++) {
+            if (moments.get(j, j) > 0) {
+                controls.add(j);
+            }
+        }
+        long n = response.count;
+        int q = controls.size();
+        if (q == 0 || n <= q + 2) {
+            return plain;
+        }
+        
+        double[] controlMean = new double[q];
+        RealMatrix scc = new Array2DRowRealMatrix(q, q);
+        RealVector scy = new ArrayRealVector(q);
+        for (int j = 0; j < q; j++) {
+            controlMean[j] = moments.mean[controls.get(j)];
+            scy.setEntry(j, response.cross[controls.get(j)]);
+            for (int k = 0; k < q; k++) {
+                scc.setEntry(j, k, moments.get(controls.get(j), controls.get(k)));
+            }
+        }
+        double responseMean = response.mean;
+        double syy = response.sumSquares;
+        
+        // Pseudoinversa: tolera variables de control casi colineales
+        DecompositionSolver solver = new SingularValueDecomposition(scc).getSolver();
+        RealVector beta = solver.solve(scy);
+        RealVector meanVector = new ArrayRealVector(controlMean);
+        double mean = responseMean - beta.dotProduct(meanVector);
+        
+        long degreesOfFreedom = n - q - 1;
+        double residualVariance = Math.max(syy - beta.dotProduct(scy), 0.0) / degreesOfFreedom;
+        double variance = residualVariance * (1.0 / n + meanVector.dotProduct(solver.solve(meanVector)));
+        double quantile = new TDistribution(degreesOfFreedom)
+                .inverseCumulativeProbability(1.0 - (1.0 - confidence) / 2.0);
+        double plainVariance = syy / (n - 1) / n;
+        return new Estimate(mean, quantile * Math.sqrt(variance),
+                            variance > 0 ? plainVariance / variance : Double.POSITIVE_INFINITY);
+    }
+    
+    /**
+     * Imprime, para cada métrica, el promedio simple y la estimación con
+     * variables de control con su intervalo y la reducción de varianza.
+     */
+    @Override
+    public void print(double confidence) {
+        System.out.println("=".repeat(100));
+        System.out.printf("RESUMEN DE %d RÉPLICAS CON VARIABLES DE CONTROL (IC %.0f%%)\n",
+                          getReplications(), confidence * 100);
+        System.out.println("=".repeat(100));
+        System.out.printf("%-30s %12s %12s %24s %14s\n", "Métrica", "Media simple", "Media (VC)",
+                          "Intervalo de confianza", "Reducción var.");
+        for (Map.Entry<String, StreamingStatistics> entry : getStatistics().entrySet()) {
+            if (isControl(entry.getKey())) {
+                continue;
+            }
+            Estimate estimate = estimate(entry.getKey(), confidence);
+            System.out.printf("%-30s %12.4f %12.4f   [%9.4f, %9.4f] %13.1fx\n",
+                              entry.getKey(), entry.getValue().getMean(), estimate.getMean(),
+                              estimate.getMean() - estimate.getHalfWidth(),
+                              estimate.getMean() + estimate.getHalfWidth(),
+                              estimate.getVarianceReduction());
+        }
+        System.out.println("=".repeat(100));
+    }
+}
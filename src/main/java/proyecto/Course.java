@@ -1,5 +1,8 @@
 package proyecto;
 
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,29 +11,59 @@ import java.util.List;
  */
 public class Course {
     private String name;
-    private Course prerequisite;
+    private List<Course> prerequisites;
     private DistributionType distributionType;
     private double mean;
     private double variance;
     private double lambda; // para distribución Poisson
+    private GradeDistribution grades; // para distribución empírica, null en las demás
     private int totalEnrollments;
-    private List<Double> passingTimes; // tiempos para aprobar esta asignatura
+    private StreamingStatistics passingTimeStatistics; // tiempos para aprobar esta asignatura
+    private IntHistogram passingTimeHistogram; // cantidad de aprobaciones por tiempo en semestres
+    private QuantileSketch scoreSketch; // notas de todos los intentos (vacío en modo analítico)
     private int totalAbandonments;
+    private ScoreSampler sampler; // generador de notas, se crea una sola vez
     
     public enum DistributionType {
-        NORMAL, POISSON
+        NORMAL, POISSON, EMPIRICAL
     }
     
     public Course(String name, Course prerequisite, DistributionType distributionType, 
                   double mean, double variance, double lambda) {
+        this(name, prerequisite != null ? List.of(prerequisite) : List.of(),
+             distributionType, mean, variance, lambda);
+    }
+    
+    public Course(String name, List<Course> prerequisites, DistributionType distributionType, 
+                  double mean, double variance, double lambda) {
+        this(name, prerequisites, distributionType, mean, variance, lambda, SimulationConfig.MAX_SEMESTERS);
+    }
+    
+    /**
+     * @param maxPassingTime mayor tiempo de aprobación registrable, en semestres
+     */
+    public Course(String name, List<Course> prerequisites, DistributionType distributionType, 
+                  double mean, double variance, double lambda, int maxPassingTime) {
+        this(name, prerequisites, distributionType, mean, variance, lambda, null, maxPassingTime);
+    }
+    
+    /**
+     * @param grades distribución de notas si distributionType es EMPIRICAL (null en otro caso)
+     * @param maxPassingTime mayor tiempo de aprobación registrable, en semestres
+     */
+    public Course(String name, List<Course> prerequisites, DistributionType distributionType, 
+                  double mean, double variance, double lambda, GradeDistribution grades, int maxPassingTime) {
         this.name = name;
-        this.prerequisite = prerequisite;
+        this.prerequisites = List.copyOf(prerequisites);
         this.distributionType = distributionType;
         this.mean = mean;
         this.variance = variance;
         this.lambda = lambda;
+        this.grades = grades;
         this.totalEnrollments = 0;
-        this.passingTimes = new ArrayList<>();
+        this.passingTimeStatistics = new StreamingStatistics();
+        this.passingTimeHistogram = new IntHistogram(maxPassingTime);
+        this.scoreSketch = new QuantileSketch();
         this.totalAbandonments = 0;
     }
     
@@ -38,8 +71,15 @@ public class Course {
         return name;
     }
     
+    /**
+     * Primer prerrequisito de la asignatura, o null si no tiene.
+     */
     public Course getPrerequisite() {
-        return prerequisite;
+        return prerequisites.isEmpty() ? null : prerequisites.get(0);
+    }
+    
+    public List<Course> getPrerequisites() {
+        return prerequisites;
     }
     
     public DistributionType getDistributionType() {
@@ -58,43 +98,142 @@ public class Course {
         return lambda;
     }
     
+    public GradeDistribution getGrades() {
+        return grades;
+    }
+    
+    /**
+     * Crea el generador de notas de la asignatura sobre el generador aleatorio dado.
+     */
+    public void attachSampler(RandomGenerator random) {
+        this.sampler = ScoreSampler.forCourse(this, random);
+    }
+    
+    public ScoreSampler getSampler() {
+        return sampler;
+    }
+    
+    /**
+     * Probabilidad exacta de aprobar en un intento (nota >= passingScore).
+     */
+    public double getPassProbability(double passingScore) {
+        return sampler.passProbability(passingScore);
+    }
+    
     public void incrementEnrollments() {
         this.totalEnrollments++;
     }
     
+    public void addEnrollments(int count) {
+        this.totalEnrollments += count;
+    }
+    
     public int getTotalEnrollments() {
         return totalEnrollments;
     }
     
-    public void addPassingTime(double semesters) {
-        this.passingTimes.add(semesters);
+    public void addPassingTime(int semesters) {
+        addPassingTimes(semesters, 1);
+    }
+    
+    /**
+     * Registra count aprobaciones con el mismo tiempo de aprobación.
+     */
+    public void addPassingTimes(int semesters, int count) {
+        if (count > 0) {
+            passingTimeStatistics.add(semesters, count);
+            passingTimeHistogram.add(semesters, count);
+        }
     }
     
+    /**
+     * Lista de tiempos de aprobación, reconstruida a partir del histograma
+     * (ordenada de menor a mayor). Para consultas frecuentes usar
+     * {@link #getPassingTimeStatistics()} o {@link #getPassingTimeHistogram()}.
+     */
     public List<Double> getPassingTimes() {
+        List<Double> passingTimes = new ArrayList<>();
+        for (int time = 0; time <= passingTimeHistogram.getMaxValue(); time++) {
+            for (long k = passingTimeHistogram.getCount(time); k > 0; k--) {
+                passingTimes.add((double) time);
+            }
+        }
         return passingTimes;
     }
     
+    public StreamingStatistics getPassingTimeStatistics() {
+        return passingTimeStatistics;
+    }
+    
+    public IntHistogram getPassingTimeHistogram() {
+        return passingTimeHistogram;
+    }
+    
+    /**
+     * Cuantiles aproximados de las notas de todos los intentos. En modo
+     * analítico no se generan notas y el sketch queda vacío.
+     */
+    public QuantileSketch getScoreSketch() {
+        return scoreSketch;
+    }
+    
+    public long getTotalPasses() {
+        return passingTimeStatistics.getCount();
+    }
+    
     public double getAveragePassingTime() {
-        if (passingTimes.isEmpty()) {
-            return 0.0;
-        }
-        return passingTimes.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        return passingTimeStatistics.getMean();
     }
     
     public void incrementAbandonments() {
         this.totalAbandonments++;
     }
     
+    public void addAbandonments(int count) {
+        this.totalAbandonments += count;
+    }
+    
     public int getTotalAbandonments() {
         return totalAbandonments;
     }
     
+    /**
+     * Pone en cero inscripciones, abandonos, tiempos de aprobación y notas, para
+     * volver a simular con el mismo generador de notas.
+     */
+    public void resetCounters() {
+        totalEnrollments = 0;
+        totalAbandonments = 0;
+        passingTimeStatistics.clear();
+        passingTimeHistogram.clear();
+        scoreSketch.clear();
+    }
+    
+    /**
+     * Contadores para un punto de control (ver SimulationCheckpoint).
+     */
+    void writeCounters(SimulationCheckpoint.Output out) throws IOException {
+        out.writeInt(totalEnrollments);
+        out.writeInt(totalAbandonments);
+        passingTimeStatistics.writeTo(out);
+        passingTimeHistogram.writeTo(out);
+        scoreSketch.writeTo(out);
+    }
+    
+    void readCounters(SimulationCheckpoint.Input in) throws IOException {
+        totalEnrollments = in.readInt();
+        totalAbandonments = in.readInt();
+        passingTimeStatistics.readFrom(in);
+        passingTimeHistogram.readFrom(in);
+        scoreSketch.readFrom(in);
+    }
+    
     public double getDifficultyIndex() {
         // Índice de dificultad basado en tiempo promedio y tasa de aprobación
         if (totalEnrollments == 0) {
             return 0.0;
         }
-        double passRate = passingTimes.size() / (double) totalEnrollments;
+        double passRate = getTotalPasses() / (double) totalEnrollments;
         double avgTime = getAveragePassingTime();
         // Mayor tiempo promedio y menor tasa de aprobación = mayor dificultad
         return avgTime * (1.0 - passRate) * 100;
@@ -0,0 +1,102 @@
+package proyecto;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Definición inmutable de una asignatura del plan de estudios: distribución
+ * de notas, parámetros y prerrequisitos (por nombre).
+ */
+public class CourseDefinition {
+    private final String name;
+    private final Course.DistributionType distributionType;
+    private final double mean;
+    private final double variance;
+    private final double lambda;
+    private final GradeDistribution grades; // solo para EMPIRICAL
+    private final List<String> prerequisites;
+    
+    /**
+     * Asignatura con distribución NORMAL o POISSON.
+     */
+    public CourseDefinition(String name, Course.DistributionType distributionType,
+                            double mean, double variance, double lambda, List<String> prerequisites) {
+        this(name, distributionType, mean, variance, lambda, null, prerequisites);
+        if (distributionType == Course.DistributionType.EMPIRICAL) {
+            throw new IllegalArgumentException("La asignatura " + name + " es EMPIRICAL y necesita sus notas");
+        }
+    }
+    
+    /**
+     * Asignatura con distribución EMPIRICAL: media, varianza y lambda quedan
+     * en 0, como los parámetros que no usan las demás distribuciones.
+     */
+    public CourseDefinition(String name, GradeDistribution grades, List<String> prerequisites) {
+        this(name, Course.DistributionType.EMPIRICAL, 0.0, 0.0, 0.0, grades, prerequisites);
+    }
+    
+    private CourseDefinition(String name, Course.DistributionType distributionType, double mean,
+                             double variance, double lambda, GradeDistribution grades, List<String> prerequisites) {
+        this.name = name;
+        this.distributionType = distributionType;
+        this.mean = mean;
+        this.variance = variance;
+        this.lambda = lambda;
+        this.grades = grades;
+        this.prerequisites = List.copyOf(prerequisites);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public Course.DistributionType getDistributionType() {
+        return distributionType;
+    }
+    
+    public double getMean() {
+        return mean;
+    }
+    
+    public double getVariance() {
+        return variance;
+    }
+    
+    public double getLambda() {
+        return lambda;
+    }
+    
+    /**
+     * Distribución de notas de una asignatura EMPIRICAL (null en las demás).
+     */
+    public GradeDistribution getGrades() {
+        return grades;
+    }
+    
+    public List<String> getPrerequisites() {
+        return prerequisites;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CourseDefinition)) {
+            return false;
+        }
+        CourseDefinition other = (CourseDefinition) o;
+        return name.equals(other.name)
+            && distributionType == other.distributionType
+            && Double.compare(mean, other.mean) == 0
+            && Double.compare(variance, other.variance) == 0
+            && Double.compare(lambda, other.lambda) == 0
+            && Objects.equals(grades, other.grades)
+            && prerequisites.equals(other.prerequisites);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, distributionType, mean, variance, lambda, grades, prerequisites);
+    }
+}
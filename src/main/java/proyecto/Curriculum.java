@@ -0,0 +1,233 @@
+package proyecto;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plan de estudios: asignaturas y prerrequisitos, organizados como un grafo
+ * acíclico dirigido.
+ *
+ * Al construirlo se precalcula, para cada asignatura, la máscara de bits de
+ * sus prerrequisitos y el orden de prioridad de inscripción (orden
+ * topológico por nivel; dentro de un nivel, el orden en que se declararon).
+ * Así verificar si un estudiante puede inscribirse cuesta un AND y una
+ * comparación sobre su máscara de aprobadas, sin importar el tamaño del plan.
+ */
+public class Curriculum {
+    private final List<CourseDefinition> courses;
+    private final Map<String, Integer> indexByName;
+    private final long[] prerequisiteMasks;
+    private final int[] priorityOrder;
+    
+    public Curriculum(List<CourseDefinition> courses) {
+        if (courses.isEmpty()) {
+            throw new IllegalArgumentException("El plan de estudios no tiene asignaturas");
+        }
+        if (courses.size() > StudentPopulation.MAX_COURSES) {
+            throw new IllegalArgumentException("El plan de estudios admite como máximo "
+                + StudentPopulation.MAX_COURSES + " asignaturas: " + courses.size());
+        }
+        this.courses = List.copyOf(courses);
+        this.indexByName = new HashMap<>();
+        for (int c = 0; c < courses.size(); c++) {
+            if (indexByName.put(courses.get(c).getName(), c) != null) {
+                throw new IllegalArgumentException("Asignatura repetida: " + courses.get(c).getName());
+            }
+        }
+        
+        this.prerequisiteMasks = new long[courses.size()];
+        for (int c = 0; c < courses.size(); c++) {
+            for (String prerequisite : courses.get(c).getPrerequisites()) {
+                Integer p = indexByName.get(prerequisite);
+                if (p == null) {
+                    throw new IllegalArgumentException("Prerrequisito desconocido " + prerequisite
+                        + " en la asignatura " + courses.get(c).getName());
+                }
+                prerequisiteMasks[c] |= 1L << p;
+            }
+        }
+        
+        this.priorityOrder = computePriorityOrder();
+    }
+    
+    /**
+     * Orden topológico (algoritmo de Kahn) por niveles: primero las asignaturas
+     * sin prerrequisitos, luego las que solo dependen de ellas, etc.
+     */
+    private int[] computePriorityOrder() {
+        int n = courses.size();
+        int[] pending = new int[n]; // prerrequisitos aún no ubicados
+        for (int c = 0; c < n; c++) {
+            pending[c] = Long.bitCount(prerequisiteMasks[c]);
+        }
+        
+        int[] order = new int[n];
+        int placed = 0;
+        boolean[] done = new boolean[n];
+        while (placed < n) {
+            List<Integer> level = new ArrayList<>();
+            for (int c = 0; c < n; c++) {
+                if (!done[c] && pending[c] == 0) {
+                    level.add(c);
+                }
+            }
+            if (level.isEmpty()) {
+                throw new IllegalArgumentException("Los prerrequisitos forman un ciclo");
+            }
+            for (int c : level) {
+                done[c] = true;
+                order[placed++] = c;
+            }
+            for (int c = 0; c < n; c++) {
+                for (int p : level) {
+                    if ((prerequisiteMasks[c] & (1L << p)) != 0) {
+                        pending[c]--;
+                    }
+                }
+            }
+        }
+        return order;
+    }
+    
+    /**
+     * Plan por defecto: A -> B -> C y D -> E -> F, con los parámetros de SimulationConfig.
+     * 
+     * PARÁMETROS MODIFICABLES: Ver SimulationConfig.java
+     */
+    public static Curriculum defaultCurriculum() {
+        return new Curriculum(Arrays.asList(
+            // ========== PRIMER BLOQUE: A -> B -> C ==========
+            new CourseDefinition("A", Course.DistributionType.NORMAL,
+                                 SimulationConfig.COURSE_A_MEAN,
+                                 SimulationConfig.COURSE_A_VARIANCE,
+                                 SimulationConfig.COURSE_A_LAMBDA, List.of()),
+            new CourseDefinition("B", Course.DistributionType.NORMAL,
+                                 SimulationConfig.COURSE_B_MEAN,
+                                 SimulationConfig.COURSE_B_VARIANCE,
+                                 SimulationConfig.COURSE_B_LAMBDA, List.of("A")),
+            new CourseDefinition("C", Course.DistributionType.POISSON,
+                                 SimulationConfig.COURSE_C_MEAN,
+                                 SimulationConfig.COURSE_C_VARIANCE,
+                                 SimulationConfig.COURSE_C_LAMBDA, List.of("B")),
+            // ========== SEGUNDO BLOQUE: D -> E -> F ==========
+            new CourseDefinition("D", Course.DistributionType.NORMAL,
+                                 SimulationConfig.COURSE_D_MEAN,
+                                 SimulationConfig.COURSE_D_VARIANCE,
+                                 SimulationConfig.COURSE_D_LAMBDA, List.of()),
+            new CourseDefinition("E", Course.DistributionType.NORMAL,
+                                 SimulationConfig.COURSE_E_MEAN,
+                                 SimulationConfig.COURSE_E_VARIANCE,
+                                 SimulationConfig.COURSE_E_LAMBDA, List.of("D")),
+            new CourseDefinition("F", Course.DistributionType.POISSON,
+                                 SimulationConfig.COURSE_F_MEAN,
+                                 SimulationConfig.COURSE_F_VARIANCE,
+                                 SimulationConfig.COURSE_F_LAMBDA, List.of("E"))
+        ));
+    }
+    
+    /**
+     * Carga un plan de estudios desde un archivo de texto. Cada línea describe
+     * una asignatura (las líneas vacías y las que empiezan con # se ignoran):
+     * 
+     *   nombre, distribución, media, varianza, lambda, prerrequisitos
+     * 
+     * donde distribución es NORMAL o POISSON y los prerrequisitos se separan
+     * con ';' (vacío si no tiene). Los prerrequisitos pueden declararse en
+     * cualquier orden. Una asignatura con notas históricas usa
+     * 
+     *   nombre, EMPIRICAL, archivo de notas, , , prerrequisitos
+     * 
+     * con el archivo relativo al del plan (formato en {@link GradeDistribution#load}).
+     */
+    public static Curriculum load(Path file) throws IOException {
+        List<CourseDefinition> courses = new ArrayList<>();
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(",", -1);
+            if (fields.length < 5 || fields.length > 6) {
+                throw new IllegalArgumentException(file + ":" + (i + 1)
+                    + ": se esperaban 5 o 6 campos separados por coma");
+            }
+            try {
+                List<String> prerequisites = new ArrayList<>();
+                if (fields.length == 6) {
+                    for (String prerequisite : fields[5].split(";")) {
+                        if (!prerequisite.trim().isEmpty()) {
+                            prerequisites.add(prerequisite.trim());
+                        }
+                    }
+                }
+                Course.DistributionType type = Course.DistributionType.valueOf(fields[1].trim().toUpperCase());
+                if (type == Course.DistributionType.EMPIRICAL) {
+                    Path grades = file.resolveSibling(fields[2].trim());
+                    courses.add(new CourseDefinition(fields[0].trim(), GradeDistribution.load(grades),
+                                                     prerequisites));
+                    continue;
+                }
+                courses.add(new CourseDefinition(
+                    fields[0].trim(),
+                    type,
+                    Double.parseDouble(fields[2].trim()),
+                    Double.parseDouble(fields[3].trim()),
+                    Double.parseDouble(fields[4].trim()),
+                    prerequisites));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return new Curriculum(courses);
+    }
+    
+    public int size() {
+        return courses.size();
+    }
+    
+    public List<CourseDefinition> getCourses() {
+        return courses;
+    }
+    
+    public CourseDefinition getCourse(int index) {
+        return courses.get(index);
+    }
+    
+    /**
+     * Índice de la asignatura o -1 si no existe.
+     */
+    public int indexOf(String name) {
+        Integer index = indexByName.get(name);
+        return index != null ? index : -1;
+    }
+    
+    public String[] getCourseNames() {
+        String[] names = new String[courses.size()];
+        for (int c = 0; c < names.length; c++) {
+            names[c] = courses.get(c).getName();
+        }
+        return names;
+    }
+    
+    /**
+     * Máscara de bits de los prerrequisitos de la asignatura.
+     */
+    public long getPrerequisiteMask(int course) {
+        return prerequisiteMasks[course];
+    }
+    
+    /**
+     * Índices de asignaturas en orden de prioridad de inscripción.
+     */
+    public int[] getPriorityOrder() {
+        return priorityOrder.clone();
+    }
+}
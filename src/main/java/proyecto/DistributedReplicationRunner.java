@@ -0,0 +1,418 @@
+package proyecto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reparte las réplicas entre varios procesos de trabajo (JVM separadas, cada
+ * una con su propio heap y su GC) que se conectan al coordinador por un
+ * socket local, como lo harían los nodos de un cluster.
+ *
+ * Las réplicas se dividen en tramos que los procesos piden a medida que
+ * terminan el anterior. Cada proceso ejecuta su tramo con un
+ * {@link ReplicationRunner} y devuelve las métricas de cada réplica (unos
+ * pocos doubles por réplica); el coordinador las agrega en orden de réplica,
+ * así que el resumen es idéntico al de {@code ReplicationRunner.run} con la
+ * misma semilla maestra, sin importar cuántos procesos participen.
+ *
+ * Si un proceso muere o se corta su conexión, su tramo vuelve a la cola y lo
+ * toma otro proceso; la corrida falla sólo si no queda ninguno. Un error de la
+ * simulación dentro de un proceso (por ejemplo, parámetros inválidos) no se
+ * reintenta, porque se repetiría igual en cualquier otro.
+ */
+public class DistributedReplicationRunner {
+    static final int MAGIC = 0x52504C43; // "RPLC"
+    static final int PROTOCOL_VERSION = 3;
+    static final byte STATUS_OK = 0;
+    static final byte STATUS_ERROR = 1;
+    
+    /** Tramos por proceso cuando no se fija el tamaño: balancea la carga y acota lo que se pierde. */
+    private static final int SLICES_PER_WORKER = 8;
+    /** Cada cuánto se revisa si los procesos siguen vivos mientras se espera. */
+    private static final int POLL_MILLIS = 200;
+    private static final int HANDSHAKE_MILLIS = 10_000;
+    private static final long SHUTDOWN_SECONDS = 5;
+    
+    private final int workers;
+    private final int threadsPerWorker;
+    private final int studentsPerReplication;
+    private final SimulationParameters parameters;
+    private boolean analyticMode;
+    private boolean commonRandomNumbers;
+    private boolean antithetic;
+    private boolean controlVariates;
+    private SimulationParameters alternative; // null = sin comparación
+    private RandomSource randomSource = RandomSource.WELL19937C;
+    private int sliceSize; // 0 = según la cantidad de réplicas
+    private final List<String> jvmOptions = new ArrayList<>();
+    private String classPath = System.getProperty("java.class.path");
+    private final AtomicInteger reassignedSlices = new AtomicInteger();
+    
+    /**
+     * @param workers procesos de trabajo
+     * @param threadsPerWorker hilos de cada proceso para sus réplicas
+     */
+    public DistributedReplicationRunner(int workers, int threadsPerWorker, int studentsPerReplication,
+                                        SimulationParameters parameters) {
+        if (workers < 1 || threadsPerWorker < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un proceso y un hilo: "
+                + workers + " procesos, " + threadsPerWorker + " hilos");
+        }
+        this.workers = workers;
+        this.threadsPerWorker = threadsPerWorker;
+        this.studentsPerReplication = studentsPerReplication;
+        this.parameters = parameters;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setAnalyticMode}.
+     */
+    public void setAnalyticMode(boolean analyticMode) {
+        this.analyticMode = analyticMode;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setCommonRandomNumbers}.
+     */
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        this.commonRandomNumbers = commonRandomNumbers;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setAntithetic}.
+     */
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setControlVariates}.
+     */
+    public void setControlVariates(boolean controlVariates) {
+        this.controlVariates = controlVariates;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setComparison}.
+     */
+    public void setComparison(SimulationParameters alternative) {
+        this.alternative = alternative;
+    }
+    
+    /**
+     * Ver {@link ReplicationRunner#setRandomSource}.
+     */
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+    
+    /**
+     * Réplicas por tramo (0 para elegirlo según la cantidad de réplicas y de procesos).
+     */
+    public void setSliceSize(int sliceSize) {
+        if (sliceSize < 0) {
+            throw new IllegalArgumentException("Tamaño de tramo negativo: " + sliceSize);
+        }
+        this.sliceSize = sliceSize;
+    }
+    
+    /**
+     * Opciones de la JVM de los procesos de trabajo, por ejemplo -Xmx4g.
+     */
+    public void addJvmOption(String option) {
+        jvmOptions.add(option);
+    }
+    
+    /**
+     * Classpath de los procesos de trabajo (por defecto, el de este proceso).
+     */
+    public void setClassPath(String classPath) {
+        this.classPath = classPath;
+    }
+    
+    /**
+     * Tramos que se volvieron a asignar porque su proceso murió.
+     */
+    public int getReassignedSlices() {
+        return reassignedSlices.get();
+    }
+    
+    public int getWorkers() {
+        return workers;
+    }
+    
+    public int getThreadsPerWorker() {
+        return threadsPerWorker;
+    }
+    
+    public ReplicationSummary run(int replications, long masterSeed) {
+        ReplicationSummary summary = controlVariates ? new ControlVariateSummary() : new ReplicationSummary();
+        for (SimulationMetrics metrics : runSlices(replications, masterSeed)) {
+            summary.add(metrics);
+        }
+        return summary;
+    }
+    
+    private SimulationMetrics[] runSlices(int replications, long masterSeed) {
+        SimulationMetrics[] results = new SimulationMetrics[replications];
+        if (replications == 0) {
+            return results;
+        }
+        BlockingQueue<int[]> pending = new LinkedBlockingQueue<>();
+        int size = sliceSize > 0 ? sliceSize : Math.max(1, replications / (workers * SLICES_PER_WORKER));
+        for (int from = 0; from < replications; from += size) {
+            pending.add(new int[] {from, Math.min(size, replications - from)});
+        }
+        AtomicInteger unfinished = new AtomicInteger(pending.size());
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        
+        List<Process> processes = new ArrayList<>();
+        ExecutorService connections = Executors.newCachedThreadPool();
+        try (ServerSocket server = new ServerSocket(0, workers, InetAddress.getLoopbackAddress())) {
+            for (int w = 0; w < workers; w++) {
+                processes.add(startWorker(server.getLocalPort()));
+            }
+            server.setSoTimeout(POLL_MILLIS);
+            while (unfinished.get() > 0 && failure.get() == null) {
+                Socket socket;
+                try {
+                    socket = server.accept();
+                } catch (SocketTimeoutException e) {
+                    // Los procesos salen recién después de que se cuenta el último tramo: si
+                    // ya no queda ninguno, puede ser que la corrida haya terminado mientras tanto
+                    if (processes.stream().noneMatch(Process::isAlive) && unfinished.get() > 0) {
+                        throw new IllegalStateException("Terminaron todos los procesos de trabajo con "
+                            + unfinished.get() + " tramos pendientes");
+                    }
+                    continue;
+                }
+                Process process = findProcess(processes, socket);
+                if (process != null) {
+                    connections.execute(() -> serve(socket, process, masterSeed, pending, unfinished,
+                                                    results, failure));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error del coordinador de réplicas", e);
+        } finally {
+            connections.shutdown();
+            stopWorkers(processes);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return results;
+    }
+    
+    private Process startWorker(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(classPath);
+        command.add(Main.class.getName());
+        command.add("--worker=" + port);
+        command.add("--threads=" + threadsPerWorker);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+    
+    /**
+     * El proceso que abrió la conexión, que se presenta con su pid, o null
+     * (conexión cerrada) si no es uno de los procesos de trabajo.
+     * @throws IllegalStateException si el proceso tiene otra versión del motor
+     */
+    private static Process findProcess(List<Process> processes, Socket socket) throws IOException {
+        try {
+            socket.setSoTimeout(HANDSHAKE_MILLIS);
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            if (in.readInt() == MAGIC && in.readInt() == PROTOCOL_VERSION) {
+                if (in.readInt() != SimulationEngine.ENGINE_VERSION) {
+                    socket.close();
+                    throw new IllegalStateException("El proceso de trabajo tiene otra versión del motor");
+                }
+                long pid = in.readLong();
+                socket.setSoTimeout(0);
+                for (Process process : processes) {
+                    if (process.pid() == pid) {
+                        return process;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Se trata como una conexión ajena
+        }
+        socket.close();
+        return null;
+    }
+    
+    /**
+     * Atiende la conexión de un proceso: le envía la configuración y después
+     * tramos hasta que no queden. Si la conexión se corta, devuelve el tramo en
+     * curso a la cola y termina el proceso.
+     */
+    private void serve(Socket socket, Process process, long masterSeed, BlockingQueue<int[]> pending,
+                       AtomicInteger unfinished, SimulationMetrics[] results,
+                       AtomicReference<RuntimeException> failure) {
+        int[] slice = null;
+        try (Socket connection = socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(connection.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(connection.getInputStream()));
+            writeJob(out, masterSeed);
+            while (unfinished.get() > 0 && failure.get() == null) {
+                slice = pending.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (slice == null) {
+                    continue; // otro proceso tiene los tramos que quedan: esperar por si muere
+                }
+                out.writeInt(slice[0]);
+                out.writeInt(slice[1]);
+                out.flush();
+                if (in.readByte() != STATUS_OK) {
+                    failure.compareAndSet(null, new IllegalStateException(
+                        "Falló el tramo " + slice[0] + ".." + (slice[0] + slice[1]) + ": " + in.readUTF()));
+                    return;
+                }
+                readMetrics(in, results, slice[0], slice[1]);
+                slice = null;
+                unfinished.decrementAndGet();
+            }
+            out.writeInt(0);
+            out.writeInt(0); // fin
+            out.flush();
+        } catch (IOException e) {
+            if (slice != null) {
+                reassignedSlices.incrementAndGet();
+                pending.add(slice);
+            }
+            process.destroyForcibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        }
+    }
+    
+    private void writeJob(DataOutputStream out, long masterSeed) throws IOException {
+        out.writeLong(masterSeed);
+        out.writeInt(studentsPerReplication);
+        out.writeBoolean(analyticMode);
+        out.writeBoolean(commonRandomNumbers);
+        out.writeBoolean(antithetic);
+        out.writeUTF(randomSource.name());
+        writeParameters(out, parameters);
+        out.writeBoolean(alternative != null);
+        if (alternative != null) {
+            writeParameters(out, alternative);
+        }
+    }
+    
+    /**
+     * Lee las métricas de un tramo: los nombres una vez y después los valores
+     * de cada réplica en ese orden.
+     */
+    private static void readMetrics(DataInputStream in, SimulationMetrics[] results, int from, int count)
+            throws IOException {
+        String[] names = new String[in.readInt()];
+        for (int m = 0; m < names.length; m++) {
+            names[m] = in.readUTF();
+        }
+        SimulationMetrics[] slice = new SimulationMetrics[count];
+        for (int i = 0; i < count; i++) {
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (String name : names) {
+                values.put(name, in.readDouble());
+            }
+            slice[i] = new SimulationMetrics(values);
+        }
+        // Sólo con el tramo completo: si la conexión se corta a la mitad, se reasigna entero
+        System.arraycopy(slice, 0, results, from, count);
+    }
+    
+    private static void stopWorkers(List<Process> processes) {
+        for (Process process : processes) {
+            try {
+                if (!process.waitFor(SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    static void writeParameters(DataOutputStream out, SimulationParameters parameters) throws IOException {
+        out.writeDouble(parameters.getPassingScore());
+        out.writeInt(parameters.getMaxAttemptsPerCourse());
+        out.writeInt(parameters.getMaxCoursesPerSemester());
+        out.writeInt(parameters.getMaxSemesters());
+        out.writeInt(parameters.getMinSemestersCompletion());
+        out.writeInt(parameters.getMaxSemestersCompletion());
+        List<CourseDefinition> courses = parameters.getCurriculum().getCourses();
+        out.writeInt(courses.size());
+        for (CourseDefinition course : courses) {
+            out.writeUTF(course.getName());
+            out.writeUTF(course.getDistributionType().name());
+            out.writeDouble(course.getMean());
+            out.writeDouble(course.getVariance());
+            out.writeDouble(course.getLambda());
+            if (course.getGrades() != null) {
+                course.getGrades().writeTo(out);
+            }
+            out.writeInt(course.getPrerequisites().size());
+            for (String prerequisite : course.getPrerequisites()) {
+                out.writeUTF(prerequisite);
+            }
+        }
+    }
+    
+    static SimulationParameters readParameters(DataInputStream in) throws IOException {
+        double passingScore = in.readDouble();
+        int maxAttempts = in.readInt();
+        int maxCoursesPerSemester = in.readInt();
+        int maxSemesters = in.readInt();
+        int minSemestersCompletion = in.readInt();
+        int maxSemestersCompletion = in.readInt();
+        List<CourseDefinition> courses = new ArrayList<>();
+        int count = in.readInt();
+        for (int c = 0; c < count; c++) {
+            String name = in.readUTF();
+            Course.DistributionType type = Course.DistributionType.valueOf(in.readUTF());
+            double mean = in.readDouble();
+            double variance = in.readDouble();
+            double lambda = in.readDouble();
+            GradeDistribution grades = type == Course.DistributionType.EMPIRICAL
+                    ? GradeDistribution.readFrom(in)
+                    : null;
+            List<String> prerequisites = new ArrayList<>();
+            int prerequisiteCount = in.readInt();
+            for (int p = 0; p < prerequisiteCount; p++) {
+                prerequisites.add(in.readUTF());
+            }
+            courses.add(grades != null
+                        ? new CourseDefinition(name, grades, prerequisites)
+                        : new CourseDefinition(name, type, mean, variance, lambda, prerequisites));
+        }
+        return new SimulationParameters(new Curriculum(courses), passingScore, maxAttempts, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+}
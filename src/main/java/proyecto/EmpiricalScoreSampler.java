@@ -0,0 +1,61 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Notas con una distribución empírica ({@link GradeDistribution}), por
+ * ejemplo un histograma de notas históricas.
+ *
+ * Cada nota cuesta un uniforme y una consulta a una {@link AliasTable}
+ * armada una sola vez: O(1) sin importar cuántas notas distintas tenga la
+ * distribución, y más barato que una gaussiana. La transformación inversa
+ * ({@link #quantile}) busca en la función de distribución acumulada.
+ */
+public class EmpiricalScoreSampler implements ScoreSampler {
+    private final RandomGenerator random;
+    private final GradeDistribution distribution;
+    private final double[] grades;
+    private final AliasTable table;
+    private final double[] cumulative; // P(X <= grades[k])
+    
+    public EmpiricalScoreSampler(RandomGenerator random, GradeDistribution distribution) {
+        this.random = random;
+        this.distribution = distribution;
+        this.grades = distribution.getGrades();
+        double[] probabilities = distribution.getProbabilities();
+        this.table = new AliasTable(probabilities);
+        this.cumulative = new double[probabilities.length];
+        double sum = 0.0;
+        for (int k = 0; k < probabilities.length; k++) {
+            sum += probabilities[k];
+            cumulative[k] = sum;
+        }
+        cumulative[cumulative.length - 1] = 1.0; // sin huecos por redondeo
+    }
+    
+    @Override
+    public double sample() {
+        return grades[table.sample(random)];
+    }
+    
+    @Override
+    public void sample(double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            out[i] = grades[table.sample(random)];
+        }
+    }
+    
+    @Override
+    public double quantile(double u) {
+        int index = Arrays.binarySearch(cumulative, u);
+        int k = index >= 0 ? index : -index - 1; // menor k con P(X <= grades[k]) >= u
+        return grades[Math.min(k, grades.length - 1)];
+    }
+    
+    @Override
+    public double passProbability(double passingScore) {
+        return distribution.passProbability(passingScore);
+    }
+}
@@ -0,0 +1,312 @@
+package proyecto;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro binario de inscripciones, de solo agregado, escrito y leído a
+ * través de archivos mapeados en memoria (NIO).
+ *
+ * Cada inscripción ocupa un registro de {@link #RECORD_BYTES} bytes
+ * (little-endian):
+ *
+ *   offset  0  int    estudiante
+ *   offset  4  short  asignatura (índice en el plan)
+ *   offset  6  short  semestre
+ *   offset  8  byte   intento
+ *   offset  9  byte   resultado (OUTCOME_FAILED, OUTCOME_PASSED u OUTCOME_ABANDONED)
+ *   offset 10  short  sin uso
+ *   offset 12  float  nota (NaN en modo analítico, donde no se genera)
+ *
+ * El archivo empieza con una cabecera de {@link #HEADER_BYTES} bytes (marca,
+ * versión y cantidad de registros) y se mapea en segmentos de
+ * {@link #SEGMENT_BYTES}, por lo que admite más de 2 GB. Los datos no pasan
+ * por el heap: {@link #forEach} recorre directamente las páginas mapeadas.
+ * La cantidad de registros de la cabecera es la que vale: el archivo puede
+ * terminar con espacio reservado sin usar (ver {@link #close()}).
+ */
+public final class EnrollmentEventLog implements Closeable {
+    public static final int RECORD_BYTES = 16;
+    public static final int HEADER_BYTES = 16;
+    /** Tamaño de cada región mapeada (múltiplo de RECORD_BYTES). */
+    static final int SEGMENT_BYTES = 64 * 1024 * 1024;
+    
+    public static final int OUTCOME_FAILED = 0;
+    public static final int OUTCOME_PASSED = 1;
+    /** Desaprobó el último intento permitido y abandonó. */
+    public static final int OUTCOME_ABANDONED = 2;
+    
+    private static final int MAGIC = 0x454E524C; // "ENRL"
+    private static final int VERSION = 1;
+    private static final int RECORDS_PER_SEGMENT = SEGMENT_BYTES / RECORD_BYTES;
+    
+    /**
+     * Recibe los campos de cada registro sin crear objetos.
+     */
+    public interface Visitor {
+        void visit(int student, int course, int semester, int attempt, float score, int outcome);
+    }
+    
+    private final FileChannel channel;
+    private final boolean writable;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private long size; // registros
+    
+    private EnrollmentEventLog(FileChannel channel, boolean writable, long size) {
+        this.channel = channel;
+        this.writable = writable;
+        this.size = size;
+    }
+    
+    /**
+     * Crea un registro vacío (reemplaza el archivo si existe).
+     */
+    public static EnrollmentEventLog create(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        EnrollmentEventLog log = new EnrollmentEventLog(channel, true, 0);
+        log.writeHeader();
+        return log;
+    }
+    
+    /**
+     * Abre un registro existente para leerlo.
+     */
+    public static EnrollmentEventLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = readSize(file, channel);
+            EnrollmentEventLog log = new EnrollmentEventLog(channel, false, size);
+            long segmentCount = (size + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+            for (long s = 0; s < segmentCount; s++) {
+                long records = Math.min(RECORDS_PER_SEGMENT, size - s * RECORDS_PER_SEGMENT);
+                log.segments.add(log.map(s, records * RECORD_BYTES, FileChannel.MapMode.READ_ONLY));
+            }
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Abre un registro existente para seguir agregando después de los
+     * primeros records registros; los posteriores se descartan. Sirve para
+     * continuar una corrida desde un punto de control
+     * ({@link SimulationCheckpoint#getEventRecords()}).
+     */
+    public static EnrollmentEventLog openForAppend(Path file, long records) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long size = readSize(file, channel);
+            if (records < 0 || records > size) {
+                throw new IllegalArgumentException(file + " tiene " + size + " registros, no " + records);
+            }
+            EnrollmentEventLog log = new EnrollmentEventLog(channel, true, records);
+            long segmentCount = (records + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT;
+            for (long s = 0; s < segmentCount; s++) {
+                MappedByteBuffer segment = log.map(s, SEGMENT_BYTES, FileChannel.MapMode.READ_WRITE);
+                // Los segmentos completos quedan sin espacio: el próximo registro abre uno nuevo
+                segment.position((int) Math.min(RECORDS_PER_SEGMENT, records - s * RECORDS_PER_SEGMENT)
+                                 * RECORD_BYTES);
+                log.segments.add(segment);
+            }
+            log.writeHeader();
+            return log;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Valida la cabecera y retorna la cantidad de registros.
+     */
+    private static long readSize(Path file, FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        if (channel.read(header, 0) < HEADER_BYTES || header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException(file + " no es un registro de inscripciones");
+        }
+        if (header.getInt(4) != VERSION) {
+            throw new IllegalArgumentException(file + ": versión no soportada " + header.getInt(4));
+        }
+        long size = header.getLong(8);
+        if (channel.size() < HEADER_BYTES + size * RECORD_BYTES) {
+            throw new IllegalArgumentException(file + " está truncado");
+        }
+        return size;
+    }
+    
+    /**
+     * Cantidad de registros.
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Agrega un registro al final.
+     */
+    public void append(int student, int course, int semester, int attempt, float score, int outcome) {
+        MappedByteBuffer segment = writableSegment();
+        segment.putInt(student)
+               .putShort((short) course)
+               .putShort((short) semester)
+               .put((byte) attempt)
+               .put((byte) outcome)
+               .putShort((short) 0)
+               .putFloat(score);
+        size++;
+    }
+    
+    /**
+     * Agrega los registros ya codificados de un buffer (entre 0 y su
+     * posición), como los que arma cada fragmento del motor.
+     */
+    void append(ByteBuffer records) {
+        ByteBuffer source = records.duplicate();
+        source.flip();
+        if (source.remaining() % RECORD_BYTES != 0) {
+            throw new IllegalArgumentException("El buffer no contiene registros completos");
+        }
+        while (source.hasRemaining()) {
+            MappedByteBuffer segment = writableSegment();
+            int bytes = Math.min(segment.remaining(), source.remaining());
+            ByteBuffer chunk = source.slice();
+            chunk.limit(bytes);
+            segment.put(chunk);
+            source.position(source.position() + bytes);
+            size += bytes / RECORD_BYTES;
+        }
+    }
+    
+    public int getStudent(long record) {
+        return segmentFor(record).getInt(offsetIn(record));
+    }
+    
+    public int getCourse(long record) {
+        return segmentFor(record).getShort(offsetIn(record) + 4);
+    }
+    
+    public int getSemester(long record) {
+        return segmentFor(record).getShort(offsetIn(record) + 6);
+    }
+    
+    public int getAttempt(long record) {
+        return segmentFor(record).get(offsetIn(record) + 8);
+    }
+    
+    public int getOutcome(long record) {
+        return segmentFor(record).get(offsetIn(record) + 9);
+    }
+    
+    public float getScore(long record) {
+        return segmentFor(record).getFloat(offsetIn(record) + 12);
+    }
+    
+    /**
+     * Recorre todos los registros en orden, leyendo directamente de las
+     * páginas mapeadas.
+     */
+    public void forEach(Visitor visitor) {
+        long remaining = size;
+        for (MappedByteBuffer segment : segments) {
+            int records = (int) Math.min(RECORDS_PER_SEGMENT, remaining);
+            for (int r = 0, offset = 0; r < records; r++, offset += RECORD_BYTES) {
+                visitor.visit(segment.getInt(offset),
+                              segment.getShort(offset + 4),
+                              segment.getShort(offset + 6),
+                              segment.get(offset + 8),
+                              segment.getFloat(offset + 12),
+                              segment.get(offset + 9));
+            }
+            remaining -= records;
+        }
+    }
+    
+    /**
+     * Escribe a disco los registros agregados hasta ahora y actualiza la cabecera.
+     */
+    public void flush() throws IOException {
+        if (!writable) {
+            return;
+        }
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        writeHeader();
+        channel.force(false);
+    }
+    
+    /**
+     * Cierra el archivo. Al cerrar un registro escrito se intenta recortar el
+     * espacio reservado y no usado del último segmento. Los mapeos se liberan
+     * recién cuando el recolector descarta los buffers, y algunos sistemas
+     * (Windows) no permiten recortar un archivo todavía mapeado: en ese caso
+     * el espacio queda, y la cabecera ya escrita indica la cantidad exacta de
+     * registros.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            if (writable) {
+                flush();
+                segments.clear();
+                try {
+                    channel.truncate(HEADER_BYTES + size * RECORD_BYTES);
+                } catch (IOException e) {
+                    // Archivo aún mapeado: se conserva el espacio reservado (ver la cabecera)
+                }
+            }
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private MappedByteBuffer writableSegment() {
+        if (!writable) {
+            throw new IllegalStateException("El registro está abierto solo para lectura");
+        }
+        if (segments.isEmpty() || !segments.get(segments.size() - 1).hasRemaining()) {
+            try {
+                segments.add(map(segments.size(), SEGMENT_BYTES, FileChannel.MapMode.READ_WRITE));
+            } catch (IOException e) {
+                throw new IllegalStateException("No se pudo ampliar el registro de inscripciones", e);
+            }
+        }
+        return segments.get(segments.size() - 1);
+    }
+    
+    private MappedByteBuffer map(long segment, long bytes, FileChannel.MapMode mode) throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, HEADER_BYTES + segment * SEGMENT_BYTES, bytes);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+    
+    private MappedByteBuffer segmentFor(long record) {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Registro inexistente: " + record);
+        }
+        return segments.get((int) (record / RECORDS_PER_SEGMENT));
+    }
+    
+    private static int offsetIn(long record) {
+        return (int) (record % RECORDS_PER_SEGMENT) * RECORD_BYTES;
+    }
+    
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putLong(size).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+    }
+}
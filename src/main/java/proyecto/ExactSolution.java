@@ -0,0 +1,170 @@
+package proyecto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Distribuciones exactas calculadas por {@link ExactSolver}, por estudiante.
+ */
+public class ExactSolution {
+    private final String[] courseNames;
+    private final double[] passProbability;
+    private final double[] completionBySemester;
+    private final double[] abandonmentBySemester;
+    private final double[] abandonmentCause;
+    private final double[] abandonmentCounter;
+    private final double[] enrollments;
+    private final double stillActive;
+    private final int minSemestersCompletion;
+    private final int maxSemestersCompletion;
+    private final int distinctStates;
+    private final int maxReachableStates;
+    
+    ExactSolution(String[] courseNames, double[] passProbability, double[] completionBySemester,
+                  double[] abandonmentBySemester, double[] abandonmentCause, double[] abandonmentCounter,
+                  double[] enrollments, double stillActive, int minSemestersCompletion,
+                  int maxSemestersCompletion, int distinctStates, int maxReachableStates) {
+        this.courseNames = courseNames;
+        this.passProbability = passProbability;
+        this.completionBySemester = completionBySemester;
+        this.abandonmentBySemester = abandonmentBySemester;
+        this.abandonmentCause = abandonmentCause;
+        this.abandonmentCounter = abandonmentCounter;
+        this.enrollments = enrollments;
+        this.stillActive = stillActive;
+        this.minSemestersCompletion = minSemestersCompletion;
+        this.maxSemestersCompletion = maxSemestersCompletion;
+        this.distinctStates = distinctStates;
+        this.maxReachableStates = maxReachableStates;
+    }
+    
+    /**
+     * Probabilidad de completar todas las asignaturas exactamente en cada semestre.
+     */
+    public double[] getCompletionBySemester() {
+        return completionBySemester.clone();
+    }
+    
+    /**
+     * Probabilidad de abandonar en cada semestre.
+     */
+    public double[] getAbandonmentBySemester() {
+        return abandonmentBySemester.clone();
+    }
+    
+    /**
+     * Probabilidad de abandonar por agotar los intentos de cada asignatura.
+     */
+    public double[] getAbandonmentByCourse() {
+        return abandonmentCause.clone();
+    }
+    
+    public double getCompletionProbability() {
+        return sum(completionBySemester);
+    }
+    
+    public double getAbandonmentProbability() {
+        return sum(abandonmentBySemester);
+    }
+    
+    /**
+     * Probabilidad de seguir activo al llegar al límite de semestres.
+     */
+    public double getStillActiveProbability() {
+        return stillActive;
+    }
+    
+    /**
+     * Semestre medio de finalización, entre los estudiantes que completan.
+     */
+    public double getMeanCompletionSemester() {
+        double total = getCompletionProbability();
+        if (total == 0.0) {
+            return Double.NaN;
+        }
+        double weighted = 0.0;
+        for (int semester = 0; semester < completionBySemester.length; semester++) {
+            weighted += semester * completionBySemester[semester];
+        }
+        return weighted / total;
+    }
+    
+    /**
+     * Valores esperados de las métricas de una corrida de la cantidad de
+     * estudiantes dada, con los mismos nombres que {@link SimulationMetrics}.
+     * El tiempo de aprobación por asignatura no forma parte del estado de la
+     * cadena y no se incluye.
+     */
+    public SimulationMetrics toMetrics(int students) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        double completionRate = getCompletionProbability();
+        double abandonmentRate = getAbandonmentProbability();
+        double inRange = 0.0;
+        for (int semester = minSemestersCompletion;
+             semester <= maxSemestersCompletion && semester < completionBySemester.length;
+             semester++) {
+            inRange += completionBySemester[semester];
+        }
+        
+        values.put("completion.mean", getMeanCompletionSemester());
+        values.put("completion.count", completionRate * students);
+        values.put("completion.rate", completionRate);
+        values.put("completion.inRange", inRange * students);
+        values.put("abandonment.count", abandonmentRate * students);
+        values.put("abandonment.rate", abandonmentRate);
+        for (int c = 0; c < courseNames.length; c++) {
+            String prefix = "course." + courseNames[c] + ".";
+            values.put(prefix + "enrollments", enrollments[c] * students);
+            values.put(prefix + "abandonments", abandonmentCounter[c] * students);
+            values.put(prefix + "abandonmentRate", abandonmentCounter[c]);
+        }
+        return new SimulationMetrics(values);
+    }
+    
+    /**
+     * Imprime las distribuciones exactas y los valores esperados para una
+     * corrida de la cantidad de estudiantes dada.
+     */
+    public void print(int students) {
+        System.out.println("=".repeat(80));
+        System.out.println("SOLUCIÓN EXACTA (CADENA DE MARKOV)");
+        System.out.println("=".repeat(80));
+        System.out.printf("Estados distintos: %d (máximo por semestre: %d)\n", distinctStates, maxReachableStates);
+        
+        System.out.println("\nProbabilidad de aprobar un intento:");
+        for (int c = 0; c < courseNames.length; c++) {
+            System.out.printf("   %s: %.6f\n", courseNames[c], passProbability[c]);
+        }
+        
+        System.out.printf("\nCompletan: %.6f   Abandonan: %.6f   Siguen activos: %.6f\n",
+                          getCompletionProbability(), getAbandonmentProbability(), stillActive);
+        System.out.printf("Semestre medio de finalización: %.6f\n", getMeanCompletionSemester());
+        
+        System.out.println("\nSemestre   P(completa)   P(abandona)");
+        for (int semester = 1; semester < completionBySemester.length; semester++) {
+            if (completionBySemester[semester] > 0 || abandonmentBySemester[semester] > 0) {
+                System.out.printf("   %3d     %.8f    %.8f\n", semester,
+                                  completionBySemester[semester], abandonmentBySemester[semester]);
+            }
+        }
+        
+        System.out.println("\nAbandono por asignatura (probabilidad de que cause el abandono):");
+        for (int c = 0; c < courseNames.length; c++) {
+            System.out.printf("   %s: %.8f\n", courseNames[c], abandonmentCause[c]);
+        }
+        
+        System.out.printf("\nValores esperados para %d estudiantes:\n", students);
+        for (Map.Entry<String, Double> entry : toMetrics(students).getValues().entrySet()) {
+            System.out.printf("   %-30s %12.4f\n", entry.getKey(), entry.getValue());
+        }
+        System.out.println("=".repeat(80));
+    }
+    
+    private static double sum(double[] values) {
+        double total = 0.0;
+        for (double value : values) {
+            total += value;
+        }
+        return total;
+    }
+}
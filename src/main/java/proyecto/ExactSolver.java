@@ -0,0 +1,240 @@
+package proyecto;
+
+import org.apache.commons.math3.random.Well19937c;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Calcula en forma exacta, sin muestreo, la distribución de los resultados de
+ * la simulación.
+ *
+ * El recorrido de un estudiante es una cadena de Markov finita: el estado son
+ * los intentos y la aprobación de cada asignatura, y en cada semestre cursa a
+ * lo sumo MAX_COURSES_PER_SEMESTER asignaturas en el orden de prioridad del
+ * plan, aprobando cada una con su probabilidad fija. Se propaga semestre a
+ * semestre la probabilidad de cada estado alcanzable (programación dinámica);
+ * las transiciones de cada estado se calculan una sola vez y se memorizan.
+ *
+ * Reproduce las mismas reglas que {@link SimulationEngine}, incluido que si
+ * las dos asignaturas del semestre agotan sus intentos ambas suman un abandono
+ * a su contador, aunque el estudiante abandone una sola vez.
+ */
+public class ExactSolver {
+    private static final byte ACTIVE = 0;
+    private static final byte COMPLETED = 1;
+    private static final byte ABANDONED = 2;
+    
+    private final Curriculum curriculum;
+    private final int courseCount;
+    private final double[] passProbability;
+    private final long[] prerequisiteMasks;
+    private final int[] priorityOrder;
+    private final int bitsPerCourse;
+    private final long fieldMask;
+    private final int maxAttempts;
+    private final int maxCoursesPerSemester;
+    private final int maxSemesters;
+    private final int minSemestersCompletion;
+    private final int maxSemestersCompletion;
+    private final Map<Long, Transitions> transitionCache = new HashMap<>();
+    
+    /**
+     * Resultados posibles de un semestre a partir de un estado.
+     */
+    private static final class Transitions {
+        int[] enrolledCourses;
+        double[] probability;
+        long[] nextState;
+        byte[] status;
+        long[] abandonedCourses; // asignaturas que agotaron sus intentos en ese resultado
+        int[] abandonmentCause;  // primera de ellas en orden de inscripción, o -1
+    }
+    
+    public ExactSolver(Curriculum curriculum) {
+        this(SimulationParameters.defaults().withCurriculum(curriculum));
+    }
+    
+    public ExactSolver(SimulationParameters parameters) {
+        this(parameters.getCurriculum(), parameters.getPassingScore(), parameters.getMaxAttemptsPerCourse(),
+             parameters.getMaxCoursesPerSemester(), parameters.getMaxSemesters(),
+             parameters.getMinSemestersCompletion(), parameters.getMaxSemestersCompletion());
+    }
+    
+    private ExactSolver(Curriculum curriculum, double passingScore, int maxAttempts, int maxCoursesPerSemester,
+                        int maxSemesters, int minSemestersCompletion, int maxSemestersCompletion) {
+        this.curriculum = curriculum;
+        this.minSemestersCompletion = minSemestersCompletion;
+        this.maxSemestersCompletion = maxSemestersCompletion;
+        this.courseCount = curriculum.size();
+        this.maxAttempts = maxAttempts;
+        this.maxCoursesPerSemester = maxCoursesPerSemester;
+        this.maxSemesters = maxSemesters;
+        
+        // Cada asignatura ocupa un campo con (intentos * 2 + aprobada)
+        this.bitsPerCourse = 32 - Integer.numberOfLeadingZeros(2 * maxAttempts + 1);
+        if ((long) bitsPerCourse * courseCount > Long.SIZE) {
+            throw new IllegalArgumentException("El plan de estudios es demasiado grande para el cálculo exacto: "
+                + courseCount + " asignaturas con " + maxAttempts + " intentos");
+        }
+        this.fieldMask = (1L << bitsPerCourse) - 1;
+        
+        this.passProbability = new double[courseCount];
+        this.prerequisiteMasks = new long[courseCount];
+        Well19937c notUsed = new Well19937c(0L); // solo se consultan las probabilidades
+        for (int c = 0; c < courseCount; c++) {
+            passProbability[c] = ScoreSampler.forDefinition(curriculum.getCourse(c), notUsed)
+                    .passProbability(passingScore);
+            prerequisiteMasks[c] = curriculum.getPrerequisiteMask(c);
+        }
+        this.priorityOrder = curriculum.getPriorityOrder();
+    }
+    
+    public ExactSolution solve() {
+        double[] completion = new double[maxSemesters + 1];
+        double[] abandonment = new double[maxSemesters + 1];
+        double[] abandonmentCause = new double[courseCount];
+        double[] abandonmentCounter = new double[courseCount];
+        double[] enrollments = new double[courseCount];
+        
+        Map<Long, Double> current = new HashMap<>();
+        current.put(0L, 1.0); // sin intentos ni aprobaciones
+        int maxReachableStates = 1;
+        
+        for (int semester = 1; semester <= maxSemesters && !current.isEmpty(); semester++) {
+            Map<Long, Double> next = new HashMap<>();
+            
+            for (Map.Entry<Long, Double> entry : current.entrySet()) {
+                double mass = entry.getValue();
+                Transitions transitions = transitionCache.computeIfAbsent(entry.getKey(), this::computeTransitions);
+                
+                for (int course : transitions.enrolledCourses) {
+                    enrollments[course] += mass;
+                }
+                for (int i = 0; i < transitions.probability.length; i++) {
+                    double outcomeMass = mass * transitions.probability[i];
+                    if (outcomeMass == 0.0) {
+                        continue;
+                    }
+                    long abandoned = transitions.abandonedCourses[i];
+                    while (abandoned != 0) {
+                        abandonmentCounter[Long.numberOfTrailingZeros(abandoned)] += outcomeMass;
+                        abandoned &= abandoned - 1;
+                    }
+                    switch (transitions.status[i]) {
+                        case COMPLETED:
+                            completion[semester] += outcomeMass;
+                            break;
+                        case ABANDONED:
+                            abandonment[semester] += outcomeMass;
+                            abandonmentCause[transitions.abandonmentCause[i]] += outcomeMass;
+                            break;
+                        default:
+                            next.merge(transitions.nextState[i], outcomeMass, Double::sum);
+                    }
+                }
+            }
+            
+            current = next;
+            maxReachableStates = Math.max(maxReachableStates, current.size());
+        }
+        
+        double stillActive = 0.0;
+        for (double mass : current.values()) {
+            stillActive += mass;
+        }
+        
+        return new ExactSolution(curriculum.getCourseNames(), passProbability, completion, abandonment,
+                                 abandonmentCause, abandonmentCounter, enrollments, stillActive,
+                                 minSemestersCompletion, maxSemestersCompletion,
+                                 transitionCache.size(), maxReachableStates);
+    }
+    
+    /**
+     * Enumera los 2^k resultados (aprueba / no aprueba) de las k asignaturas
+     * que el estudiante cursa en el semestre desde el estado dado.
+     */
+    private Transitions computeTransitions(long state) {
+        long passedMask = 0;
+        for (int c = 0; c < courseCount; c++) {
+            if (isPassed(state, c)) {
+                passedMask |= 1L << c;
+            }
+        }
+        
+        // Asignaturas disponibles, en orden de prioridad (mismas reglas que el motor)
+        int[] chosen = new int[maxCoursesPerSemester];
+        int count = 0;
+        for (int c : priorityOrder) {
+            if (count == maxCoursesPerSemester) {
+                break;
+            }
+            if ((passedMask & (prerequisiteMasks[c] | (1L << c))) == prerequisiteMasks[c]
+                    && getAttempts(state, c) < maxAttempts) {
+                chosen[count++] = c;
+            }
+        }
+        
+        Transitions transitions = new Transitions();
+        transitions.enrolledCourses = Arrays.copyOf(chosen, count);
+        int outcomes = 1 << count;
+        transitions.probability = new double[outcomes];
+        transitions.nextState = new long[outcomes];
+        transitions.status = new byte[outcomes];
+        transitions.abandonedCourses = new long[outcomes];
+        transitions.abandonmentCause = new int[outcomes];
+        long allCourses = courseCount == Long.SIZE ? -1L : (1L << courseCount) - 1;
+        
+        for (int outcome = 0; outcome < outcomes; outcome++) {
+            double probability = 1.0;
+            long nextState = state;
+            long nextPassed = passedMask;
+            long abandonedCourses = 0;
+            int cause = -1;
+            
+            for (int i = 0; i < count; i++) {
+                int course = chosen[i];
+                boolean passes = (outcome & (1 << i)) != 0;
+                int attempts = getAttempts(state, course) + 1;
+                probability *= passes ? passProbability[course] : 1.0 - passProbability[course];
+                nextState = withField(nextState, course, attempts, passes);
+                if (passes) {
+                    nextPassed |= 1L << course;
+                } else if (attempts >= maxAttempts) {
+                    abandonedCourses |= 1L << course;
+                    if (cause < 0) {
+                        cause = course;
+                    }
+                }
+            }
+            
+            transitions.probability[outcome] = probability;
+            transitions.nextState[outcome] = nextState;
+            transitions.abandonedCourses[outcome] = abandonedCourses;
+            transitions.abandonmentCause[outcome] = cause;
+            if (cause >= 0) {
+                transitions.status[outcome] = ABANDONED;
+            } else if (nextPassed == allCourses) {
+                transitions.status[outcome] = COMPLETED;
+            } else {
+                transitions.status[outcome] = ACTIVE;
+            }
+        }
+        return transitions;
+    }
+    
+    private int getAttempts(long state, int course) {
+        return (int) ((state >>> (course * bitsPerCourse)) & fieldMask) >>> 1;
+    }
+    
+    private boolean isPassed(long state, int course) {
+        return ((state >>> (course * bitsPerCourse)) & 1L) != 0;
+    }
+    
+    private long withField(long state, int course, int attempts, boolean passed) {
+        int shift = course * bitsPerCourse;
+        long field = ((long) attempts << 1) | (passed ? 1L : 0L);
+        return (state & ~(fieldMask << shift)) | (field << shift);
+    }
+}
@@ -0,0 +1,222 @@
+package proyecto;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Distribución empírica de notas, inmutable: cada nota distinta con su
+ * probabilidad. Es la distribución de las asignaturas EMPIRICAL (ver
+ * {@link EmpiricalScoreSampler}).
+ */
+public final class GradeDistribution {
+    private final double[] grades; // ordenadas, sin repetir
+    private final double[] probabilities;
+    
+    /**
+     * @param grades notas (en cualquier orden; las repetidas suman sus pesos)
+     * @param weights pesos no negativos, por ejemplo frecuencias observadas
+     */
+    public GradeDistribution(double[] grades, double[] weights) {
+        this(normalize(grades, weights));
+    }
+    
+    /**
+     * @param table notas ordenadas y sus probabilidades, ya validadas
+     */
+    private GradeDistribution(double[][] table) {
+        this.grades = table[0];
+        this.probabilities = table[1];
+    }
+    
+    private static double[][] normalize(double[] grades, double[] weights) {
+        if (grades.length != weights.length) {
+            throw new IllegalArgumentException("Se esperaba un peso por nota: " + grades.length + " notas, "
+                + weights.length + " pesos");
+        }
+        Map<Double, Double> merged = new TreeMap<>();
+        double total = 0.0;
+        for (int i = 0; i < grades.length; i++) {
+            if (!Double.isFinite(grades[i])) {
+                throw new IllegalArgumentException("Nota inválida: " + grades[i]);
+            }
+            if (!(weights[i] >= 0) || Double.isInfinite(weights[i])) {
+                throw new IllegalArgumentException("Peso inválido para la nota " + grades[i] + ": " + weights[i]);
+            }
+            if (weights[i] > 0) {
+                merged.merge(grades[i], weights[i], Double::sum);
+                total += weights[i];
+            }
+        }
+        if (merged.isEmpty()) {
+            throw new IllegalArgumentException("La distribución de notas no tiene ninguna nota con peso positivo");
+        }
+        double[][] table = new double[2][merged.size()];
+        int k = 0;
+        for (Map.Entry<Double, Double> entry : merged.entrySet()) {
+            table[0][k] = entry.getKey();
+            table[1][k] = entry.getValue() / total;
+            k++;
+        }
+        return table;
+    }
+    
+    /**
+     * Escribe las notas y probabilidades tal cual, para que {@link #readFrom}
+     * reconstruya exactamente la misma distribución (ver {@link DistributedReplicationRunner}).
+     */
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(grades.length);
+        for (int k = 0; k < grades.length; k++) {
+            out.writeDouble(grades[k]);
+            out.writeDouble(probabilities[k]);
+        }
+    }
+    
+    static GradeDistribution readFrom(DataInputStream in) throws IOException {
+        double[][] table = new double[2][in.readInt()];
+        for (int k = 0; k < table[0].length; k++) {
+            table[0][k] = in.readDouble();
+            table[1][k] = in.readDouble();
+        }
+        return new GradeDistribution(table);
+    }
+    
+    /**
+     * Carga notas de un CSV (las líneas vacías y las que empiezan con # se
+     * ignoran, igual que un encabezado no numérico en la primera línea). Se
+     * aceptan dos formatos, separados por coma o punto y coma:
+     *
+     *   nota, frecuencia     histograma: una línea por nota
+     *   nota                 notas observadas: una línea por nota, con repeticiones
+     */
+    public static GradeDistribution load(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        double[] grades = new double[lines.size()];
+        double[] weights = new double[lines.size()];
+        int count = 0;
+        int columns = 0;
+        boolean first = true;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("[,;]", -1);
+            if (first && !isNumber(fields[0])) {
+                first = false;
+                continue; // encabezado
+            }
+            first = false;
+            if (fields.length > 2 || (columns != 0 && fields.length != columns)) {
+                throw new IllegalArgumentException(file + ":" + (i + 1)
+                    + ": se esperaba nota o nota,frecuencia en todas las líneas");
+            }
+            columns = fields.length;
+            try {
+                grades[count] = Double.parseDouble(fields[0].trim());
+                weights[count] = columns == 2 ? Double.parseDouble(fields[1].trim()) : 1.0;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException(file + ":" + (i + 1) + ": " + e.getMessage(), e);
+            }
+            count++;
+        }
+        try {
+            return new GradeDistribution(Arrays.copyOf(grades, count), Arrays.copyOf(weights, count));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + ": " + e.getMessage(), e);
+        }
+    }
+    
+    private static boolean isNumber(String field) {
+        try {
+            Double.parseDouble(field.trim());
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Notas distintas, en orden creciente.
+     */
+    public double[] getGrades() {
+        return grades.clone();
+    }
+    
+    /**
+     * Probabilidad de cada nota de {@link #getGrades()}.
+     */
+    public double[] getProbabilities() {
+        return probabilities.clone();
+    }
+    
+    public int size() {
+        return grades.length;
+    }
+    
+    public double getMean() {
+        double mean = 0.0;
+        for (int k = 0; k < grades.length; k++) {
+            mean += probabilities[k] * grades[k];
+        }
+        return mean;
+    }
+    
+    public double getVariance() {
+        double mean = getMean();
+        double variance = 0.0;
+        for (int k = 0; k < grades.length; k++) {
+            variance += probabilities[k] * (grades[k] - mean) * (grades[k] - mean);
+        }
+        return variance;
+    }
+    
+    /**
+     * P(X >= passingScore).
+     */
+    public double passProbability(double passingScore) {
+        int index = Arrays.binarySearch(grades, passingScore);
+        double probability = 0.0;
+        for (int k = index >= 0 ? index : -index - 1; k < grades.length; k++) {
+            probability += probabilities[k];
+        }
+        return probability;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GradeDistribution)) {
+            return false;
+        }
+        GradeDistribution other = (GradeDistribution) o;
+        return Arrays.equals(grades, other.grades) && Arrays.equals(probabilities, other.probabilities);
+    }
+    
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(grades) + Arrays.hashCode(probabilities);
+    }
+    
+    /**
+     * Cada nota con su probabilidad; la usan las claves de {@link ResultCache}.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (int k = 0; k < grades.length; k++) {
+            text.append(k > 0 ? "|" : "").append(grades[k]).append(':').append(probabilities[k]);
+        }
+        return text.toString();
+    }
+}
@@ -2,17 +2,33 @@ package proyecto;
 
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartFrame;
+import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
 import org.jfree.chart.plot.PlotOrientation;
 import org.jfree.chart.plot.CategoryPlot;
 import org.jfree.data.category.DefaultCategoryDataset;
+import org.jfree.graphics2d.svg.SVGGraphics2D;
+import org.jfree.graphics2d.svg.SVGUtils;
 
+import java.awt.geom.Rectangle2D;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
  * Genera gráficos visuales (histogramas) usando JFreeChart.
+ *
+ * Los histogramas se arman directamente desde los contadores que mantiene el
+ * motor (IntHistogram), sin recorrer ni ordenar los datos de cada estudiante.
+ * Los gráficos se pueden mostrar en ventanas o exportar a PNG y SVG sin
+ * pantalla (ver {@link #exportAllGraphics(Path)}).
  */
 public class GraphicsGenerator {
+    private static final int CHART_WIDTH = 1000;
+    private static final int CHART_HEIGHT = 600;
+    
     private StatisticsGenerator statistics;
     
     public GraphicsGenerator(StatisticsGenerator statistics) {
@@ -21,38 +37,53 @@ public class GraphicsGenerator {
     
     /**
      * 1. Genera un histograma visual del tiempo que le toma a cada estudiante
-     *    avanzar las 6 asignaturas.
+     *    avanzar todas las asignaturas.
      */
     public void showCompletionTimeHistogram() {
-        List<Double> completionTimes = statistics.getCompletionTimes();
+        SimulationEvents.ChartRenderEvent event = SimulationEvents.beginChart();
+        JFreeChart chart = createCompletionTimeChart();
         
-        if (completionTimes.isEmpty()) {
+        if (chart == null) {
             System.out.println("\nNo hay datos para generar el histograma de tiempos de finalización.");
             return;
         }
         
+        // Mostrar la ventana
+        ChartFrame frame = new ChartFrame("Histograma - Tiempo de Finalización", chart);
+        frame.pack();
+        frame.setVisible(true);
+        SimulationEvents.commitChart(event, "tiempo-finalizacion", "ventana");
+        
+        System.out.println("  Ventana del histograma mostrada.");
+    }
+    
+    /**
+     * Histograma del tiempo para completar todas las asignaturas, en 15
+     * intervalos entre el mínimo y el máximo. Retorna null si nadie completó.
+     */
+    public JFreeChart createCompletionTimeChart() {
+        StreamingStatistics completionTimes = statistics.getCompletionTimeStatistics();
+        
+        if (completionTimes.getCount() == 0) {
+            return null;
+        }
+        
         // Calcular estadísticas
-        Collections.sort(completionTimes);
-        double min = completionTimes.get(0);
-        double max = completionTimes.get(completionTimes.size() - 1);
-        double promedio = completionTimes.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
+        double min = completionTimes.getMin();
+        double max = completionTimes.getMax();
+        double promedio = completionTimes.getMean();
         
         System.out.println("\nGenerando histograma visual...");
         System.out.printf("  Promedio: %.2f semestres\n", promedio);
-        System.out.printf("  Estudiantes que completaron: %d\n", completionTimes.size());
+        System.out.printf("  Estudiantes que completaron: %d\n", completionTimes.getCount());
         
         // Crear dataset para el histograma
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         
-        // Crear bins
+        // Crear bins a partir de la cantidad de estudiantes por semestre
         int numBins = 15;
         double binWidth = (max - min) / numBins;
-        
-        int[] bins = new int[numBins];
-        for (Double time : completionTimes) {
-            int binIndex = Math.min((int) ((time - min) / binWidth), numBins - 1);
-            bins[binIndex]++;
-        }
+        long[] bins = rebin(statistics.getCompletionTimeHistogram(), min, binWidth, numBins);
         
         // Agregar datos al dataset
         for (int i = 0; i < numBins; i++) {
@@ -64,7 +95,7 @@ public class GraphicsGenerator {
         
         // Crear el gráfico
         JFreeChart chart = ChartFactory.createBarChart(
-            "Histograma: Tiempo que le toma a cada estudiante avanzar las 6 asignaturas",
+            "Histograma: Tiempo que le toma a cada estudiante avanzar todas las asignaturas",
             "Tiempo (Semestres)",
             "Cantidad de Estudiantes",
             dataset,
@@ -78,17 +109,87 @@ public class GraphicsGenerator {
         CategoryPlot plot = chart.getCategoryPlot();
         plot.setRangeGridlinesVisible(true);
         
-        // Mostrar la ventana
-        ChartFrame frame = new ChartFrame("Histograma - Tiempo de Finalización", chart);
-        frame.pack();
-        frame.setVisible(true);
+        return chart;
+    }
+    
+    /**
+     * 2. Cantidad de aprobaciones por tiempo de aprobación (en semestres),
+     *    una serie por asignatura.
+     */
+    public JFreeChart createPassingTimeChart() {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        int maxTime = 0;
+        for (Course course : statistics.getCourses()) {
+            maxTime = Math.max(maxTime, (int) course.getPassingTimeStatistics().getMax());
+        }
         
-        System.out.println("  Ventana del histograma mostrada.");
+        for (Course course : statistics.getCourses()) {
+            IntHistogram histogram = course.getPassingTimeHistogram();
+            for (int time = 1; time <= maxTime; time++) {
+                dataset.addValue(histogram.getCount(time), course.getName(), Integer.toString(time));
+            }
+        }
+        
+        JFreeChart chart = ChartFactory.createBarChart(
+            "Tiempo para aprobar cada asignatura",
+            "Tiempo (Semestres)",
+            "Cantidad de Aprobaciones",
+            dataset,
+            PlotOrientation.VERTICAL,
+            true,
+            true,
+            false
+        );
+        chart.getCategoryPlot().setRangeGridlinesVisible(true);
+        return chart;
+    }
+    
+    /**
+     * 6. Cantidad de abandonos por semestre.
+     */
+    public JFreeChart createAbandonmentChart() {
+        DefaultCategoryDataset dataset = new DefaultCategoryDataset();
+        IntHistogram histogram = statistics.getAbandonmentHistogram();
+        
+        for (int semester = 1; semester <= histogram.getMaxValue(); semester++) {
+            dataset.addValue(histogram.getCount(semester), "Abandonos", Integer.toString(semester));
+        }
+        
+        JFreeChart chart = ChartFactory.createBarChart(
+            "Abandonos por semestre",
+            "Semestre",
+            "Cantidad de Abandonos",
+            dataset,
+            PlotOrientation.VERTICAL,
+            false,
+            true,
+            false
+        );
+        chart.getCategoryPlot().setRangeGridlinesVisible(true);
+        return chart;
+    }
+    
+    /**
+     * Reagrupa un histograma de valores enteros en numBins intervalos de ancho
+     * binWidth a partir de min. Recorre una sola vez los valores posibles, no
+     * los estudiantes.
+     */
+    static long[] rebin(IntHistogram histogram, double min, double binWidth, int numBins) {
+        long[] bins = new long[numBins];
+        for (int value = 0; value <= histogram.getMaxValue(); value++) {
+            long count = histogram.getCount(value);
+            if (count == 0) {
+                continue;
+            }
+            int binIndex = binWidth > 0 ? (int) ((value - min) / binWidth) : 0;
+            bins[Math.max(0, Math.min(binIndex, numBins - 1))] += count;
+        }
+        return bins;
     }
     
     /**
      * Muestra el histograma visual del tiempo que le toma a cada estudiante
-     * avanzar las 6 asignaturas.
+     * avanzar todas las asignaturas.
      */
     public void showAllGraphics() {
         System.out.println("\n" + "=".repeat(80));
@@ -101,4 +202,45 @@ public class GraphicsGenerator {
         System.out.println("      Cierre la ventana para continuar o finalizar el programa.");
         System.out.println("=".repeat(80));
     }
+    
+    /**
+     * Exporta los gráficos de tiempo de finalización, tiempo de aprobación y
+     * abandonos como archivos PNG y SVG en el directorio indicado. No abre
+     * ventanas, por lo que funciona sin pantalla (java.awt.headless=true).
+     */
+    public void exportAllGraphics(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        
+        System.out.println("\n" + "=".repeat(80));
+        System.out.println("EXPORTANDO GRÁFICOS A " + directory.toAbsolutePath());
+        System.out.println("=".repeat(80));
+        
+        JFreeChart completion = createCompletionTimeChart();
+        if (completion != null) {
+            exportChart(completion, directory, "tiempo-finalizacion");
+        } else {
+            System.out.println("  No hay datos para el histograma de tiempos de finalización.");
+        }
+        exportChart(createPassingTimeChart(), directory, "tiempo-aprobacion");
+        exportChart(createAbandonmentChart(), directory, "abandonos");
+        
+        System.out.println("=".repeat(80));
+    }
+    
+    /**
+     * Guarda el gráfico como nombre.png y nombre.svg.
+     */
+    public void exportChart(JFreeChart chart, Path directory, String name) throws IOException {
+        SimulationEvents.ChartRenderEvent event = SimulationEvents.beginChart();
+        File png = directory.resolve(name + ".png").toFile();
+        ChartUtils.saveChartAsPNG(png, chart, CHART_WIDTH, CHART_HEIGHT);
+        
+        SVGGraphics2D svg = new SVGGraphics2D(CHART_WIDTH, CHART_HEIGHT);
+        chart.draw(svg, new Rectangle2D.Double(0, 0, CHART_WIDTH, CHART_HEIGHT));
+        File svgFile = directory.resolve(name + ".svg").toFile();
+        SVGUtils.writeToSVG(svgFile, svg.getSVGElement());
+        SimulationEvents.commitChart(event, name, directory.toString());
+        
+        System.out.println("  " + png.getName() + ", " + svgFile.getName());
+    }
 }
@@ -0,0 +1,110 @@
+package proyecto;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Histograma exacto de valores enteros en el rango [0, maxValue], con un
+ * contador por valor. Usa memoria fija sin importar cuántos valores se agreguen.
+ */
+public class IntHistogram {
+    private final long[] counts;
+    private long total;
+    
+    public IntHistogram(int maxValue) {
+        this.counts = new long[maxValue + 1];
+    }
+    
+    public void add(int value) {
+        counts[value]++;
+        total++;
+    }
+    
+    public void add(int value, long count) {
+        counts[value] += count;
+        total += count;
+    }
+    
+    /**
+     * Suma los contadores de otro histograma con el mismo rango.
+     */
+    public void merge(IntHistogram other) {
+        if (other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Los histogramas tienen rangos distintos");
+        }
+        for (int value = 0; value < counts.length; value++) {
+            counts[value] += other.counts[value];
+        }
+        total += other.total;
+    }
+    
+    /**
+     * Pone todos los contadores en cero.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        total = 0;
+    }
+    
+    void writeTo(SimulationCheckpoint.Output out) throws IOException {
+        out.writeLongs(counts);
+        out.writeLong(total);
+    }
+    
+    void readFrom(SimulationCheckpoint.Input in) throws IOException {
+        in.readLongs(counts);
+        total = in.readLong();
+    }
+    
+    public int getMaxValue() {
+        return counts.length - 1;
+    }
+    
+    public long getCount(int value) {
+        return value >= 0 && value < counts.length ? counts[value] : 0;
+    }
+    
+    public long getTotal() {
+        return total;
+    }
+    
+    /**
+     * Cantidad de valores en el rango [from, to], ambos inclusive.
+     */
+    public long getCountBetween(int from, int to) {
+        long count = 0;
+        for (int value = Math.max(from, 0); value <= Math.min(to, counts.length - 1); value++) {
+            count += counts[value];
+        }
+        return count;
+    }
+    
+    /**
+     * Cuantil exacto q (entre 0 y 1): el menor valor v tal que al menos una
+     * fracción q de los valores es menor o igual a v. NaN si está vacío.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Cuantil fuera de rango: " + q);
+        }
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long cumulative = 0;
+        for (int value = 0; value < counts.length; value++) {
+            cumulative += counts[value];
+            if (cumulative >= rank) {
+                return value;
+            }
+        }
+        return counts.length - 1;
+    }
+    
+    /**
+     * Copia de los contadores, indexada por valor.
+     */
+    public long[] getCounts() {
+        return Arrays.copyOf(counts, counts.length);
+    }
+}
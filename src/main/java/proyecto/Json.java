@@ -0,0 +1,320 @@
+package proyecto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y escritura mínima de JSON, sin dependencias externas.
+ *
+ * Los objetos se representan como Map (LinkedHashMap, conserva el orden), los
+ * arreglos como List, los números enteros como Long (si entran en un long,
+ * así las semillas no pierden precisión) y el resto como Double, además de
+ * String, Boolean y null.
+ */
+public final class Json {
+    private final String text;
+    private int position;
+    
+    private Json(String text) {
+        this.text = text;
+    }
+    
+    /**
+     * Interpreta un documento JSON completo.
+     * @throws IllegalArgumentException si el texto no es JSON válido
+     */
+    public static Object parse(String text) {
+        Json parser = new Json(text);
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("contenido inesperado después del valor");
+        }
+        return value;
+    }
+    
+    /**
+     * Convierte a JSON un valor formado por Map, Iterable, arreglos de
+     * double/long/int, Number, String, Boolean y null. Los números no finitos
+     * se escriben como null.
+     */
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(value, out);
+        return out.toString();
+    }
+    
+    private static void write(Object value, StringBuilder out) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(String.valueOf(entry.getKey()), out);
+                out.append(':');
+                write(entry.getValue(), out);
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(item, out);
+            }
+            out.append(']');
+        } else if (value instanceof double[]) {
+            List<Double> list = new ArrayList<>();
+            for (double item : (double[]) value) {
+                list.add(item);
+            }
+            write(list, out);
+        } else if (value instanceof long[]) {
+            List<Long> list = new ArrayList<>();
+            for (long item : (long[]) value) {
+                list.add(item);
+            }
+            write(list, out);
+        } else if (value instanceof int[]) {
+            List<Integer> list = new ArrayList<>();
+            for (int item : (int[]) value) {
+                list.add(item);
+            }
+            write(list, out);
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isFinite(number)) {
+                out.append(number);
+            } else {
+                out.append("null");
+            }
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else {
+            writeString(value.toString(), out);
+        }
+    }
+    
+    private static void writeString(String value, StringBuilder out) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+    
+    // ---------- Lectura ----------
+    
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("fin inesperado");
+        }
+        char c = text.charAt(position);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+    
+    private Map<String, Object> readObject() {
+        Map<String, Object> object = new LinkedHashMap<>();
+        position++; // {
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return object;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("se esperaba el nombre de un campo");
+            }
+            String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("se esperaba ':'");
+            }
+            position++;
+            object.put(key, readValue());
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == '}') {
+                return object;
+            }
+            if (c != ',') {
+                throw error("se esperaba ',' o '}'");
+            }
+        }
+    }
+    
+    private List<Object> readArray() {
+        List<Object> array = new ArrayList<>();
+        position++; // [
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+            return array;
+        }
+        while (true) {
+            array.add(readValue());
+            skipWhitespace();
+            char c = peek();
+            position++;
+            if (c == ']') {
+                return array;
+            }
+            if (c != ',') {
+                throw error("se esperaba ',' o ']'");
+            }
+        }
+    }
+    
+    private String readString() {
+        StringBuilder value = new StringBuilder();
+        position++; // "
+        while (true) {
+            if (position >= text.length()) {
+                throw error("cadena sin cerrar");
+            }
+            char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                throw error("cadena sin cerrar");
+            }
+            char escape = text.charAt(position++);
+            switch (escape) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("escape \\u incompleto");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("escape \\u inválido");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    value.append(escape); // \" \\ \/
+            }
+        }
+    }
+    
+    private Number readNumber() {
+        int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        if (start == position) {
+            throw error("valor inesperado");
+        }
+        String number = text.substring(start, position);
+        try {
+            if (number.indexOf('.') < 0 && number.indexOf('e') < 0 && number.indexOf('E') < 0) {
+                try {
+                    return Long.valueOf(number);
+                } catch (NumberFormatException e) {
+                    // fuera del rango de long: se lee como double
+                }
+            }
+            return Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            throw error("número inválido");
+        }
+    }
+    
+    private void expect(String literal) {
+        if (!text.startsWith(literal, position)) {
+            throw error("se esperaba " + literal);
+        }
+        position += literal.length();
+    }
+    
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("fin inesperado");
+        }
+        return text.charAt(position);
+    }
+    
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+    
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("JSON inválido en la posición " + position + ": " + message);
+    }
+}
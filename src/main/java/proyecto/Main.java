@@ -1,31 +1,515 @@
 package proyecto;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Clase principal que ejecuta la simulación completa del proyecto.
+ *
+ * Opciones (formato --clave=valor):
+ *   --seed=S       semilla de la simulación (por defecto, la hora actual)
+ *   --curriculum=F plan de estudios a simular (por defecto, A -> B -> C y D -> E -> F)
+ *   --students=N   cantidad de estudiantes (por defecto, SimulationConfig.MAX_STUDENTS)
+ *   --analytic     modo analítico: sortea el intento de aprobación en lugar de cada nota
+ *   --rng=G        generador del modo secuencial: well (por defecto), splitmix o xoshiro (ver RandomSource)
+ *   --rng-check    compara la velocidad y la calidad estadística de los generadores (ver RandomSourceCheck)
+ *   --parallel=T   reparte los estudiantes de una corrida en T hilos (modo paralelo determinista)
+ *   --replicas=N   ejecuta N réplicas independientes en paralelo y muestra el resumen
+ *   --charts=DIR   exporta los gráficos a PNG y SVG en DIR, sin abrir ventanas
+ *   --events=F     guarda cada inscripción en el registro binario F (ver EnrollmentEventLog)
+ *   --precision=M:H[,M:H...]  agrega réplicas hasta que el IC 95% de cada métrica M tenga
+ *                  semiancho <= H (ver SequentialReplicationRunner)
+ *   --max-replicas=N  límite de réplicas con --precision (por defecto 100000)
+ *   --crn          réplicas con números aleatorios comunes por estudiante, asignatura e intento
+ *   --antithetic   cada réplica promedia una corrida y su antitética
+ *   --control-variates  ajusta las métricas con las probabilidades exactas de aprobación
+ *   --compare=P:V[,P:V...]  estima la diferencia con la configuración que cambia cada parámetro P a V
+ *   --exact        calcula la distribución exacta de los resultados (sin simular)
+ *   --threads=T    hilos para las réplicas (por defecto, todos los núcleos)
+ *   --workers=W    reparte las --replicas entre W procesos (JVM) locales, con --threads/W hilos
+ *                  cada uno (ver DistributedReplicationRunner)
+ *   --worker-heap=M  heap máximo de cada proceso con --workers, por ejemplo 4g
+ *   --cache=DIR    guarda los resultados en DIR y reutiliza los ya calculados (ver ResultCache)
+ *   --cache-size=M máximo de megabytes de la caché en disco (por defecto 256)
+ *   --progress     muestra un resumen de cada semestre mientras corre (ver SemesterSnapshotPublisher)
+ *   --jfr-enrollments=N  con una grabación de JFR activa, registra una de cada N inscripciones
+ *                  (por defecto 1000; ver SimulationEvents)
+ *   --checkpoint=F escribe un punto de control en F al cerrar los semestres (ver SimulationCheckpoint)
+ *   --checkpoint-every=N  semestres entre puntos de control (por defecto 1)
+ *   --resume=F     continúa la corrida del punto de control F (semilla, estudiantes, modo y generador salen de F;
+ *                  el plan de estudios debe ser el mismo)
+ *
+ * Barrido de parámetros (ver ParameterSweep):
+ *   --sweep=P:MIN:MAX[,P:MIN:MAX...]  parámetros a variar y sus rangos
+ *   --levels=L     grilla de L valores por parámetro (por defecto 5)
+ *   --points=N     N puntos por hipercubo latino en lugar de la grilla
+ *   --replicas=R   réplicas por punto (por defecto 1)
+ *   --output=F     archivo CSV de resultados (por defecto barrido.csv)
+ *
+ * Mientras corre, el avance se puede seguir por JMX en proyecto:type=SimulationTelemetry
+ * (ver SimulationTelemetry).
+ *
+ * Lote de trabajos (ver BatchRunner):
+ *   --batch=F      ejecuta los trabajos del archivo JSON F (arreglo de objetos con name, priority,
+ *                  seed, students, replicas, analytic, timeoutSeconds y parameters)
+ *   --jobs=K       trabajos a la vez (por defecto, uno por hilo)
+ *   --threads=T    hilos en total (por defecto, todos los núcleos)
+ *   --output=F     resultados, una línea JSON por trabajo al terminar (por defecto lote.jsonl)
+ *
+ * Servicio HTTP (ver SimulationServer):
+ *   --server       atiende POST /simulate en lugar de simular una vez
+ *   --port=P       puerto (por defecto 8080)
+ *   --threads=T    simulaciones simultáneas (por defecto, todos los núcleos)
+ *   --queue=Q      simulaciones en espera antes de responder 503 (por defecto 64)
  */
 public class Main {
-    public static void main(String[] args) {
+    /** Resultados que la caché conserva en memoria. */
+    private static final int CACHE_MEMORY_ENTRIES = 10_000;
+    /** Estudiantes de la corrida que cronometra --rng-check. */
+    private static final int RNG_CHECK_STUDENTS = 200_000;
+    
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("worker")) {
+            // Proceso de trabajo de DistributedReplicationRunner: no imprime ni registra nada
+            ReplicationWorker.run(Integer.parseInt(options.get("worker")),
+                                  Integer.parseInt(options.getOrDefault("threads", "1")));
+            return;
+        }
+        // Telemetría por JMX (jconsole, proyecto:type=SimulationTelemetry). Iniciar el
+        // servidor de MBeans tarda unos cientos de milisegundos: no demorar la simulación
+        Thread jmx = new Thread(SimulationTelemetry::register, "telemetria-jmx");
+        jmx.setDaemon(true);
+        jmx.start();
+        if (options.containsKey("charts")) {
+            // Antes de cargar cualquier clase de AWT: no se necesita pantalla
+            System.setProperty("java.awt.headless", "true");
+        }
+        if (options.containsKey("jfr-enrollments")) {
+            SimulationEvents.setEnrollmentSamplingPeriod(Integer.parseInt(options.get("jfr-enrollments")));
+        }
+        long seed = options.containsKey("seed")
+                ? Long.parseLong(options.get("seed"))
+                : System.currentTimeMillis();
+        Curriculum curriculum = options.containsKey("curriculum")
+                ? Curriculum.load(Paths.get(options.get("curriculum")))
+                : Curriculum.defaultCurriculum();
+        RandomSource randomSource = options.containsKey("rng")
+                ? RandomSource.fromName(options.get("rng"))
+                : RandomSource.WELL19937C;
+        
+        ResultCache cache = createCache(options);
+        
+        if (options.containsKey("server")) {
+            runServer(options, curriculum, cache);
+            return;
+        }
+        
+        if (options.containsKey("sweep")) {
+            runSweep(options, seed, curriculum, cache);
+            return;
+        }
+        
+        if (options.containsKey("batch")) {
+            runBatch(options, seed, curriculum, cache);
+            return;
+        }
+        
+        if (options.containsKey("rng-check")) {
+            int students = options.containsKey("students")
+                    ? Integer.parseInt(options.get("students"))
+                    : RNG_CHECK_STUDENTS;
+            List<RandomSourceCheck.Result> results = new ArrayList<>();
+            for (RandomSource source : RandomSource.values()) {
+                results.add(RandomSourceCheck.check(source, seed, students));
+            }
+            RandomSourceCheck.print(results, students, System.out);
+            return;
+        }
+        
+        if (options.containsKey("exact")) {
+            int students = options.containsKey("students")
+                    ? Integer.parseInt(options.get("students"))
+                    : SimulationConfig.MAX_STUDENTS;
+            new ExactSolver(curriculum).solve().print(students);
+            return;
+        }
+        
+        if (options.containsKey("replicas") || options.containsKey("precision")) {
+            runReplications(options, seed, curriculum, randomSource, cache);
+            return;
+        }
+        
         // Obtener la cantidad de estudiantes configurada
-        int cantidadEstudiantes = SimulationEngine.getMaxStudents();
+        int cantidadEstudiantes = options.containsKey("students")
+                ? Integer.parseInt(options.get("students"))
+                : SimulationEngine.getMaxStudents();
+        boolean analytic = options.containsKey("analytic");
+        boolean parallel = options.containsKey("parallel");
+        
+        // Al reanudar, la configuración de la corrida sale del punto de control
+        SimulationCheckpoint checkpoint = null;
+        if (options.containsKey("resume")) {
+            checkpoint = SimulationCheckpoint.read(Paths.get(options.get("resume")));
+            seed = checkpoint.getSeed();
+            cantidadEstudiantes = checkpoint.getStudents();
+            analytic = checkpoint.isAnalytic();
+            parallel = checkpoint.isParallel();
+            randomSource = checkpoint.getRandomSource();
+        }
         
         System.out.println("Iniciando simulación de " + cantidadEstudiantes + " estudiantes...");
+        System.out.println("Semilla: " + seed);
+        if (checkpoint != null) {
+            System.out.println("Reanudando después del semestre " + checkpoint.getSemester()
+                               + " (" + options.get("resume") + ")");
+        }
         System.out.println("==========================================");
         
-        // Crear y ejecutar la simulación
-        SimulationEngine engine = new SimulationEngine();
-        engine.runSimulation();
+        // Reutilizar el resultado si ya se calculó con la misma configuración y semilla. Los archivos de
+        // --events, --checkpoint y --charts necesitan la simulación completa: con ellos se simula igual
+        String cacheKey = null;
+        if (cache != null) {
+            cacheKey = ResultCache.key(SimulationParameters.defaults().withCurriculum(curriculum), seed,
+                                       cantidadEstudiantes, analytic,
+                                       parallel ? ResultCache.MODE_PARALLEL
+                                                : ResultCache.mode(ResultCache.MODE_SEQUENTIAL, randomSource));
+            boolean fileOutput = options.containsKey("events") || options.containsKey("checkpoint")
+                    || options.containsKey("charts");
+            Map<String, Object> cached = fileOutput ? null : cache.get(cacheKey);
+            if (cached != null) {
+                printCachedResults(cached, cacheKey);
+                return;
+            }
+        }
+        
+        // Crear (o restaurar) y ejecutar la simulación
+        SimulationEngine engine;
+        EnrollmentEventLog eventLog = null;
+        if (checkpoint != null) {
+            engine = checkpoint.restore(SimulationParameters.defaults().withCurriculum(curriculum));
+            if (options.containsKey("events")) {
+                if (checkpoint.getEventRecords() < 0) {
+                    throw new IllegalArgumentException("La corrida del punto de control no registraba inscripciones");
+                }
+                eventLog = EnrollmentEventLog.openForAppend(Paths.get(options.get("events")),
+                                                            checkpoint.getEventRecords());
+            }
+        } else {
+            engine = new SimulationEngine(seed, cantidadEstudiantes, curriculum);
+            engine.setRandomSource(randomSource);
+            engine.setAnalyticMode(analytic);
+            if (options.containsKey("events")) {
+                eventLog = EnrollmentEventLog.create(Paths.get(options.get("events")));
+            }
+        }
+        engine.setEventLog(eventLog);
+        if (options.containsKey("checkpoint")) {
+            engine.setCheckpoint(Paths.get(options.get("checkpoint")),
+                                 Integer.parseInt(options.getOrDefault("checkpoint-every", "1")));
+        }
+        SemesterSnapshotPublisher snapshots = null;
+        CompletableFuture<Void> progress = null;
+        if (options.containsKey("progress")) {
+            snapshots = new SemesterSnapshotPublisher();
+            progress = snapshots.consume(snapshot -> System.out.println("  " + snapshot));
+            engine.setSnapshotPublisher(snapshots);
+        }
+        if (parallel) {
+            engine.runParallelSimulation(options.containsKey("parallel")
+                                                 ? Integer.parseInt(options.get("parallel"))
+                                                 : Runtime.getRuntime().availableProcessors());
+        } else {
+            engine.runSimulation();
+        }
+        if (snapshots != null) {
+            // Terminar de mostrar el avance antes del reporte
+            snapshots.close();
+            progress.join();
+        }
+        if (eventLog != null) {
+            eventLog.close();
+            summarizeEvents(Paths.get(options.get("events")), curriculum);
+        }
         
         // Generar estadísticas
         StatisticsGenerator statistics = new StatisticsGenerator(engine);
         
         // Imprimir reporte completo
         statistics.printFullReport();
+        if (cache != null) {
+            cache.put(cacheKey, statistics.getResults());
+        }
         
         // Generar gráficos visuales
         GraphicsGenerator graphics = new GraphicsGenerator(statistics);
-        graphics.showAllGraphics();
+        if (options.containsKey("charts")) {
+            graphics.exportAllGraphics(Paths.get(options.get("charts")));
+        } else {
+            graphics.showAllGraphics();
+        }
         
         System.out.println("\nSimulación completada exitosamente.");
     }
+    
+    /**
+     * Recorre el registro de inscripciones e imprime un resumen por asignatura.
+     */
+    private static void summarizeEvents(Path file, Curriculum curriculum) throws IOException {
+        long[] enrollments = new long[curriculum.size()];
+        long[] passes = new long[curriculum.size()];
+        long[] abandonments = new long[curriculum.size()];
+        long start = System.nanoTime();
+        long records;
+        try (EnrollmentEventLog log = EnrollmentEventLog.open(file)) {
+            records = log.size();
+            log.forEach((student, course, semester, attempt, score, outcome) -> {
+                enrollments[course]++;
+                if (outcome == EnrollmentEventLog.OUTCOME_PASSED) {
+                    passes[course]++;
+                } else if (outcome == EnrollmentEventLog.OUTCOME_ABANDONED) {
+                    abandonments[course]++;
+                }
+            });
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        System.out.printf("\nRegistro de inscripciones: %s (%d registros, %d bytes)\n",
+                          file, records, Files.size(file));
+        for (int c = 0; c < curriculum.size(); c++) {
+            System.out.printf("   %s: %d inscripciones, %d aprobadas, %d abandonos\n",
+                              curriculum.getCourse(c).getName(), enrollments[c], passes[c], abandonments[c]);
+        }
+        System.out.printf("   Recorrido en %.3f s\n", seconds);
+    }
+    
+    /**
+     * Caché de --cache=DIR, o null si no se pidió.
+     */
+    private static ResultCache createCache(Map<String, String> options) {
+        if (!options.containsKey("cache")) {
+            return null;
+        }
+        long megabytes = Long.parseLong(options.getOrDefault("cache-size", "256"));
+        return new ResultCache(Paths.get(options.get("cache")), CACHE_MEMORY_ENTRIES, megabytes * 1024 * 1024);
+    }
+    
+    /**
+     * Imprime las métricas de un resultado guardado en la caché. Los gráficos
+     * necesitan la simulación completa, por lo que no se generan (con --charts,
+     * --events o --checkpoint no se usa la caché).
+     */
+    private static void printCachedResults(Map<String, Object> results, String key) {
+        System.out.println("=".repeat(80));
+        System.out.println("RESULTADO EN CACHÉ (" + key + ")");
+        System.out.println("=".repeat(80));
+        SimulationMetrics metrics = SimulationMetrics.fromResults(results);
+        for (Map.Entry<String, Double> entry : metrics.getValues().entrySet()) {
+            System.out.printf("%-30s %12.4f\n", entry.getKey(), entry.getValue());
+        }
+        System.out.println("\nAsignaturas por dificultad: " + results.get("difficultyRanking"));
+        System.out.println("Asignatura que provoca más abandonos: " + results.get("courseWithMostAbandonments"));
+        System.out.println("=".repeat(80));
+        System.out.println("(Para generar los gráficos, ejecutar con --charts=DIR o sin --cache.)");
+    }
+    
+    private static void runReplications(Map<String, String> options, long seed, Curriculum curriculum,
+                                        RandomSource randomSource, ResultCache cache) {
+        int threads = options.containsKey("threads")
+                ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        int students = options.containsKey("students")
+                ? Integer.parseInt(options.get("students"))
+                : SimulationConfig.MAX_STUDENTS;
+        ReplicationRunner runner = new ReplicationRunner(threads, students, curriculum);
+        runner.setAnalyticMode(options.containsKey("analytic"));
+        runner.setCommonRandomNumbers(options.containsKey("crn"));
+        runner.setAntithetic(options.containsKey("antithetic"));
+        runner.setControlVariates(options.containsKey("control-variates"));
+        runner.setRandomSource(randomSource);
+        runner.setCache(cache);
+        SimulationParameters alternative = null;
+        if (options.containsKey("compare")) {
+            alternative = SimulationParameters.defaults().withCurriculum(curriculum);
+            for (String change : options.get("compare").split(",")) {
+                int colon = change.lastIndexOf(':');
+                if (colon <= 0) {
+                    throw new IllegalArgumentException("Se esperaba parámetro:valor en " + change);
+                }
+                alternative = alternative.with(change.substring(0, colon).trim(),
+                                               Double.parseDouble(change.substring(colon + 1)));
+            }
+            runner.setComparison(alternative);
+            System.out.println("Diferencias (alternativa - base) con " + options.get("compare"));
+        }
+        
+        long start = System.nanoTime();
+        ReplicationSummary summary;
+        SequentialReplicationRunner sequential = null;
+        DistributedReplicationRunner distributed = null;
+        if (options.containsKey("workers")) {
+            if (options.containsKey("precision")) {
+                throw new IllegalArgumentException("--workers no se combina con --precision");
+            }
+            int workers = Integer.parseInt(options.get("workers"));
+            distributed = new DistributedReplicationRunner(workers, Math.max(1, threads / workers), students,
+                                                           SimulationParameters.defaults().withCurriculum(curriculum));
+            distributed.setAnalyticMode(options.containsKey("analytic"));
+            distributed.setCommonRandomNumbers(options.containsKey("crn"));
+            distributed.setAntithetic(options.containsKey("antithetic"));
+            distributed.setControlVariates(options.containsKey("control-variates"));
+            distributed.setComparison(alternative);
+            distributed.setRandomSource(randomSource);
+            if (options.containsKey("worker-heap")) {
+                distributed.addJvmOption("-Xmx" + options.get("worker-heap"));
+            }
+            int replicas = Integer.parseInt(options.get("replicas"));
+            System.out.printf("Ejecutando %d réplicas de %d estudiantes en %d procesos de %d hilos "
+                              + "(semilla maestra %d)...\n", replicas, students, workers,
+                              distributed.getThreadsPerWorker(), seed);
+            summary = distributed.run(replicas, seed);
+        } else if (options.containsKey("precision")) {
+            sequential = new SequentialReplicationRunner(runner);
+            sequential.addTargets(options.get("precision"));
+            if (options.containsKey("max-replicas")) {
+                sequential.setMaxReplications(Integer.parseInt(options.get("max-replicas")));
+            }
+            sequential.setProgress(System.out);
+            System.out.printf("Réplicas de %d estudiantes en %d hilos hasta alcanzar la precisión pedida "
+                              + "(semilla maestra %d)...\n", students, threads, seed);
+            summary = sequential.run(seed);
+        } else {
+            int replicas = Integer.parseInt(options.get("replicas"));
+            System.out.printf("Ejecutando %d réplicas de %d estudiantes en %d hilos (semilla maestra %d)...\n",
+                              replicas, students, threads, seed);
+            summary = runner.run(replicas, seed);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        summary.print(0.95);
+        if (sequential != null) {
+            sequential.printTargets(summary);
+        }
+        System.out.printf("Tiempo: %.2f s (%.1f réplicas/s)\n", seconds, summary.getReplications() / seconds);
+        if (distributed != null && distributed.getReassignedSlices() > 0) {
+            System.out.printf("Tramos reasignados por procesos caídos: %d\n", distributed.getReassignedSlices());
+        }
+        if (cache != null) {
+            System.out.printf("Caché: %d aciertos, %d fallos\n", cache.getHits(), cache.getMisses());
+        }
+    }
+    
+    private static void runServer(Map<String, String> options, Curriculum curriculum, ResultCache cache)
+            throws IOException {
+        int port = Integer.parseInt(options.getOrDefault("port", "8080"));
+        int threads = options.containsKey("threads")
+                ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        int queue = Integer.parseInt(options.getOrDefault("queue", "64"));
+        
+        SimulationServer server = new SimulationServer(port, threads, queue,
+                                                       SimulationParameters.defaults().withCurriculum(curriculum));
+        System.out.println("Precalentando el motor...");
+        server.warmUp(2000);
+        server.setCache(cache); // después del precalentamiento, para no llenarla con sus corridas
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+        System.out.printf("Servidor de simulación en http://localhost:%d/simulate (%d hilos, cola de %d)\n",
+                          server.getPort(), threads, queue);
+    }
+    
+    private static void runSweep(Map<String, String> options, long seed, Curriculum curriculum,
+                                 ResultCache cache) throws IOException {
+        int students = options.containsKey("students")
+                ? Integer.parseInt(options.get("students"))
+                : SimulationConfig.MAX_STUDENTS;
+        int replicas = options.containsKey("replicas") ? Integer.parseInt(options.get("replicas")) : 1;
+        int threads = options.containsKey("threads")
+                ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        String output = options.getOrDefault("output", "barrido.csv");
+        
+        ParameterSweep sweep = new ParameterSweep(SimulationParameters.defaults().withCurriculum(curriculum),
+                                                  students, replicas);
+        sweep.addDimensions(options.get("sweep"));
+        sweep.setAnalyticMode(options.containsKey("analytic"));
+        sweep.setCache(cache);
+        double[][] points = options.containsKey("points")
+                ? sweep.latinHypercube(Integer.parseInt(options.get("points")), seed)
+                : sweep.grid(Integer.parseInt(options.getOrDefault("levels", "5")));
+        
+        System.out.printf("Barrido de %d configuraciones (%s), %d réplicas de %d estudiantes cada una, "
+                          + "en %d hilos (semilla maestra %d)...\n",
+                          points.length, String.join(", ", sweep.getDimensionNames()),
+                          replicas, students, threads, seed);
+        
+        long start = System.nanoTime();
+        List<SimulationMetrics> results = sweep.run(points, seed, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        try (Writer writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            sweep.writeCsv(points, results, writer);
+        }
+        System.out.printf("Resultados en %s\n", output);
+        System.out.printf("Tiempo: %.2f s (%.1f configuraciones/s)\n", seconds, points.length / seconds);
+    }
+    
+    private static void runBatch(Map<String, String> options, long seed, Curriculum curriculum,
+                                 ResultCache cache) throws IOException {
+        int threads = options.containsKey("threads")
+                ? Integer.parseInt(options.get("threads"))
+                : Runtime.getRuntime().availableProcessors();
+        int jobs = options.containsKey("jobs") ? Integer.parseInt(options.get("jobs")) : threads;
+        String output = options.getOrDefault("output", "lote.jsonl");
+        
+        BatchRunner batch = new BatchRunner(threads, jobs);
+        batch.setCache(cache);
+        int count = batch.submitAll(Paths.get(options.get("batch")),
+                                    SimulationParameters.defaults().withCurriculum(curriculum), seed);
+        System.out.printf("Lote de %d trabajos, %d a la vez en %d hilos (semilla maestra %d)...\n",
+                          count, Math.min(jobs, threads), threads, seed);
+        
+        long start = System.nanoTime();
+        List<BatchRunner.Result> results;
+        try (Writer writer = Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8)) {
+            results = batch.run(writer);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        
+        double sequentialSeconds = 0.0;
+        for (BatchRunner.Result result : results) {
+            System.out.printf("   %-30s %-10s %8.2f s\n", result.getName(), result.getStatus(), result.getSeconds());
+            sequentialSeconds += result.getSeconds();
+        }
+        System.out.printf("Resultados en %s\n", output);
+        System.out.printf("Tiempo: %.2f s (suma de los trabajos: %.2f s)\n", seconds, sequentialSeconds);
+    }
+    
+    /**
+     * Interpreta argumentos de la forma --clave=valor (o --clave, con valor "true").
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Opción no reconocida: " + arg);
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+        return options;
+    }
 }
-
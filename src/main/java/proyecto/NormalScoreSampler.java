@@ -0,0 +1,46 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.special.Erf;
+
+/**
+ * Notas con distribución Normal(media, varianza).
+ *
+ * Usa la misma transformación que NormalDistribution.sample() de commons-math
+ * (media + desvío * gaussiana estándar), sin crear objetos por nota.
+ */
+public class NormalScoreSampler implements ScoreSampler {
+    private final RandomGenerator random;
+    private final double mean;
+    private final double standardDeviation;
+    
+    public NormalScoreSampler(RandomGenerator random, double mean, double variance) {
+        this.random = random;
+        this.mean = mean;
+        this.standardDeviation = Math.sqrt(variance);
+    }
+    
+    @Override
+    public double sample() {
+        return standardDeviation * random.nextGaussian() + mean;
+    }
+    
+    @Override
+    public void sample(double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            out[i] = standardDeviation * random.nextGaussian() + mean;
+        }
+    }
+    
+    @Override
+    public double quantile(double u) {
+        // Phi^-1(u) = sqrt(2) * erfinv(2u - 1)
+        return mean + standardDeviation * Math.sqrt(2.0) * Erf.erfInv(2.0 * u - 1.0);
+    }
+    
+    @Override
+    public double passProbability(double passingScore) {
+        // P(X >= t) = 1 - Phi((t - media) / desvío)
+        return 0.5 * Erf.erfc((passingScore - mean) / (standardDeviation * Math.sqrt(2.0)));
+    }
+}
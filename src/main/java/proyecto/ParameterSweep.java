@@ -0,0 +1,247 @@
+package proyecto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Barrido de parámetros: ejecuta muchas configuraciones en una sola JVM, en
+ * paralelo, y arma una tabla con todas las métricas de cada configuración.
+ *
+ * Cada dimensión es un parámetro de {@link SimulationParameters#with} con un
+ * rango [min, max]; los puntos se generan como grilla o con muestreo por
+ * hipercubo latino. Todas las configuraciones usan las mismas semillas de
+ * réplica ({@code Seeds.derive(masterSeed, r)}, igual que
+ * {@link ReplicationRunner}), de modo que las diferencias entre puntos se
+ * deben a los parámetros y no al azar.
+ *
+ * Cada hilo reutiliza su motor entre puntos ({@link SimulationEngine#reset}):
+ * la población se conserva siempre y las asignaturas con sus generadores de
+ * notas se conservan mientras no cambien sus distribuciones.
+ */
+public class ParameterSweep {
+    private final SimulationParameters base;
+    private final int studentsPerRun;
+    private final int replications;
+    private final List<String> names = new ArrayList<>();
+    private final List<double[]> ranges = new ArrayList<>();
+    private boolean analyticMode;
+    private ResultCache cache;
+    
+    public ParameterSweep(SimulationParameters base, int studentsPerRun, int replications) {
+        if (replications < 1) {
+            throw new IllegalArgumentException("Se necesita al menos una réplica por punto: " + replications);
+        }
+        this.base = base;
+        this.studentsPerRun = studentsPerRun;
+        this.replications = replications;
+    }
+    
+    /**
+     * Agrega una dimensión al barrido.
+     * @param name nombre del parámetro (ver {@link SimulationParameters#with})
+     */
+    public void addDimension(String name, double min, double max) {
+        if (min > max) {
+            throw new IllegalArgumentException("Rango vacío para " + name + ": " + min + " > " + max);
+        }
+        base.with(name, min); // valida el nombre
+        names.add(name);
+        ranges.add(new double[]{min, max});
+    }
+    
+    /**
+     * Agrega las dimensiones descriptas como nombre:min:max, separadas por coma
+     * (por ejemplo "passingScore:50:70,course.C.lambda:55:65").
+     */
+    public void addDimensions(String specification) {
+        for (String dimension : specification.split(",")) {
+            String[] fields = dimension.trim().split(":");
+            if (fields.length != 3) {
+                throw new IllegalArgumentException("Se esperaba nombre:min:max en " + dimension);
+            }
+            addDimension(fields[0], Double.parseDouble(fields[1]), Double.parseDouble(fields[2]));
+        }
+    }
+    
+    /**
+     * Ejecuta las réplicas en modo analítico (ver {@link SimulationEngine#setAnalyticMode}).
+     */
+    public void setAnalyticMode(boolean analyticMode) {
+        this.analyticMode = analyticMode;
+    }
+    
+    /**
+     * Reutiliza los resultados de corridas ya calculadas (null para no usar caché).
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+    
+    public List<String> getDimensionNames() {
+        return new ArrayList<>(names);
+    }
+    
+    /**
+     * Grilla con levels valores equiespaciados por dimensión (extremos
+     * incluidos); la última dimensión es la que varía más rápido.
+     */
+    public double[][] grid(int levels) {
+        if (levels < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un nivel por dimensión: " + levels);
+        }
+        int dimensions = names.size();
+        long total = 1;
+        for (int d = 0; d < dimensions; d++) {
+            total *= levels;
+            if (total > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("La grilla tiene demasiados puntos");
+            }
+        }
+        
+        double[][] points = new double[(int) total][dimensions];
+        for (int i = 0; i < points.length; i++) {
+            int rest = i;
+            for (int d = dimensions - 1; d >= 0; d--) {
+                int level = rest % levels;
+                rest /= levels;
+                double[] range = ranges.get(d);
+                points[i][d] = levels == 1
+                        ? range[0]
+                        : range[0] + (range[1] - range[0]) * level / (levels - 1);
+            }
+        }
+        return points;
+    }
+    
+    /**
+     * Muestreo por hipercubo latino: cada dimensión se divide en n intervalos
+     * iguales y cada intervalo se usa exactamente una vez, con un valor al azar
+     * dentro de él. Cubre el espacio con muchos menos puntos que una grilla.
+     */
+    public double[][] latinHypercube(int n, long seed) {
+        SplitMix64Random random = new SplitMix64Random(seed);
+        double[][] points = new double[n][names.size()];
+        for (int d = 0; d < names.size(); d++) {
+            int[] strata = new int[n];
+            for (int i = 0; i < n; i++) {
+                strata[i] = i;
+            }
+            for (int i = n - 1; i > 0; i--) { // Fisher-Yates
+                int j = random.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            double[] range = ranges.get(d);
+            for (int i = 0; i < n; i++) {
+                points[i][d] = range[0] + (range[1] - range[0]) * (strata[i] + random.nextDouble()) / n;
+            }
+        }
+        return points;
+    }
+    
+    /**
+     * Parámetros de la configuración correspondiente a un punto.
+     */
+    public SimulationParameters parametersAt(double[] point) {
+        SimulationParameters parameters = base;
+        for (int d = 0; d < names.size(); d++) {
+            parameters = parameters.with(names.get(d), point[d]);
+        }
+        return parameters;
+    }
+    
+    /**
+     * Ejecuta todos los puntos en paralelo.
+     * @return media de cada métrica entre las réplicas, por punto y en el mismo orden
+     */
+    public List<SimulationMetrics> run(double[][] points, long masterSeed, int threads) {
+        SimulationMetrics[] results = new SimulationMetrics[points.length];
+        ThreadLocal<SimulationEngine> engines = new ThreadLocal<>();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, points.length).parallel()
+                    .forEach(i -> results[i] = runPoint(parametersAt(points[i]), masterSeed, engines)))
+                .get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Barrido interrumpido", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falló un punto del barrido", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return List.of(results);
+    }
+    
+    private SimulationMetrics runPoint(SimulationParameters parameters, long masterSeed,
+                                       ThreadLocal<SimulationEngine> engines) {
+        ReplicationSummary summary = new ReplicationSummary();
+        for (int r = 0; r < replications; r++) {
+            long seed = Seeds.derive(masterSeed, r);
+            if (cache != null) {
+                String key = ResultCache.key(parameters, seed, studentsPerRun, analyticMode,
+                                             ResultCache.MODE_SEQUENTIAL);
+                summary.add(SimulationMetrics.fromResults(cache.computeIfAbsent(
+                    key, () -> new StatisticsGenerator(simulate(parameters, seed, engines)).getResults())));
+            } else {
+                SimulationEngine engine = simulate(parameters, seed, engines);
+                summary.add(SimulationMetrics.from(engine, new StatisticsGenerator(engine)));
+            }
+        }
+        
+        Map<String, Double> means = new LinkedHashMap<>();
+        for (Map.Entry<String, StreamingStatistics> entry : summary.getStatistics().entrySet()) {
+            StreamingStatistics stat = entry.getValue();
+            means.put(entry.getKey(), stat.getCount() > 0 ? stat.getMean() : Double.NaN);
+        }
+        return new SimulationMetrics(means);
+    }
+    
+    private SimulationEngine simulate(SimulationParameters parameters, long seed,
+                                      ThreadLocal<SimulationEngine> engines) {
+        SimulationEngine engine = engines.get();
+        if (engine == null) {
+            engine = new SimulationEngine(seed, studentsPerRun, parameters);
+            engine.setAnalyticMode(analyticMode);
+            engines.set(engine);
+        } else {
+            engine.reset(seed, parameters);
+        }
+        engine.runSimulation();
+        return engine;
+    }
+    
+    /**
+     * Escribe la tabla en formato CSV: una fila por punto, con los valores de
+     * las dimensiones (ya redondeados los enteros) seguidos de todas las métricas.
+     */
+    public void writeCsv(double[][] points, List<SimulationMetrics> results, Appendable out) throws IOException {
+        List<String> metrics = results.isEmpty()
+                ? List.of()
+                : new ArrayList<>(results.get(0).getValues().keySet());
+        
+        List<String> header = new ArrayList<>(names);
+        header.addAll(metrics);
+        out.append(String.join(",", header)).append('\n');
+        
+        for (int i = 0; i < points.length; i++) {
+            StringBuilder row = new StringBuilder();
+            SimulationParameters parameters = parametersAt(points[i]);
+            for (String name : names) {
+                row.append(parameters.get(name)).append(',');
+            }
+            for (String metric : metrics) {
+                row.append(results.get(i).get(metric)).append(',');
+            }
+            row.setLength(row.length() - 1);
+            out.append(row).append('\n');
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package proyecto;
+
+import org.apache.commons.math3.distribution.PoissonDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.Arrays;
+
+/**
+ * Notas con distribución Poisson(lambda).
+ *
+ * La distribución de commons-math se construye una sola vez sobre el generador
+ * compartido, en lugar de crearla y resembrarla en cada inscripción.
+ */
+public class PoissonScoreSampler implements ScoreSampler {
+    /** La tabla de la función de distribución llega hasta 1 - TAIL. */
+    private static final double TAIL = 1e-12;
+    
+    private final PoissonDistribution poisson;
+    private double[] cumulative; // P(X <= k), se arma en el primer quantile()
+    
+    public PoissonScoreSampler(RandomGenerator random, double lambda) {
+        this.poisson = new PoissonDistribution(random, lambda,
+                                               PoissonDistribution.DEFAULT_EPSILON,
+                                               PoissonDistribution.DEFAULT_MAX_ITERATIONS);
+    }
+    
+    @Override
+    public double sample() {
+        return poisson.sample();
+    }
+    
+    @Override
+    public void sample(double[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            out[i] = poisson.sample();
+        }
+    }
+    
+    /**
+     * Búsqueda binaria en la función de distribución acumulada, tabulada una
+     * sola vez; solo la cola más allá de 1 - TAIL usa commons-math.
+     */
+    @Override
+    public double quantile(double u) {
+        if (cumulative == null) {
+            cumulative = tabulateCumulative();
+        }
+        int index = Arrays.binarySearch(cumulative, u);
+        int k = index >= 0 ? index : -index - 1; // menor k con P(X <= k) >= u
+        return k < cumulative.length ? k : poisson.inverseCumulativeProbability(u);
+    }
+    
+    private double[] tabulateCumulative() {
+        double[] table = new double[64];
+        double sum = 0.0;
+        int k = 0;
+        // El límite en desvíos evita un ciclo infinito si el redondeo no deja llegar a 1 - TAIL
+        double mean = poisson.getMean();
+        double lastK = mean + 40.0 * Math.sqrt(mean) + 40.0;
+        while (sum < 1.0 - TAIL && k <= lastK) {
+            if (k == table.length) {
+                table = Arrays.copyOf(table, k * 2);
+            }
+            sum += poisson.probability(k);
+            table[k++] = sum;
+        }
+        return Arrays.copyOf(table, k);
+    }
+    
+    @Override
+    public double passProbability(double passingScore) {
+        // Las notas son enteras: P(X >= t) = 1 - P(X <= ceil(t) - 1)
+        int minimumScore = (int) Math.ceil(passingScore);
+        if (minimumScore <= 0) {
+            return 1.0;
+        }
+        return 1.0 - poisson.cumulativeProbability(minimumScore - 1);
+    }
+}
@@ -0,0 +1,373 @@
+package proyecto;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Sketch de cuantiles KLL (Karnin, Lang y Liberty) para valores continuos,
+ * con memoria acotada sin importar cuántos valores se agreguen.
+ *
+ * Los valores entran al nivel 0; cuando un nivel se llena se ordena y se
+ * conserva uno de cada dos elementos (los pares o los impares), que suben al
+ * nivel siguiente con el doble de peso. La capacidad de cada nivel decrece
+ * geométricamente hacia los niveles bajos, así que el sketch guarda O(k)
+ * valores. Los niveles superiores al 0 se mantienen ordenados, así que cada
+ * compactación sólo intercala dos secuencias ordenadas en lugar de volver a
+ * ordenar el nivel. El error de rango de {@link #quantile} es del orden de 1.7/k
+ * (alrededor de 1% con el k por defecto); el mínimo y el máximo son exactos.
+ *
+ * Dos sketches se combinan con {@link #merge}, con la misma garantía de
+ * error. La elección entre pares e impares sale de un contador propio y no
+ * de un generador aleatorio, por lo que el resultado es determinista: los
+ * mismos valores agregados y combinados en el mismo orden dan el mismo sketch.
+ */
+public class QuantileSketch {
+    public static final int DEFAULT_K = 200;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+    private static final int MIN_CAPACITY = 8;
+    
+    private final int k;
+    private double[][] levels = new double[1][]; // niveles 1 en adelante ordenados
+    private double[] scratch = new double[0]; // destino de las intercalaciones
+    private int[] sizes = new int[1];
+    private int levelCount = 1;
+    private int[] capacities = new int[1];
+    private int totalCapacity;
+    private int retained; // valores guardados en todos los niveles
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private long compactions; // también decide pares o impares en cada compactación
+    
+    // Vista para quantile: valores guardados ordenados y peso acumulado; se rearma tras add o merge
+    private boolean viewStale = true;
+    private int viewSize;
+    private double[] viewValues = new double[0];
+    private long[] viewWeights = new long[0];
+    private double[] mergeValues = new double[0];
+    private long[] mergeWeights = new long[0];
+    
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+    
+    /**
+     * @param k precisión: más grande, menos error y más memoria
+     */
+    public QuantileSketch(int k) {
+        if (k < 8) {
+            throw new IllegalArgumentException("k debe ser al menos 8: " + k);
+        }
+        this.k = k;
+        this.levels[0] = new double[k];
+        updateCapacities();
+    }
+    
+    public void add(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        viewStale = true;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+        append(0, value);
+        retained++;
+        if (retained >= totalCapacity) {
+            compress();
+        }
+    }
+    
+    /**
+     * Agrega los valores de otro sketch con el mismo k.
+     */
+    public void merge(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Los sketches tienen distinto k: " + k + " y " + other.k);
+        }
+        if (other.count == 0) {
+            return;
+        }
+        viewStale = true;
+        while (levelCount < other.levelCount) {
+            addLevel();
+        }
+        for (int i = 0; i < other.sizes[0]; i++) {
+            append(0, other.levels[0][i]);
+        }
+        for (int h = 0; h < other.levelCount; h++) {
+            if (h > 0) {
+                mergeInto(h, other.levels[h], 0, 1, other.sizes[h]);
+            }
+            retained += other.sizes[h];
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+    }
+    
+    /**
+     * Vuelve al estado inicial, sin valores.
+     */
+    public void clear() {
+        levels = new double[][]{levels[0]};
+        sizes = new int[1];
+        levelCount = 1;
+        updateCapacities();
+        retained = 0;
+        count = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        compactions = 0;
+        viewStale = true;
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+    
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+    
+    /**
+     * Cuantil aproximado q (entre 0 y 1), o NaN si no hay valores. Varias
+     * consultas seguidas (sin add ni merge en el medio) comparten la vista
+     * ordenada de los valores guardados y cuestan una búsqueda binaria cada una.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Cuantil fuera de rango: " + q);
+        }
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q == 0) {
+            return min;
+        }
+        if (q == 1) {
+            return max;
+        }
+        
+        if (viewStale) {
+            buildView();
+        }
+        
+        // Primer valor cuyo peso acumulado alcanza q del total
+        double target = q * viewWeights[viewSize - 1];
+        int low = 0;
+        int high = viewSize - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (viewWeights[middle] >= target) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return viewWeights[low] >= target ? viewValues[low] : max;
+    }
+    
+    /**
+     * Arma la vista ordenada con el peso acumulado de los valores guardados
+     * (peso 2^nivel): ordena una copia del nivel 0 e intercala los demás, que
+     * ya están ordenados.
+     */
+    private void buildView() {
+        if (viewValues.length < retained) {
+            viewValues = new double[retained];
+            viewWeights = new long[retained];
+            mergeValues = new double[retained];
+            mergeWeights = new long[retained];
+        }
+        int n = sizes[0];
+        System.arraycopy(levels[0], 0, viewValues, 0, n);
+        Arrays.sort(viewValues, 0, n);
+        Arrays.fill(viewWeights, 0, n, 1L);
+        for (int h = 1; h < levelCount; h++) {
+            double[] level = levels[h];
+            int size = sizes[h];
+            long weight = 1L << h;
+            int i = 0;
+            int j = 0;
+            int m = 0;
+            while (i < n && j < size) {
+                if (viewValues[i] <= level[j]) {
+                    mergeValues[m] = viewValues[i];
+                    mergeWeights[m++] = viewWeights[i++];
+                } else {
+                    mergeValues[m] = level[j++];
+                    mergeWeights[m++] = weight;
+                }
+            }
+            while (i < n) {
+                mergeValues[m] = viewValues[i];
+                mergeWeights[m++] = viewWeights[i++];
+            }
+            while (j < size) {
+                mergeValues[m] = level[j++];
+                mergeWeights[m++] = weight;
+            }
+            double[] values = viewValues;
+            viewValues = mergeValues;
+            mergeValues = values;
+            long[] weights = viewWeights;
+            viewWeights = mergeWeights;
+            mergeWeights = weights;
+            n = m;
+        }
+        for (int i = 1; i < n; i++) {
+            viewWeights[i] += viewWeights[i - 1];
+        }
+        viewSize = n;
+        viewStale = false;
+    }
+    
+    /**
+     * Capacidad de cada nivel: k en el más alto, decreciendo hacia el 0.
+     */
+    private void updateCapacities() {
+        capacities = new int[levelCount];
+        totalCapacity = 0;
+        for (int h = 0; h < levelCount; h++) {
+            int depth = levelCount - h - 1;
+            capacities[h] = Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+            totalCapacity += capacities[h];
+        }
+    }
+    
+    /**
+     * Compacta niveles llenos, del más bajo al más alto, hasta volver a la capacidad total.
+     */
+    private void compress() {
+        while (retained >= totalCapacity) {
+            int h = 0;
+            while (sizes[h] < capacities[h]) {
+                h++;
+                if (h == levelCount) {
+                    return; // ningún nivel lleno
+                }
+            }
+            compact(h);
+        }
+    }
+    
+    /**
+     * Sube la mitad de los valores del nivel h (ordenado) al nivel h + 1. Si la
+     * cantidad es impar, el último valor queda en el nivel h.
+     */
+    private void compact(int h) {
+        if (h + 1 == levelCount) {
+            addLevel();
+        }
+        double[] level = levels[h];
+        int size = sizes[h];
+        if (h == 0) {
+            Arrays.sort(level, 0, size);
+        }
+        int paired = size - (size % 2);
+        int offset = (int) (Seeds.mix(++compactions) & 1L);
+        mergeInto(h + 1, level, offset, 2, paired / 2);
+        if (paired < size) {
+            level[0] = level[size - 1];
+        }
+        sizes[h] = size - paired;
+        retained -= paired / 2;
+    }
+    
+    private void addLevel() {
+        if (levelCount == levels.length) {
+            levels = Arrays.copyOf(levels, levelCount * 2);
+            sizes = Arrays.copyOf(sizes, levelCount * 2);
+        }
+        levels[levelCount] = new double[MIN_CAPACITY];
+        sizes[levelCount] = 0;
+        levelCount++;
+        updateCapacities();
+    }
+    
+    /**
+     * Intercala en el nivel h, ordenado, los valores ordenados
+     * source[from], source[from + step], ... (count valores).
+     */
+    private void mergeInto(int h, double[] source, int from, int step, int count) {
+        double[] level = levels[h];
+        int size = sizes[h];
+        if (scratch.length < size + count) {
+            scratch = new double[Math.max(size + count, 2 * scratch.length)];
+        }
+        double[] merged = scratch;
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < size && j < count) {
+            double next = source[from + j * step];
+            if (level[i] <= next) {
+                merged[n++] = level[i++];
+            } else {
+                merged[n++] = next;
+                j++;
+            }
+        }
+        while (i < size) {
+            merged[n++] = level[i++];
+        }
+        while (j < count) {
+            merged[n++] = source[from + j * step];
+            j++;
+        }
+        // El arreglo del nivel pasa a ser el buffer de la próxima intercalación
+        scratch = level;
+        levels[h] = merged;
+        sizes[h] = n;
+    }
+    
+    private void append(int h, double value) {
+        if (sizes[h] == levels[h].length) {
+            levels[h] = Arrays.copyOf(levels[h], Math.max(levels[h].length * 2, MIN_CAPACITY));
+        }
+        levels[h][sizes[h]++] = value;
+    }
+    
+    void writeTo(SimulationCheckpoint.Output out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        out.writeLong(compactions);
+        out.writeInt(levelCount);
+        for (int h = 0; h < levelCount; h++) {
+            out.writeInt(sizes[h]);
+            for (int i = 0; i < sizes[h]; i++) {
+                out.writeDouble(levels[h][i]);
+            }
+        }
+    }
+    
+    void readFrom(SimulationCheckpoint.Input in) throws IOException {
+        clear();
+        count = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        compactions = in.readLong();
+        int savedLevels = in.readInt();
+        for (int h = 0; h < savedLevels; h++) {
+            if (h == levelCount) {
+                addLevel();
+            }
+            int size = in.readInt();
+            for (int i = 0; i < size; i++) {
+                append(h, in.readDouble());
+            }
+            retained += size;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.Well19937c;
+
+/**
+ * Generadores de números aleatorios disponibles para el motor. Todos son
+ * {@link RandomGenerator} de commons-math3, así que las distribuciones de la
+ * biblioteca (y los generadores de notas) los usan sin adaptadores.
+ *
+ * WELL19937C es el de siempre y el valor por defecto: con él, una semilla da
+ * los mismos resultados que antes. SPLITMIX64 y XOSHIRO256 son más rápidos
+ * (ver {@link RandomSourceCheck} para compararlos y verificar su calidad).
+ */
+public enum RandomSource {
+    WELL19937C("well"),
+    SPLITMIX64("splitmix"),
+    XOSHIRO256("xoshiro");
+    
+    /**
+     * Flujos por bloque de {@link #streams(long, int, int)}: el flujo i está a
+     * i / STREAMS_PER_BLOCK saltos largos (2^192) y i % STREAMS_PER_BLOCK
+     * saltos (2^128) de la semilla, así que llegar a cualquier flujo cuesta a
+     * lo sumo unos 2^16 saltos y los flujos siguen sin superponerse (un salto
+     * largo equivale a 2^64 saltos).
+     */
+    static final int STREAMS_PER_BLOCK = 1 << 16;
+    
+    private final String name;
+    
+    RandomSource(String name) {
+        this.name = name;
+    }
+    
+    /**
+     * Nombre corto para la línea de comandos y las claves de la caché.
+     */
+    public String getName() {
+        return name;
+    }
+    
+    /**
+     * El generador con ese nombre corto (o con el nombre de la constante).
+     */
+    public static RandomSource fromName(String name) {
+        for (RandomSource source : values()) {
+            if (source.name.equalsIgnoreCase(name) || source.name().equalsIgnoreCase(name)) {
+                return source;
+            }
+        }
+        throw new IllegalArgumentException("Generador desconocido: " + name + " (well, splitmix o xoshiro)");
+    }
+    
+    public RandomGenerator create(long seed) {
+        switch (this) {
+            case SPLITMIX64:
+                return new SplitMix64Random(seed);
+            case XOSHIRO256:
+                return new Xoshiro256StarStarRandom(seed);
+            default:
+                return new Well19937c(seed);
+        }
+    }
+    
+    /**
+     * Si el generador tiene saltos baratos (solo XOSHIRO256): con los demás,
+     * {@link #streams} solo deriva semillas.
+     */
+    public boolean hasJumps() {
+        return this == XOSHIRO256;
+    }
+    
+    /**
+     * count flujos independientes a partir de una semilla, por ejemplo uno por
+     * hilo o proceso. Ver {@link #streams(long, int, int)}.
+     */
+    public RandomGenerator[] streams(long seed, int count) {
+        return streams(seed, 0, count);
+    }
+    
+    /**
+     * Los flujos [from, from + count) de una semilla, por ejemplo los de un
+     * tramo de réplicas. Con XOSHIRO256 son copias del mismo generador
+     * separadas por saltos (ver {@link #STREAMS_PER_BLOCK}), que garantizan
+     * que no se superpongan; los demás no tienen saltos baratos y el flujo i
+     * usa la semilla {@code Seeds.derive(seed, i)}. El flujo i es el mismo
+     * cualquiera sea el tramo que lo pide.
+     */
+    public RandomGenerator[] streams(long seed, int from, int count) {
+        RandomGenerator[] streams = new RandomGenerator[count];
+        if (this == XOSHIRO256) {
+            Xoshiro256StarStarRandom block = new Xoshiro256StarStarRandom(seed);
+            for (int b = from / STREAMS_PER_BLOCK; b > 0; b--) {
+                block.longJump();
+            }
+            Xoshiro256StarStarRandom current = new Xoshiro256StarStarRandom(block);
+            for (int j = from % STREAMS_PER_BLOCK; j > 0; j--) {
+                current.jump();
+            }
+            for (int i = 0; i < count; i++) {
+                streams[i] = new Xoshiro256StarStarRandom(current);
+                if ((from + i + 1) % STREAMS_PER_BLOCK == 0) {
+                    block.longJump();
+                    current = new Xoshiro256StarStarRandom(block);
+                } else {
+                    current.jump();
+                }
+            }
+        } else {
+            for (int i = 0; i < count; i++) {
+                streams[i] = create(Seeds.derive(seed, from + i));
+            }
+        }
+        return streams;
+    }
+}
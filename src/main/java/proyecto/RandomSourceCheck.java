@@ -0,0 +1,267 @@
+package proyecto;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.distribution.UniformRealDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.special.Erf;
+import org.apache.commons.math3.stat.inference.ChiSquareTest;
+import org.apache.commons.math3.stat.inference.KolmogorovSmirnovTest;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Compara los generadores de {@link RandomSource}: velocidad (por número y en
+ * una corrida completa del motor) y una batería corta de pruebas
+ * estadísticas. No reemplaza a TestU01 o PractRand, pero detecta un generador
+ * roto o mal sembrado:
+ *   - uniformidad: chi-cuadrado de nextDouble en 1024 intervalos;
+ *   - pares: chi-cuadrado de pares consecutivos en una grilla de 64 x 64;
+ *   - bits: frecuencia de unos en cada bit de nextLong (con corrección de Bonferroni);
+ *   - ks-uniforme y ks-normal: Kolmogorov-Smirnov de nextDouble y nextGaussian;
+ *   - flujos: correlación entre dos flujos de {@link RandomSource#streams}.
+ * Un generador pasa si ningún valor p es menor que {@link #ALPHA}.
+ */
+public final class RandomSourceCheck {
+    public static final double ALPHA = 0.001;
+    private static final int DRAWS = 1 << 22;
+    private static final int KS_DRAWS = 10_000;
+    private static final int BINS = 1024;
+    private static final int PAIR_BINS = 64;
+    
+    private RandomSourceCheck() {
+    }
+    
+    /**
+     * Resultado de un generador.
+     */
+    public static final class Result {
+        private final RandomSource source;
+        private final Map<String, Double> pValues;
+        private final double nanosPerDouble;
+        private final double nanosPerGaussian;
+        private final double simulationSeconds;
+        
+        Result(RandomSource source, Map<String, Double> pValues, double nanosPerDouble, double nanosPerGaussian,
+               double simulationSeconds) {
+            this.source = source;
+            this.pValues = pValues;
+            this.nanosPerDouble = nanosPerDouble;
+            this.nanosPerGaussian = nanosPerGaussian;
+            this.simulationSeconds = simulationSeconds;
+        }
+        
+        public RandomSource getSource() {
+            return source;
+        }
+        
+        public Map<String, Double> getPValues() {
+            return pValues;
+        }
+        
+        public double getNanosPerDouble() {
+            return nanosPerDouble;
+        }
+        
+        public double getNanosPerGaussian() {
+            return nanosPerGaussian;
+        }
+        
+        public double getSimulationSeconds() {
+            return simulationSeconds;
+        }
+        
+        public boolean passed() {
+            return pValues.values().stream().allMatch(p -> p >= ALPHA);
+        }
+    }
+    
+    /**
+     * Prueba y mide un generador.
+     * @param students estudiantes de la corrida que se cronometra
+     */
+    public static Result check(RandomSource source, long seed, int students) {
+        Map<String, Double> pValues = new LinkedHashMap<>();
+        pValues.put("uniformidad", uniformity(source.create(seed)));
+        pValues.put("pares", pairs(source.create(seed)));
+        pValues.put("bits", bits(source.create(seed)));
+        pValues.put("ks-uniforme", kolmogorovSmirnov(source.create(seed), false));
+        pValues.put("ks-normal", kolmogorovSmirnov(source.create(seed), true));
+        pValues.put("flujos", streamCorrelation(source.streams(seed, 2)));
+        
+        RandomGenerator random = source.create(seed);
+        timeDoubles(random); // calentar el JIT
+        double nanosPerDouble = timeDoubles(random);
+        timeGaussians(random);
+        double nanosPerGaussian = timeGaussians(random);
+        
+        SimulationEngine engine = new SimulationEngine(seed, students, SimulationParameters.defaults());
+        engine.setRandomSource(source);
+        engine.runSimulation(); // calentar
+        engine.reset(seed, SimulationParameters.defaults());
+        long start = System.nanoTime();
+        engine.runSimulation();
+        double simulationSeconds = (System.nanoTime() - start) / 1e9;
+        return new Result(source, pValues, nanosPerDouble, nanosPerGaussian, simulationSeconds);
+    }
+    
+    private static double uniformity(RandomGenerator random) {
+        long[] observed = new long[BINS];
+        for (int i = 0; i < DRAWS; i++) {
+            observed[(int) (random.nextDouble() * BINS)]++;
+        }
+        return chiSquare(observed, DRAWS);
+    }
+    
+    private static double pairs(RandomGenerator random) {
+        long[] observed = new long[PAIR_BINS * PAIR_BINS];
+        for (int i = 0; i < DRAWS / 2; i++) {
+            int x = (int) (random.nextDouble() * PAIR_BINS);
+            int y = (int) (random.nextDouble() * PAIR_BINS);
+            observed[x * PAIR_BINS + y]++;
+        }
+        return chiSquare(observed, DRAWS / 2);
+    }
+    
+    private static double chiSquare(long[] observed, long total) {
+        double[] expected = new double[observed.length];
+        Arrays.fill(expected, total / (double) observed.length);
+        return new ChiSquareTest().chiSquareTest(expected, observed);
+    }
+    
+    /**
+     * Valor p mínimo entre los 64 bits, multiplicado por 64 (Bonferroni).
+     */
+    private static double bits(RandomGenerator random) {
+        int n = DRAWS / 4;
+        long[] ones = new long[64];
+        for (int i = 0; i < n; i++) {
+            long value = random.nextLong();
+            for (int b = 0; b < 64; b++) {
+                ones[b] += (value >>> b) & 1;
+            }
+        }
+        double minimum = 1.0;
+        for (int b = 0; b < 64; b++) {
+            double z = (ones[b] - n / 2.0) / Math.sqrt(n / 4.0);
+            minimum = Math.min(minimum, twoSided(z));
+        }
+        return Math.min(1.0, minimum * 64);
+    }
+    
+    private static double kolmogorovSmirnov(RandomGenerator random, boolean gaussian) {
+        double[] sample = new double[KS_DRAWS];
+        for (int i = 0; i < KS_DRAWS; i++) {
+            sample[i] = gaussian ? random.nextGaussian() : random.nextDouble();
+        }
+        // Las distribuciones de referencia sólo se consultan, no se muestrean
+        return new KolmogorovSmirnovTest().kolmogorovSmirnovTest(
+            gaussian ? new NormalDistribution(null, 0, 1) : new UniformRealDistribution(null, 0, 1), sample);
+    }
+    
+    /**
+     * Correlación de Pearson entre dos flujos: con flujos independientes,
+     * r * sqrt(n) es aproximadamente normal estándar.
+     */
+    private static double streamCorrelation(RandomGenerator[] streams) {
+        int n = DRAWS / 4;
+        StreamingStatistics x = new StreamingStatistics();
+        StreamingStatistics y = new StreamingStatistics();
+        double sumProducts = 0.0;
+        for (int i = 0; i < n; i++) {
+            double a = streams[0].nextDouble() - 0.5;
+            double b = streams[1].nextDouble() - 0.5;
+            x.add(a);
+            y.add(b);
+            sumProducts += a * b;
+        }
+        double covariance = sumProducts / n - x.getMean() * y.getMean();
+        double r = covariance / Math.sqrt(x.getVariance() * y.getVariance());
+        return twoSided(r * Math.sqrt(n));
+    }
+    
+    private static double twoSided(double z) {
+        return Erf.erfc(Math.abs(z) / Math.sqrt(2.0));
+    }
+    
+    private static double timeDoubles(RandomGenerator random) {
+        double sink = 0.0;
+        long start = System.nanoTime();
+        for (int i = 0; i < DRAWS; i++) {
+            sink += random.nextDouble();
+        }
+        return elapsedPerDraw(start, sink);
+    }
+    
+    private static double timeGaussians(RandomGenerator random) {
+        double sink = 0.0;
+        long start = System.nanoTime();
+        for (int i = 0; i < DRAWS; i++) {
+            sink += random.nextGaussian();
+        }
+        return elapsedPerDraw(start, sink);
+    }
+    
+    private static double elapsedPerDraw(long start, double sink) {
+        double nanos = (System.nanoTime() - start) / (double) DRAWS;
+        // Usar la suma para que el JIT no elimine el bucle
+        return Double.isNaN(sink) ? Double.NaN : nanos;
+    }
+    
+    /**
+     * El más rápido en la corrida completa entre los que pasan las pruebas (null si ninguno).
+     */
+    public static RandomSource recommend(List<Result> results) {
+        Result best = null;
+        for (Result result : results) {
+            if (result.passed() && (best == null || result.simulationSeconds < best.simulationSeconds)) {
+                best = result;
+            }
+        }
+        return best != null ? best.source : null;
+    }
+    
+    public static void print(List<Result> results, int students, PrintStream out) {
+        out.println("=".repeat(80));
+        out.printf("GENERADORES ALEATORIOS (valores p; pasa si todos >= %.3f)\n", ALPHA);
+        out.println("=".repeat(80));
+        out.printf("%-14s", "Prueba");
+        for (Result result : results) {
+            out.printf(" %14s", result.source.getName());
+        }
+        out.println();
+        for (String test : results.get(0).pValues.keySet()) {
+            out.printf("%-14s", test);
+            for (Result result : results) {
+                out.printf(" %14.4f", result.pValues.get(test));
+            }
+            out.println();
+        }
+        out.printf("%-14s", "Resultado");
+        for (Result result : results) {
+            out.printf(" %14s", result.passed() ? "pasa" : "FALLA");
+        }
+        out.println();
+        out.println("-".repeat(80));
+        printRow(out, "ns/double", results, Result::getNanosPerDouble, "%14.2f");
+        printRow(out, "ns/gaussiana", results, Result::getNanosPerGaussian, "%14.2f");
+        printRow(out, "corrida (s)", results, Result::getSimulationSeconds, "%14.3f");
+        out.printf("(corrida: %d estudiantes en modo secuencial)\n", students);
+        RandomSource recommended = recommend(results);
+        out.println("Recomendado: " + (recommended != null ? recommended.getName() : "ninguno pasa las pruebas"));
+        out.println("=".repeat(80));
+    }
+    
+    private static void printRow(PrintStream out, String label, List<Result> results,
+                                 ToDoubleFunction<Result> value, String format) {
+        out.printf("%-14s", label);
+        for (Result result : results) {
+            out.printf(" " + format, value.applyAsDouble(result));
+        }
+        out.println();
+    }
+}
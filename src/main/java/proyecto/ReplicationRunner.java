@@ -0,0 +1,249 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Ejecuta réplicas independientes de la simulación en paralelo sobre un
+ * ForkJoinPool y combina sus métricas.
+ *
+ * La réplica i usa la semilla {@code Seeds.derive(masterSeed, i)} (y, con un
+ * generador con saltos, el flujo i de {@link RandomSource#streams}), y las
+ * métricas se combinan en orden de réplica: el resultado depende solo de la
+ * semilla maestra, no de la cantidad de hilos ni de cómo se dividan los tramos.
+ *
+ * Reducción de varianza, combinable:
+ *   - números aleatorios comunes ({@link #setCommonRandomNumbers}), sobre todo
+ *     para comparar configuraciones ({@link #setComparison});
+ *   - pares antitéticos ({@link #setAntithetic}): cada réplica es el promedio
+ *     de una corrida y su antitética con la misma semilla;
+ *   - variables de control ({@link #setControlVariates}): el resumen ajusta
+ *     cada métrica con las probabilidades exactas de aprobación.
+ */
+public class ReplicationRunner {
+    private final int parallelism;
+    private final int studentsPerReplication;
+    private final SimulationParameters parameters;
+    private boolean analyticMode;
+    private boolean commonRandomNumbers;
+    private boolean antithetic;
+    private boolean controlVariates;
+    private SimulationParameters alternative; // null = sin comparación
+    private ResultCache cache;
+    private RandomSource randomSource = RandomSource.WELL19937C;
+    private volatile boolean cancelled;
+    
+    public ReplicationRunner(int parallelism, int studentsPerReplication) {
+        this(parallelism, studentsPerReplication, Curriculum.defaultCurriculum());
+    }
+    
+    public ReplicationRunner(int parallelism, int studentsPerReplication, Curriculum curriculum) {
+        this(parallelism, studentsPerReplication, SimulationParameters.defaults().withCurriculum(curriculum));
+    }
+    
+    public ReplicationRunner(int parallelism, int studentsPerReplication, SimulationParameters parameters) {
+        this.parallelism = parallelism;
+        this.studentsPerReplication = studentsPerReplication;
+        this.parameters = parameters;
+    }
+    
+    /**
+     * Usa todos los núcleos disponibles y la cantidad de estudiantes configurada.
+     */
+    public ReplicationRunner() {
+        this(Runtime.getRuntime().availableProcessors(), SimulationConfig.MAX_STUDENTS);
+    }
+    
+    /**
+     * Ejecuta las réplicas en modo analítico (ver {@link SimulationEngine#setAnalyticMode}).
+     */
+    public void setAnalyticMode(boolean analyticMode) {
+        this.analyticMode = analyticMode;
+    }
+    
+    /**
+     * Ver {@link SimulationEngine#setCommonRandomNumbers}.
+     */
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        this.commonRandomNumbers = commonRandomNumbers;
+    }
+    
+    /**
+     * Cada réplica promedia una corrida y su antitética con la misma semilla
+     * (ver {@link SimulationEngine#setAntithetic}); cuesta dos corridas.
+     */
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+    }
+    
+    /**
+     * Los resúmenes ajustan las métricas con variables de control (ver {@link ControlVariateSummary}).
+     */
+    public void setControlVariates(boolean controlVariates) {
+        this.controlVariates = controlVariates;
+    }
+    
+    /**
+     * Cada réplica simula también la configuración alternativa con la misma
+     * semilla y aporta la diferencia de métricas (alternativa - base); null
+     * para simular solo la configuración base.
+     */
+    public void setComparison(SimulationParameters alternative) {
+        this.alternative = alternative;
+    }
+    
+    /**
+     * Ver {@link SimulationEngine#setRandomSource}.
+     */
+    public void setRandomSource(RandomSource randomSource) {
+        this.randomSource = randomSource;
+    }
+    
+    /**
+     * Reutiliza los resultados de réplicas ya calculadas (null para no usar caché).
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+    
+    /**
+     * Resumen vacío del tipo que corresponde a la configuración del ejecutor.
+     */
+    public ReplicationSummary createSummary() {
+        return controlVariates ? new ControlVariateSummary() : new ReplicationSummary();
+    }
+    
+    public ReplicationSummary run(int replications, long masterSeed) {
+        ReplicationSummary summary = createSummary();
+        run(0, replications, masterSeed, summary);
+        return summary;
+    }
+    
+    /**
+     * Ejecuta las réplicas [from, from + count) de la semilla maestra y agrega
+     * sus métricas al resumen en orden de réplica. Ejecutar 0..n en varios
+     * tramos da el mismo resumen que {@code run(n, masterSeed)}.
+     * @throws CancellationException si se llamó a {@link #cancel()}
+     */
+    public void run(int from, int count, long masterSeed, ReplicationSummary summary) {
+        for (SimulationMetrics metrics : runSlice(from, count, masterSeed)) {
+            summary.add(metrics);
+        }
+    }
+    
+    /**
+     * Métricas de las réplicas [from, from + count) de la semilla maestra, en
+     * orden de réplica, sin combinarlas (ver {@link DistributedReplicationRunner}).
+     * @throws CancellationException si se llamó a {@link #cancel()}
+     */
+    public SimulationMetrics[] runSlice(int from, int count, long masterSeed) {
+        SimulationMetrics[] results = new SimulationMetrics[count];
+        RandomGenerator[] streams = randomSource.hasJumps() ? randomSource.streams(masterSeed, from, count) : null;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, count).parallel().forEach(i -> {
+                if (!cancelled) {
+                    results[i] = runReplication(Seeds.derive(masterSeed, from + i),
+                                                streams != null ? streams[i] : null);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            cancelled = true;
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Réplicas interrumpidas", e);
+        } catch (ExecutionException e) {
+            if (cancelled) {
+                throw new CancellationException("Réplicas canceladas");
+            }
+            throw new IllegalStateException("Falló una réplica", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        for (SimulationMetrics metrics : results) {
+            if (metrics == null) {
+                throw new CancellationException("Réplicas canceladas");
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Pide detener las réplicas en curso: las que no empezaron se saltean, las
+     * que están corriendo se detienen al cerrar su semestre actual (ver
+     * {@link SimulationEngine#setCancellation}) y {@link #run} termina con
+     * CancellationException. Si todas las réplicas ya habían terminado, el
+     * resultado se conserva. Se puede llamar desde cualquier hilo.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+    
+    public boolean isCancelled() {
+        return cancelled;
+    }
+    
+    public int getParallelism() {
+        return parallelism;
+    }
+    
+    /**
+     * Ejecuta una réplica completa con la semilla dada (con su antitética y
+     * la configuración alternativa, si corresponde).
+     */
+    public SimulationMetrics runReplication(long seed) {
+        return runReplication(seed, null);
+    }
+    
+    /**
+     * Como {@link #runReplication(long)}, pero el modo secuencial arranca del
+     * flujo dado (null para crearlo con la semilla). Cada corrida de la
+     * réplica usa una copia, así que la antitética y la alternativa parten del
+     * mismo estado.
+     */
+    private SimulationMetrics runReplication(long seed, RandomGenerator stream) {
+        SimulationMetrics metrics = runConfiguration(parameters, seed, stream);
+        return alternative != null ? runConfiguration(alternative, seed, stream).minus(metrics) : metrics;
+    }
+    
+    private SimulationMetrics runConfiguration(SimulationParameters parameters, long seed, RandomGenerator stream) {
+        SimulationMetrics metrics = runSingle(parameters, seed, stream, false);
+        return antithetic ? SimulationMetrics.average(metrics, runSingle(parameters, seed, stream, true)) : metrics;
+    }
+    
+    private SimulationMetrics runSingle(SimulationParameters parameters, long seed, RandomGenerator stream,
+                                        boolean antitheticRun) {
+        if (cache != null) {
+            String mode = ResultCache.mode(ResultCache.mode(ResultCache.MODE_SEQUENTIAL,
+                                                            commonRandomNumbers, antitheticRun),
+                                           randomSource);
+            String key = ResultCache.key(parameters, seed, studentsPerReplication, analyticMode,
+                                         stream != null ? ResultCache.streamMode(mode) : mode);
+            return SimulationMetrics.fromResults(cache.computeIfAbsent(
+                key, () -> new StatisticsGenerator(simulate(parameters, seed, stream, antitheticRun)).getResults()));
+        }
+        SimulationEngine engine = simulate(parameters, seed, stream, antitheticRun);
+        return SimulationMetrics.from(engine, new StatisticsGenerator(engine));
+    }
+    
+    private SimulationEngine simulate(SimulationParameters parameters, long seed, RandomGenerator stream,
+                                      boolean antitheticRun) {
+        SimulationEngine engine = new SimulationEngine(seed, studentsPerReplication, parameters);
+        if (randomSource != RandomSource.WELL19937C) {
+            engine.setRandomSource(randomSource);
+        }
+        if (stream != null) {
+            // Solo XOSHIRO256 da flujos con saltos (ver RandomSource#hasJumps)
+            engine.restoreRandom(new Xoshiro256StarStarRandom((Xoshiro256StarStarRandom) stream));
+        }
+        engine.setAnalyticMode(analyticMode);
+        engine.setCommonRandomNumbers(commonRandomNumbers);
+        engine.setAntithetic(antitheticRun);
+        engine.setCancellation(this::isCancelled);
+        engine.runSimulation();
+        return engine;
+    }
+}
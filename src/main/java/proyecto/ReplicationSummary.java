@@ -0,0 +1,84 @@
+package proyecto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Combina las métricas de varias réplicas independientes en media, varianza
+ * e intervalo de confianza por métrica.
+ */
+public class ReplicationSummary {
+    private final Map<String, StreamingStatistics> statistics = new LinkedHashMap<>();
+    private int replications;
+    
+    /**
+     * Agrega las métricas de una réplica. Los valores NaN (métrica no definida
+     * en esa réplica) no se acumulan.
+     */
+    public void add(SimulationMetrics metrics) {
+        replications++;
+        for (Map.Entry<String, Double> entry : metrics.getValues().entrySet()) {
+            StreamingStatistics stat = statistics.computeIfAbsent(entry.getKey(), k -> new StreamingStatistics());
+            if (!Double.isNaN(entry.getValue())) {
+                stat.add(entry.getValue());
+            }
+        }
+    }
+    
+    public int getReplications() {
+        return replications;
+    }
+    
+    public Map<String, StreamingStatistics> getStatistics() {
+        return Collections.unmodifiableMap(statistics);
+    }
+    
+    public StreamingStatistics get(String metric) {
+        return statistics.get(metric);
+    }
+    
+    /**
+     * Estimación de la media de la métrica (NaN si no tiene valores).
+     * @throws IllegalArgumentException si la métrica no existe
+     */
+    public double getEstimate(String metric) {
+        StreamingStatistics stat = require(metric);
+        return stat.getCount() > 0 ? stat.getMean() : Double.NaN;
+    }
+    
+    /**
+     * Semiancho del intervalo de confianza de la estimación de la métrica
+     * (NaN con menos de dos valores).
+     * @throws IllegalArgumentException si la métrica no existe
+     */
+    public double getHalfWidth(String metric, double confidence) {
+        return require(metric).getConfidenceHalfWidth(confidence);
+    }
+    
+    private StreamingStatistics require(String metric) {
+        StreamingStatistics stat = statistics.get(metric);
+        if (stat == null) {
+            throw new IllegalArgumentException("Métrica desconocida: " + metric);
+        }
+        return stat;
+    }
+    
+    /**
+     * Imprime una tabla con media, varianza e intervalo de confianza de cada métrica.
+     */
+    public void print(double confidence) {
+        System.out.println("=".repeat(80));
+        System.out.printf("RESUMEN DE %d RÉPLICAS (IC %.0f%%)\n", replications, confidence * 100);
+        System.out.println("=".repeat(80));
+        System.out.printf("%-30s %12s %12s %24s\n", "Métrica", "Media", "Varianza", "Intervalo de confianza");
+        for (Map.Entry<String, StreamingStatistics> entry : statistics.entrySet()) {
+            StreamingStatistics stat = entry.getValue();
+            double halfWidth = stat.getConfidenceHalfWidth(confidence);
+            System.out.printf("%-30s %12.4f %12.4f   [%9.4f, %9.4f]\n",
+                              entry.getKey(), stat.getMean(), stat.getVariance(),
+                              stat.getMean() - halfWidth, stat.getMean() + halfWidth);
+        }
+        System.out.println("=".repeat(80));
+    }
+}
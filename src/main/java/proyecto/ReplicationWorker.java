@@ -0,0 +1,98 @@
+package proyecto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+
+/**
+ * Proceso de trabajo de {@link DistributedReplicationRunner}: se conecta al
+ * coordinador, recibe la configuración y ejecuta los tramos de réplicas que
+ * le envía hasta que le indica que terminó. Se inicia con
+ * {@code Main --worker=PUERTO --threads=T}.
+ */
+public final class ReplicationWorker {
+    private ReplicationWorker() {
+    }
+    
+    /**
+     * Atiende al coordinador que escucha en el puerto local dado hasta que no
+     * queden tramos. Si el coordinador ya terminó (no acepta conexiones),
+     * vuelve sin hacer nada.
+     */
+    public static void run(int port, int threads) throws IOException {
+        Socket socket;
+        try {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+        } catch (ConnectException e) {
+            return;
+        }
+        try (socket) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            out.writeInt(DistributedReplicationRunner.MAGIC);
+            out.writeInt(DistributedReplicationRunner.PROTOCOL_VERSION);
+            out.writeInt(SimulationEngine.ENGINE_VERSION);
+            out.writeLong(ProcessHandle.current().pid());
+            out.flush();
+            
+            long masterSeed = in.readLong();
+            int students = in.readInt();
+            boolean analytic = in.readBoolean();
+            boolean commonRandomNumbers = in.readBoolean();
+            boolean antithetic = in.readBoolean();
+            RandomSource randomSource = RandomSource.valueOf(in.readUTF());
+            SimulationParameters parameters = DistributedReplicationRunner.readParameters(in);
+            SimulationParameters alternative = in.readBoolean()
+                    ? DistributedReplicationRunner.readParameters(in)
+                    : null;
+            
+            ReplicationRunner runner = new ReplicationRunner(threads, students, parameters);
+            runner.setAnalyticMode(analytic);
+            runner.setCommonRandomNumbers(commonRandomNumbers);
+            runner.setAntithetic(antithetic);
+            runner.setRandomSource(randomSource);
+            runner.setComparison(alternative);
+            while (true) {
+                int from = in.readInt();
+                int count = in.readInt();
+                if (count == 0) {
+                    return;
+                }
+                SimulationMetrics[] slice;
+                try {
+                    slice = runner.runSlice(from, count, masterSeed);
+                } catch (RuntimeException e) {
+                    out.writeByte(DistributedReplicationRunner.STATUS_ERROR);
+                    out.writeUTF(String.valueOf(e.getCause() != null ? e.getCause() : e));
+                    out.flush();
+                    return;
+                }
+                writeMetrics(out, slice);
+            }
+        }
+    }
+    
+    /**
+     * Los nombres de las métricas una vez y después los valores de cada réplica.
+     */
+    private static void writeMetrics(DataOutputStream out, SimulationMetrics[] slice) throws IOException {
+        Map<String, Double> first = slice[0].getValues();
+        out.writeByte(DistributedReplicationRunner.STATUS_OK);
+        out.writeInt(first.size());
+        for (String name : first.keySet()) {
+            out.writeUTF(name);
+        }
+        for (SimulationMetrics metrics : slice) {
+            for (String name : first.keySet()) {
+                out.writeDouble(metrics.get(name));
+            }
+        }
+        out.flush();
+    }
+}
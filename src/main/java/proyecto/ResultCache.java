@@ -0,0 +1,315 @@
+package proyecto;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Caché de resultados de simulación direccionada por contenido.
+ *
+ * Con la semilla explícita, una corrida queda determinada por los parámetros,
+ * la semilla, la cantidad de estudiantes, el modo y la versión del motor; la
+ * clave es el SHA-256 de todo eso (ver {@link #key}). Los resultados se
+ * guardan como el JSON de {@link StatisticsGenerator#getResults()} en dos
+ * niveles:
+ *
+ *   - memoria: LRU con una cantidad máxima de entradas;
+ *   - disco (opcional): un archivo clave.json por resultado, con un máximo de
+ *     bytes en total; al superarlo se borran los menos usados recientemente.
+ *
+ * Es segura para usar desde varios hilos.
+ */
+public class ResultCache {
+    /** Corrida de {@link SimulationEngine#runSimulation()}. */
+    public static final String MODE_SEQUENTIAL = "secuencial";
+    /** Corrida de {@link SimulationEngine#runParallelSimulation(int)} (igual con cualquier cantidad de hilos). */
+    public static final String MODE_PARALLEL = "paralelo";
+    
+    private final Path directory; // null = solo memoria
+    private final long maxDiskBytes;
+    private final LinkedHashMap<String, String> memory;
+    private final LinkedHashMap<String, Long> diskIndex; // clave -> bytes, en orden de uso
+    private long diskBytes;
+    private long hits;
+    private long misses;
+    
+    /**
+     * Caché solo en memoria.
+     */
+    public ResultCache(int memoryEntries) {
+        this(null, memoryEntries, 0);
+    }
+    
+    /**
+     * Caché en memoria y en el directorio dado (se crea si no existe). Los
+     * resultados que ya estén en el directorio se conservan.
+     */
+    public ResultCache(Path directory, int memoryEntries, long maxDiskBytes) {
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.memory = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > memoryEntries;
+            }
+        };
+        this.diskIndex = new LinkedHashMap<>(16, 0.75f, true);
+        if (directory != null) {
+            loadDiskIndex();
+        }
+    }
+    
+    /**
+     * Indexa los resultados del directorio, del usado hace más tiempo al más reciente.
+     */
+    private void loadDiskIndex() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.json")) {
+                stream.forEach(files::add);
+            }
+            Map<Path, FileTime> modified = new LinkedHashMap<>();
+            for (Path file : files) {
+                modified.put(file, Files.getLastModifiedTime(file));
+            }
+            files.sort(Comparator.comparing(modified::get));
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                long size = Files.size(file);
+                diskIndex.put(name.substring(0, name.length() - ".json".length()), size);
+                diskBytes += size;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer la caché en " + directory, e);
+        }
+        evictDisk();
+    }
+    
+    /**
+     * Modo de una corrida con reducción de varianza: el modo base seguido de
+     * "+nac" (números aleatorios comunes) y "+antitetica", según corresponda.
+     */
+    public static String mode(String baseMode, boolean commonRandomNumbers, boolean antithetic) {
+        return baseMode + (commonRandomNumbers ? "+nac" : "") + (antithetic ? "+antitetica" : "");
+    }
+    
+    /**
+     * Modo de una corrida con otro generador que el de siempre: se agrega
+     * "+" y su nombre (con WELL19937C el modo no cambia, así que las entradas
+     * ya guardadas siguen valiendo).
+     */
+    public static String mode(String mode, RandomSource source) {
+        return source == RandomSource.WELL19937C ? mode : mode + "+" + source.getName();
+    }
+    
+    /**
+     * Modo de una réplica cuyo generador es el flujo de su índice (ver
+     * {@link RandomSource#streams}) y no el creado con la semilla: se agrega
+     * "+flujo", porque con la misma semilla los resultados son otros.
+     */
+    public static String streamMode(String mode) {
+        return mode + "+flujo";
+    }
+    
+    /**
+     * Clave de una corrida: SHA-256 (en hexadecimal) de la versión del motor,
+     * el modo, la semilla, la cantidad de estudiantes y todos los parámetros,
+     * incluida cada asignatura del plan.
+     * @param mode {@link #MODE_SEQUENTIAL} o {@link #MODE_PARALLEL}, porque con
+     *             la misma semilla dan resultados distintos (ver también {@link #mode})
+     */
+    public static String key(SimulationParameters parameters, long seed, int students,
+                             boolean analytic, String mode) {
+        StringBuilder description = new StringBuilder();
+        description.append("engine=").append(SimulationEngine.ENGINE_VERSION)
+                   .append(";mode=").append(mode)
+                   .append(";analytic=").append(analytic)
+                   .append(";seed=").append(seed)
+                   .append(";students=").append(students)
+                   .append(";passingScore=").append(parameters.getPassingScore())
+                   .append(";maxAttempts=").append(parameters.getMaxAttemptsPerCourse())
+                   .append(";maxCoursesPerSemester=").append(parameters.getMaxCoursesPerSemester())
+                   .append(";maxSemesters=").append(parameters.getMaxSemesters())
+                   .append(";completionRange=").append(parameters.getMinSemestersCompletion())
+                   .append('-').append(parameters.getMaxSemestersCompletion());
+        for (CourseDefinition course : parameters.getCurriculum().getCourses()) {
+            description.append(";course=").append(course.getName())
+                       .append(',').append(course.getDistributionType())
+                       .append(',').append(course.getMean())
+                       .append(',').append(course.getVariance())
+                       .append(',').append(course.getLambda())
+                       .append(',').append(String.join("|", course.getPrerequisites()));
+            if (course.getGrades() != null) {
+                // Sólo en las empíricas, para no cambiar las claves de las demás
+                description.append(",notas=").append(course.getGrades());
+            }
+        }
+        
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(description.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+    
+    /**
+     * Resultado guardado con la clave, o null si no está en ningún nivel.
+     */
+    public Map<String, Object> get(String key) {
+        String json = getJson(key);
+        synchronized (this) {
+            if (json != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        return json != null ? parseResults(json) : null;
+    }
+    
+    /**
+     * Retorna el resultado guardado o lo calcula y lo guarda. El cálculo se
+     * hace fuera del candado: dos hilos con la misma clave pueden calcularla
+     * a la vez, con el mismo resultado.
+     */
+    public Map<String, Object> computeIfAbsent(String key, Supplier<Map<String, Object>> compute) {
+        Map<String, Object> cached = get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Map<String, Object> results = compute.get();
+        put(key, results);
+        return results;
+    }
+    
+    public void put(String key, Map<String, Object> results) {
+        String json = Json.write(results);
+        synchronized (this) {
+            memory.put(key, json);
+        }
+        if (directory != null) {
+            writeToDisk(key, json);
+        }
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getDiskBytes() {
+        return diskBytes;
+    }
+    
+    private String getJson(String key) {
+        synchronized (this) {
+            String json = memory.get(key);
+            if (json != null) {
+                return json;
+            }
+            if (directory == null || diskIndex.get(key) == null) { // get() la marca como usada
+                return null;
+            }
+        }
+        
+        Path file = directory.resolve(key + ".json");
+        try {
+            String json = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            synchronized (this) {
+                memory.put(key, json);
+            }
+            return json;
+        } catch (NoSuchFileException e) {
+            forgetDisk(key);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer " + file, e);
+        }
+    }
+    
+    private static Map<String, Object> parseResults(String json) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> results = (Map<String, Object>) Json.parse(json);
+        return results;
+    }
+    
+    /**
+     * Escribe en un archivo temporal y lo renombra, para que ningún lector
+     * vea un archivo a medio escribir.
+     */
+    private void writeToDisk(String key, String json) {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        Path file = directory.resolve(key + ".json");
+        try {
+            Path temporary = Files.createTempFile(directory, key, ".tmp");
+            Files.write(temporary, bytes);
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir " + file, e);
+        }
+        
+        synchronized (this) {
+            Long previous = diskIndex.put(key, (long) bytes.length);
+            diskBytes += bytes.length - (previous != null ? previous : 0);
+        }
+        evictDisk();
+    }
+    
+    private synchronized void forgetDisk(String key) {
+        Long size = diskIndex.remove(key);
+        if (size != null) {
+            diskBytes -= size;
+        }
+    }
+    
+    /**
+     * Borra los resultados usados hace más tiempo hasta quedar dentro del límite.
+     */
+    private void evictDisk() {
+        while (true) {
+            String eldest;
+            synchronized (this) {
+                if (diskBytes <= maxDiskBytes || diskIndex.isEmpty()) {
+                    return;
+                }
+                eldest = diskIndex.keySet().iterator().next();
+                diskBytes -= diskIndex.remove(eldest);
+            }
+            try {
+                Files.deleteIfExists(directory.resolve(eldest + ".json"));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo borrar " + eldest + ".json", e);
+            }
+        }
+    }
+}
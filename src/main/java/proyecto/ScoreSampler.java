@@ -0,0 +1,66 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * Genera notas para una asignatura. Se construye una sola vez a partir de los
+ * parámetros de la asignatura y comparte el generador aleatorio del motor.
+ */
+public interface ScoreSampler {
+    
+    /**
+     * Genera una nota.
+     */
+    double sample();
+    
+    /**
+     * Genera n notas y las guarda en out[0..n-1].
+     */
+    void sample(double[] out, int n);
+    
+    /**
+     * Nota por transformación inversa: el cuantil u de la distribución. Es
+     * monótona en u, por lo que u y 1 - u dan notas antitéticas y el mismo u
+     * en dos configuraciones da notas fuertemente correlacionadas.
+     * @param u uniforme en (0, 1)
+     */
+    double quantile(double u);
+    
+    /**
+     * Probabilidad exacta de que una nota sea mayor o igual a passingScore.
+     */
+    double passProbability(double passingScore);
+    
+    /**
+     * Crea el generador de notas correspondiente a la distribución de la asignatura.
+     */
+    static ScoreSampler forCourse(Course course, RandomGenerator random) {
+        return create(course.getDistributionType(), course.getMean(), course.getVariance(),
+                      course.getLambda(), course.getGrades(), random);
+    }
+    
+    /**
+     * Crea el generador de notas correspondiente a una definición del plan de estudios.
+     */
+    static ScoreSampler forDefinition(CourseDefinition definition, RandomGenerator random) {
+        return create(definition.getDistributionType(), definition.getMean(), definition.getVariance(),
+                      definition.getLambda(), definition.getGrades(), random);
+    }
+    
+    static ScoreSampler create(Course.DistributionType distributionType, double mean, double variance,
+                               double lambda, GradeDistribution grades, RandomGenerator random) {
+        switch (distributionType) {
+            case NORMAL:
+                return new NormalScoreSampler(random, mean, variance);
+            case POISSON:
+                return new PoissonScoreSampler(random, lambda);
+            case EMPIRICAL:
+                if (grades == null) {
+                    throw new IllegalArgumentException("Distribución empírica sin notas");
+                }
+                return new EmpiricalScoreSampler(random, grades);
+            default:
+                throw new IllegalArgumentException("Distribución no soportada: " + distributionType);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package proyecto;
+
+/**
+ * Derivación de semillas independientes a partir de una semilla maestra.
+ */
+public final class Seeds {
+    
+    private Seeds() {
+    }
+    
+    /**
+     * Semilla para la réplica (o flujo) número index. Aplica la función de
+     * mezcla de SplitMix64, de modo que índices consecutivos dan semillas sin
+     * correlación aparente.
+     */
+    public static long derive(long masterSeed, long index) {
+        return mix(masterSeed + (index + 1) * 0x9E3779B97F4A7C15L);
+    }
+    
+    /**
+     * Función de mezcla de 64 bits de SplitMix64.
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,107 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Fragmento contiguo de estudiantes [from, to) que un hilo procesa durante un
+ * semestre. Tiene sus propios generadores de notas y contadores por asignatura,
+ * que el motor suma a las asignaturas al cerrar cada semestre.
+ */
+class SemesterShard {
+    final int from;
+    final int to;
+    final RandomGenerator random;
+    final ScoreSampler[] samplers; // por índice de asignatura
+    final int[] availableCourses; // buffer para las asignaturas a inscribir
+    
+    // Contadores del semestre en curso
+    int activeStudents;
+    int completions; // estudiantes que completaron todas las asignaturas
+    int abandonedStudents; // estudiantes que abandonaron
+    final int[] enrollments;
+    final int[] abandonments;
+    final int[][] passingTimeCounts; // [asignatura][tiempo de aprobación en semestres]
+    final QuantileSketch[] scoreSketches; // notas del semestre por asignatura
+    final int[] samples; // sorteos de notas o de intentos de aprobación, por asignatura
+    
+    // Telemetría (ver SimulationTelemetry)
+    int draws; // sorteos, para cronometrar uno de cada SAMPLING_TIMER_PERIOD
+    long samplingNanos; // tiempo estimado de los sorteos del semestre
+    long busyNanos; // tiempo de proceso del fragmento en el semestre
+    int enrollmentEventCountdown; // inscripciones hasta la próxima muestra para JFR (ver SimulationEvents)
+    
+    // Inscripciones del semestre con el formato de EnrollmentEventLog (null = sin registro)
+    ByteBuffer events;
+    EnrollmentEventLog directLog; // si no es null, events se vuelca acá al llenarse
+    
+    SemesterShard(int from, int to, RandomGenerator random, ScoreSampler[] samplers,
+                  int maxCoursesPerSemester, int maxSemesters) {
+        this.from = from;
+        this.to = to;
+        this.random = random;
+        this.samplers = samplers;
+        this.availableCourses = new int[maxCoursesPerSemester];
+        this.enrollments = new int[samplers.length];
+        this.abandonments = new int[samplers.length];
+        this.passingTimeCounts = new int[samplers.length][maxSemesters + 1];
+        this.samples = new int[samplers.length];
+        this.scoreSketches = new QuantileSketch[samplers.length];
+        for (int c = 0; c < samplers.length; c++) {
+            scoreSketches[c] = new QuantileSketch();
+        }
+    }
+    
+    /**
+     * Activa el registro de inscripciones del fragmento.
+     * @param directLog registro donde volcar el buffer cuando se llena, o null
+     *                  para que crezca hasta que el motor lo vuelque en orden
+     */
+    void enableEvents(int initialRecords, EnrollmentEventLog directLog) {
+        this.events = ByteBuffer.allocate(initialRecords * EnrollmentEventLog.RECORD_BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        this.directLog = directLog;
+    }
+    
+    void recordEvent(int student, int course, int semester, int attempt, float score, int outcome) {
+        if (events.remaining() < EnrollmentEventLog.RECORD_BYTES) {
+            if (directLog != null) {
+                directLog.append(events);
+                events.clear();
+            } else {
+                ByteBuffer larger = ByteBuffer.allocate(events.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+                events.flip();
+                larger.put(events);
+                events = larger;
+            }
+        }
+        events.putInt(student)
+              .putShort((short) course)
+              .putShort((short) semester)
+              .put((byte) attempt)
+              .put((byte) outcome)
+              .putShort((short) 0)
+              .putFloat(score);
+    }
+    
+    void reset() {
+        activeStudents = 0;
+        completions = 0;
+        abandonedStudents = 0;
+        samplingNanos = 0;
+        busyNanos = 0;
+        for (int c = 0; c < enrollments.length; c++) {
+            enrollments[c] = 0;
+            samples[c] = 0;
+            abandonments[c] = 0;
+            Arrays.fill(passingTimeCounts[c], 0);
+            scoreSketches[c].clear();
+        }
+        if (events != null) {
+            events.clear();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package proyecto;
+
+import java.util.List;
+
+/**
+ * Resumen inmutable de un semestre cerrado, que el motor publica con
+ * {@link SemesterSnapshotPublisher} para mostrar resultados parciales
+ * mientras la corrida avanza. Tiene los contadores de ese semestre (por
+ * asignatura, en el orden del plan de estudios) y los acumulados de la corrida.
+ */
+public final class SemesterSnapshot {
+    private final int semester;
+    private final int activeStudents;
+    private final List<String> courseNames;
+    private final int[] enrollments;
+    private final int[] passes;
+    private final int abandonments;
+    private final long cumulativeCompletions;
+    private final long cumulativeAbandonments;
+    
+    /**
+     * @param courseNames lista inmutable, compartida por todos los resúmenes de la corrida
+     * @param enrollments inscripciones del semestre por asignatura (el resumen se queda con el arreglo)
+     * @param passes aprobaciones del semestre por asignatura (el resumen se queda con el arreglo)
+     */
+    SemesterSnapshot(int semester, int activeStudents, List<String> courseNames, int[] enrollments,
+                     int[] passes, int abandonments, long cumulativeCompletions, long cumulativeAbandonments) {
+        this.semester = semester;
+        this.activeStudents = activeStudents;
+        this.courseNames = courseNames;
+        this.enrollments = enrollments;
+        this.passes = passes;
+        this.abandonments = abandonments;
+        this.cumulativeCompletions = cumulativeCompletions;
+        this.cumulativeAbandonments = cumulativeAbandonments;
+    }
+    
+    public int getSemester() {
+        return semester;
+    }
+    
+    public int getActiveStudents() {
+        return activeStudents;
+    }
+    
+    public List<String> getCourseNames() {
+        return courseNames;
+    }
+    
+    public int getEnrollments(int course) {
+        return enrollments[course];
+    }
+    
+    public int getPasses(int course) {
+        return passes[course];
+    }
+    
+    public long getTotalEnrollments() {
+        long total = 0;
+        for (int count : enrollments) {
+            total += count;
+        }
+        return total;
+    }
+    
+    public long getTotalPasses() {
+        long total = 0;
+        for (int count : passes) {
+            total += count;
+        }
+        return total;
+    }
+    
+    /**
+     * Estudiantes que abandonaron en este semestre.
+     */
+    public int getAbandonments() {
+        return abandonments;
+    }
+    
+    /**
+     * Estudiantes que completaron todas las asignaturas hasta este semestre inclusive.
+     */
+    public long getCumulativeCompletions() {
+        return cumulativeCompletions;
+    }
+    
+    public long getCumulativeAbandonments() {
+        return cumulativeAbandonments;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Semestre %d: %d activos, %d inscripciones, %d aprobadas, %d abandonos, "
+                             + "%d finalizados en total", semester, activeStudents, getTotalEnrollments(),
+                             getTotalPasses(), abandonments, cumulativeCompletions);
+    }
+}
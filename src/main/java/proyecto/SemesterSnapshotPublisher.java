@@ -0,0 +1,54 @@
+package proyecto;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publica un {@link SemesterSnapshot} al cerrar cada semestre (ver
+ * {@link SimulationEngine#setSnapshotPublisher}).
+ *
+ * Es un {@link SubmissionPublisher}: cada suscriptor recibe los resúmenes en
+ * el hilo del ejecutor, a medida que los pide con request(n), desde un buffer
+ * propio de capacidad acotada. El motor publica con offer y nunca espera: si
+ * el buffer de un suscriptor lento está lleno, ese resumen se descarta para
+ * él (y se cuenta en {@link #getDropped()}) en lugar de frenar la simulación.
+ * Como cada resumen trae también los acumulados, quien pierde alguno puede
+ * seguir a partir del siguiente.
+ */
+public class SemesterSnapshotPublisher extends SubmissionPublisher<SemesterSnapshot> {
+    /** Resúmenes en espera por suscriptor: alcanza para los semestres de varias corridas. */
+    public static final int DEFAULT_BUFFER_CAPACITY = 256;
+    
+    private final LongAdder dropped = new LongAdder();
+    
+    public SemesterSnapshotPublisher() {
+        this(ForkJoinPool.commonPool(), DEFAULT_BUFFER_CAPACITY);
+    }
+    
+    /**
+     * @param executor hilos donde se entregan los resúmenes a los suscriptores
+     * @param bufferCapacity resúmenes en espera por suscriptor antes de descartar
+     */
+    public SemesterSnapshotPublisher(Executor executor, int bufferCapacity) {
+        super(executor, bufferCapacity);
+    }
+    
+    /**
+     * Ofrece el resumen a todos los suscriptores sin bloquear.
+     */
+    void publish(SemesterSnapshot snapshot) {
+        offer(snapshot, (subscriber, item) -> {
+            dropped.increment();
+            return false; // no reintentar
+        });
+    }
+    
+    /**
+     * Resúmenes descartados por suscriptores con el buffer lleno (uno por suscriptor y resumen).
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,187 @@
+package proyecto;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Monte Carlo secuencial: agrega réplicas por tandas hasta que el intervalo de
+ * confianza de cada métrica elegida tenga a lo sumo el semiancho pedido.
+ *
+ * Después de una tanda inicial, la cantidad total de réplicas necesaria se
+ * estima para cada métrica como n * (semiancho actual / objetivo)^2, porque el
+ * semiancho decrece como 1/sqrt(n). La siguiente tanda cubre la mayor de esas
+ * estimaciones (con un margen, ya que la varianza también es una estimación)
+ * sin superar el máximo de réplicas. Las réplicas se ejecutan con
+ * {@link ReplicationRunner} y sus semillas de siempre: un resumen de n réplicas
+ * es idéntico al de {@code run(n, masterSeed)}.
+ */
+public class SequentialReplicationRunner {
+    /** Réplicas antes de la primera estimación de la varianza. */
+    public static final int DEFAULT_INITIAL_REPLICATIONS = 10;
+    public static final int DEFAULT_MAX_REPLICATIONS = 100_000;
+    /** Margen sobre la cantidad de réplicas estimada. */
+    private static final double GROWTH_MARGIN = 1.1;
+    
+    private final ReplicationRunner runner;
+    private final Map<String, Double> targets = new LinkedHashMap<>(); // métrica -> semiancho
+    private double confidence = 0.95;
+    private int initialReplications = DEFAULT_INITIAL_REPLICATIONS;
+    private int maxReplications = DEFAULT_MAX_REPLICATIONS;
+    private PrintStream progress; // null = sin reporte
+    
+    public SequentialReplicationRunner(ReplicationRunner runner) {
+        this.runner = runner;
+    }
+    
+    /**
+     * Pide que el intervalo de confianza de la métrica tenga a lo sumo el semiancho dado.
+     * @param metric nombre de una métrica de {@link SimulationMetrics}, por
+     *               ejemplo completion.mean o course.C.abandonmentRate
+     */
+    public void addTarget(String metric, double halfWidth) {
+        if (!(halfWidth > 0)) {
+            throw new IllegalArgumentException("El semiancho objetivo de " + metric + " debe ser positivo: "
+                + halfWidth);
+        }
+        targets.put(metric, halfWidth);
+    }
+    
+    /**
+     * Agrega los objetivos descriptos como métrica:semiancho, separados por
+     * coma (por ejemplo "completion.mean:0.01,course.C.abandonmentRate:0.002").
+     */
+    public void addTargets(String specification) {
+        for (String target : specification.split(",")) {
+            int colon = target.lastIndexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Se esperaba métrica:semiancho en " + target);
+            }
+            addTarget(target.substring(0, colon).trim(), Double.parseDouble(target.substring(colon + 1)));
+        }
+    }
+    
+    public void setConfidence(double confidence) {
+        if (!(confidence > 0 && confidence < 1)) {
+            throw new IllegalArgumentException("Nivel de confianza fuera de rango: " + confidence);
+        }
+        this.confidence = confidence;
+    }
+    
+    public double getConfidence() {
+        return confidence;
+    }
+    
+    public void setInitialReplications(int initialReplications) {
+        if (initialReplications < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 réplicas iniciales: " + initialReplications);
+        }
+        this.initialReplications = initialReplications;
+    }
+    
+    /**
+     * Límite de réplicas: al alcanzarlo se detiene aunque no se cumplan los objetivos.
+     */
+    public void setMaxReplications(int maxReplications) {
+        if (maxReplications < 2) {
+            throw new IllegalArgumentException("Se necesitan al menos 2 réplicas: " + maxReplications);
+        }
+        this.maxReplications = maxReplications;
+    }
+    
+    /**
+     * Imprime una línea por tanda con los semianchos actuales (null para no reportar).
+     */
+    public void setProgress(PrintStream progress) {
+        this.progress = progress;
+    }
+    
+    /**
+     * Ejecuta tandas de réplicas hasta cumplir todos los objetivos o alcanzar
+     * el máximo de réplicas.
+     * @throws IllegalArgumentException si algún objetivo no es una métrica de la simulación
+     */
+    public ReplicationSummary run(long masterSeed) {
+        if (targets.isEmpty()) {
+            throw new IllegalStateException("No hay objetivos de precisión");
+        }
+        ReplicationSummary summary = runner.createSummary();
+        int batch = Math.min(initialReplications, maxReplications);
+        while (batch > 0) {
+            runner.run(summary.getReplications(), batch, masterSeed, summary);
+            int done = summary.getReplications();
+            int required = estimateRequiredReplications(summary);
+            if (progress != null) {
+                reportProgress(summary, required);
+            }
+            if (targetsMet(summary)) {
+                break;
+            }
+            // Al menos una réplica por hilo, para no dejar hilos ociosos
+            batch = Math.min(Math.max(required - done, runner.getParallelism()), maxReplications - done);
+        }
+        return summary;
+    }
+    
+    /**
+     * Semiancho actual del intervalo de confianza de la métrica (NaN con menos
+     * de dos valores definidos). Con variables de control es el del
+     * estimador ajustado (ver {@link ReplicationRunner#setControlVariates}).
+     */
+    public double getHalfWidth(ReplicationSummary summary, String metric) {
+        return summary.getHalfWidth(metric, confidence);
+    }
+    
+    public boolean targetsMet(ReplicationSummary summary) {
+        for (Map.Entry<String, Double> target : targets.entrySet()) {
+            if (!(getHalfWidth(summary, target.getKey()) <= target.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Réplicas totales que, según las varianzas estimadas, cumplen todos los objetivos.
+     */
+    int estimateRequiredReplications(ReplicationSummary summary) {
+        int done = summary.getReplications();
+        double required = done;
+        for (Map.Entry<String, Double> target : targets.entrySet()) {
+            double halfWidth = getHalfWidth(summary, target.getKey());
+            if (Double.isNaN(halfWidth)) {
+                // Métrica casi nunca definida (por ejemplo, sin finalizaciones): duplicar
+                required = Math.max(required, 2.0 * done);
+            } else {
+                double ratio = halfWidth / target.getValue();
+                required = Math.max(required, done * ratio * ratio * GROWTH_MARGIN);
+            }
+        }
+        return (int) Math.min(Math.ceil(required), maxReplications);
+    }
+    
+    private void reportProgress(ReplicationSummary summary, int required) {
+        StringBuilder line = new StringBuilder(String.format("%7d réplicas:", summary.getReplications()));
+        for (Map.Entry<String, Double> target : targets.entrySet()) {
+            line.append(String.format("  %s ±%.4g (objetivo %.4g)", target.getKey(),
+                                      getHalfWidth(summary, target.getKey()), target.getValue()));
+        }
+        if (!targetsMet(summary)) {
+            line.append(String.format("  -> estimadas %d", required));
+        }
+        progress.println(line);
+    }
+    
+    /**
+     * Imprime el semiancho final de cada objetivo y si se cumplió.
+     */
+    public void printTargets(ReplicationSummary summary) {
+        System.out.printf("Objetivos de precisión (IC %.0f%%) con %d réplicas:\n",
+                          confidence * 100, summary.getReplications());
+        for (Map.Entry<String, Double> target : targets.entrySet()) {
+            double halfWidth = getHalfWidth(summary, target.getKey());
+            System.out.printf("   %-30s ±%-12.6g objetivo %-12.6g %s\n", target.getKey(), halfWidth,
+                              target.getValue(), halfWidth <= target.getValue() ? "cumplido" : "NO cumplido");
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package proyecto;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Punto de control de una corrida, escrito por el motor al cerrar un semestre
+ * (ver {@link SimulationEngine#setCheckpoint}).
+ *
+ * Guarda todo lo que determina el resto de la corrida: las columnas de la
+ * población, los contadores de las asignaturas y del motor y, en modo
+ * secuencial, el estado del generador aleatorio compartido. En modo paralelo
+ * no hay estado aleatorio que guardar, porque cada estudiante resiembra su
+ * flujo en cada semestre a partir de la semilla. Un motor restaurado con
+ * {@link #restore} y ejecutado en el mismo modo termina con los mismos
+ * resultados que la corrida sin interrupciones.
+ *
+ * Formato binario (little-endian):
+ *
+ *   cabecera     marca "CKPT", versión del formato, versión del motor, modo,
+ *                semilla, estudiantes, modo analítico, números aleatorios
+ *                comunes, corrida antitética, generador del modo secuencial
+ *                ({@link RandomSource}), último semestre cerrado,
+ *                registros del registro de inscripciones (-1 = sin registro) y
+ *                la clave de los parámetros ({@link ResultCache#key})
+ *   motor        estadística e histogramas de finalización y abandono,
+ *                inscripciones por asignatura y semestre
+ *   asignaturas  inscripciones, abandonos y tiempos de aprobación
+ *   población    cada columna tal como está en memoria
+ *   generador    el generador compartido serializado (solo modo secuencial)
+ *
+ * Los arreglos llevan su longitud adelante. Cada punto de control se escribe
+ * en un archivo temporal que reemplaza al anterior con un renombre, así que
+ * ante una interrupción queda siempre el último punto completo.
+ */
+public final class SimulationCheckpoint {
+    private static final int MAGIC = 0x434B5054; // "CKPT"
+    private static final int VERSION = 5;
+    private static final int BUFFER_BYTES = 1 << 20;
+    
+    private final Path file;
+    private final boolean parallel;
+    private final long seed;
+    private final int students;
+    private final boolean analytic;
+    private final boolean commonRandomNumbers;
+    private final boolean antithetic;
+    private final RandomSource randomSource;
+    private final int semester;
+    private final long eventRecords;
+    private final String parametersKey;
+    
+    private SimulationCheckpoint(Path file, boolean parallel, long seed, int students, boolean analytic,
+                                 boolean commonRandomNumbers, boolean antithetic, RandomSource randomSource,
+                                 int semester, long eventRecords, String parametersKey) {
+        this.file = file;
+        this.parallel = parallel;
+        this.seed = seed;
+        this.students = students;
+        this.analytic = analytic;
+        this.commonRandomNumbers = commonRandomNumbers;
+        this.antithetic = antithetic;
+        this.randomSource = randomSource;
+        this.semester = semester;
+        this.eventRecords = eventRecords;
+        this.parametersKey = parametersKey;
+    }
+    
+    /**
+     * Lee la cabecera de un punto de control.
+     * @throws IllegalArgumentException si el archivo no es un punto de control
+     *         o es de otra versión del motor
+     */
+    public static SimulationCheckpoint read(Path file) throws IOException {
+        try (Input in = new Input(FileChannel.open(file, StandardOpenOption.READ))) {
+            return readHeader(file, in);
+        }
+    }
+    
+    private static SimulationCheckpoint readHeader(Path file, Input in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IllegalArgumentException(file + " no es un punto de control");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException(file + ": versión no soportada " + version);
+        }
+        int engineVersion = in.readInt();
+        if (engineVersion != SimulationEngine.ENGINE_VERSION) {
+            throw new IllegalArgumentException(file + " es de la versión " + engineVersion + " del motor");
+        }
+        boolean parallel = in.readBoolean();
+        long seed = in.readLong();
+        int students = in.readInt();
+        boolean analytic = in.readBoolean();
+        boolean commonRandomNumbers = in.readBoolean();
+        boolean antithetic = in.readBoolean();
+        RandomSource randomSource = RandomSource.valueOf(new String(in.readBytes(), StandardCharsets.UTF_8));
+        int semester = in.readInt();
+        long eventRecords = in.readLong();
+        String parametersKey = new String(in.readBytes(), StandardCharsets.UTF_8);
+        return new SimulationCheckpoint(file, parallel, seed, students, analytic, commonRandomNumbers,
+                                        antithetic, randomSource, semester, eventRecords, parametersKey);
+    }
+    
+    /**
+     * Indica si el punto de control es de {@link SimulationEngine#runParallelSimulation(int)}.
+     */
+    public boolean isParallel() {
+        return parallel;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public int getStudents() {
+        return students;
+    }
+    
+    public boolean isAnalytic() {
+        return analytic;
+    }
+    
+    /**
+     * Generador del modo secuencial de la corrida (su estado se restaura del
+     * archivo; el modo paralelo no lo usa).
+     */
+    public RandomSource getRandomSource() {
+        return randomSource;
+    }
+    
+    /**
+     * Último semestre cerrado antes de escribir el punto de control.
+     */
+    public int getSemester() {
+        return semester;
+    }
+    
+    /**
+     * Registros que tenía el registro de inscripciones al escribir el punto
+     * de control, o -1 si la corrida no registraba inscripciones. Para seguir
+     * registrando, abrirlo con {@link EnrollmentEventLog#openForAppend}.
+     */
+    public long getEventRecords() {
+        return eventRecords;
+    }
+    
+    /**
+     * Crea un motor en el estado del punto de control. Para continuar la
+     * corrida, ejecutarlo en el mismo modo ({@link #isParallel()}); si la
+     * corrida registraba inscripciones, asignarle antes el registro abierto
+     * con {@link EnrollmentEventLog#openForAppend}.
+     * @param parameters los mismos parámetros de la corrida original
+     * @throws IllegalArgumentException si los parámetros no son los de la corrida
+     */
+    public SimulationEngine restore(SimulationParameters parameters) throws IOException {
+        String key = ResultCache.key(parameters, seed, students, analytic, getMode());
+        if (!key.equals(parametersKey)) {
+            throw new IllegalArgumentException("Los parámetros no coinciden con los del punto de control " + file);
+        }
+        
+        SimulationEngine engine = new SimulationEngine(seed, students, parameters);
+        engine.setAnalyticMode(analytic);
+        engine.setCommonRandomNumbers(commonRandomNumbers);
+        engine.setAntithetic(antithetic);
+        engine.setRandomSource(randomSource);
+        try (Input in = new Input(FileChannel.open(file, StandardOpenOption.READ))) {
+            readHeader(file, in);
+            engine.readState(in);
+            if (!parallel) {
+                engine.restoreRandom(readRandom(in.readBytes()));
+            }
+        }
+        engine.resumeAt(semester, parallel, eventRecords);
+        return engine;
+    }
+    
+    /**
+     * Modo de la corrida para {@link ResultCache#key}, con el generador si es
+     * secuencial: es la clave con la que Main busca el resultado en la caché.
+     */
+    String getMode() {
+        if (parallel) {
+            return ResultCache.mode(ResultCache.MODE_PARALLEL, commonRandomNumbers, antithetic);
+        }
+        return ResultCache.mode(ResultCache.mode(ResultCache.MODE_SEQUENTIAL, commonRandomNumbers, antithetic),
+                                randomSource);
+    }
+    
+    /**
+     * Escribe el estado del motor después de cerrar el semestre indicado.
+     */
+    static void write(Path file, SimulationEngine engine, int semester, boolean parallel,
+                      long eventRecords) throws IOException {
+        SimulationCheckpoint header = new SimulationCheckpoint(file, parallel, engine.getSeed(),
+                engine.getPopulation().size(), engine.isAnalyticMode(), engine.isCommonRandomNumbers(),
+                engine.isAntithetic(), engine.getRandomSource(), semester, eventRecords, null);
+        String key = ResultCache.key(engine.getParameters(), header.seed, header.students,
+                                     header.analytic, header.getMode());
+        
+        Path directory = file.toAbsolutePath().getParent();
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (Output out = new Output(FileChannel.open(temporary, StandardOpenOption.WRITE))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(SimulationEngine.ENGINE_VERSION);
+                out.writeBoolean(parallel);
+                out.writeLong(header.seed);
+                out.writeInt(header.students);
+                out.writeBoolean(header.analytic);
+                out.writeBoolean(header.commonRandomNumbers);
+                out.writeBoolean(header.antithetic);
+                out.writeBytes(header.randomSource.name().getBytes(StandardCharsets.UTF_8));
+                out.writeInt(semester);
+                out.writeLong(eventRecords);
+                out.writeBytes(key.getBytes(StandardCharsets.UTF_8));
+                engine.writeState(out);
+                if (!parallel) {
+                    out.writeBytes(writeRandom(engine.getRandom()));
+                }
+            }
+            try {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+    
+    /**
+     * Los generadores de commons-math (y SplitMix64Random) son serializables
+     * e incluyen todo su estado, también la gaussiana guardada por nextGaussian().
+     */
+    private static byte[] writeRandom(RandomGenerator random) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(random);
+        }
+        return bytes.toByteArray();
+    }
+    
+    private static RandomGenerator readRandom(byte[] bytes) throws IOException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            // Solo se aceptan generadores, no cualquier clase serializable
+            in.setObjectInputFilter(ObjectInputFilter.Config.createFilter(
+                    "org.apache.commons.math3.random.*;proyecto.*;!*"));
+            Object random = in.readObject();
+            if (!(random instanceof RandomGenerator)) {
+                throw new IllegalArgumentException("El punto de control no contiene un generador aleatorio");
+            }
+            return (RandomGenerator) random;
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Generador aleatorio desconocido en el punto de control", e);
+        }
+    }
+    
+    /**
+     * Escritura con buffer de valores y arreglos primitivos sobre un canal.
+     */
+    static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        
+        Output(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        void writeBoolean(boolean value) throws IOException {
+            reserve(1);
+            buffer.put((byte) (value ? 1 : 0));
+        }
+        
+        void writeInt(int value) throws IOException {
+            reserve(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        void writeLong(long value) throws IOException {
+            reserve(Long.BYTES);
+            buffer.putLong(value);
+        }
+        
+        void writeDouble(double value) throws IOException {
+            reserve(Double.BYTES);
+            buffer.putDouble(value);
+        }
+        
+        void writeBytes(byte[] values) throws IOException {
+            writeInt(values.length);
+            for (int i = 0; i < values.length; ) {
+                reserve(1);
+                int n = Math.min(values.length - i, buffer.remaining());
+                buffer.put(values, i, n);
+                i += n;
+            }
+        }
+        
+        void writeShorts(short[] values) throws IOException {
+            writeInt(values.length);
+            for (int i = 0; i < values.length; ) {
+                reserve(Short.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Short.BYTES);
+                buffer.asShortBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Short.BYTES);
+                i += n;
+            }
+        }
+        
+        void writeInts(int[] values) throws IOException {
+            writeInt(values.length);
+            for (int i = 0; i < values.length; ) {
+                reserve(Integer.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+            }
+        }
+        
+        void writeLongs(long[] values) throws IOException {
+            writeInt(values.length);
+            for (int i = 0; i < values.length; ) {
+                reserve(Long.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().put(values, i, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                i += n;
+            }
+        }
+        
+        private void reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                drain();
+            }
+        }
+        
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+        
+        /**
+         * Escribe lo pendiente y lo fuerza a disco antes de cerrar.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                drain();
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+    
+    /**
+     * Lectura con buffer de lo escrito por {@link Output}. Los arreglos se
+     * leen sobre arreglos ya reservados, que deben tener la misma longitud.
+     */
+    static final class Input implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        
+        Input(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+        
+        boolean readBoolean() throws IOException {
+            require(1);
+            return buffer.get() != 0;
+        }
+        
+        int readInt() throws IOException {
+            require(Integer.BYTES);
+            return buffer.getInt();
+        }
+        
+        long readLong() throws IOException {
+            require(Long.BYTES);
+            return buffer.getLong();
+        }
+        
+        double readDouble() throws IOException {
+            require(Double.BYTES);
+            return buffer.getDouble();
+        }
+        
+        byte[] readBytes() throws IOException {
+            int length = readInt();
+            if (length < 0 || length > channel.size()) {
+                throw new IllegalArgumentException("Punto de control dañado");
+            }
+            byte[] values = new byte[length];
+            readBytesInto(values);
+            return values;
+        }
+        
+        void readBytes(byte[] values) throws IOException {
+            readLength(values.length);
+            readBytesInto(values);
+        }
+        
+        private void readBytesInto(byte[] values) throws IOException {
+            for (int i = 0; i < values.length; ) {
+                require(1);
+                int n = Math.min(values.length - i, buffer.remaining());
+                buffer.get(values, i, n);
+                i += n;
+            }
+        }
+        
+        void readShorts(short[] values) throws IOException {
+            readLength(values.length);
+            for (int i = 0; i < values.length; ) {
+                require(Short.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Short.BYTES);
+                buffer.asShortBuffer().get(values, i, n);
+                buffer.position(buffer.position() + n * Short.BYTES);
+                i += n;
+            }
+        }
+        
+        void readInts(int[] values) throws IOException {
+            readLength(values.length);
+            for (int i = 0; i < values.length; ) {
+                require(Integer.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Integer.BYTES);
+                buffer.asIntBuffer().get(values, i, n);
+                buffer.position(buffer.position() + n * Integer.BYTES);
+                i += n;
+            }
+        }
+        
+        void readLongs(long[] values) throws IOException {
+            readLength(values.length);
+            for (int i = 0; i < values.length; ) {
+                require(Long.BYTES);
+                int n = Math.min(values.length - i, buffer.remaining() / Long.BYTES);
+                buffer.asLongBuffer().get(values, i, n);
+                buffer.position(buffer.position() + n * Long.BYTES);
+                i += n;
+            }
+        }
+        
+        private void readLength(int expected) throws IOException {
+            int length = readInt();
+            if (length != expected) {
+                throw new IllegalArgumentException("El punto de control tiene " + length
+                    + " valores donde se esperaban " + expected);
+            }
+        }
+        
+        private void require(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) {
+                return;
+            }
+            buffer.compact();
+            while (buffer.position() < bytes) {
+                if (channel.read(buffer) < 0) {
+                    throw new IllegalArgumentException("Punto de control truncado");
+                }
+            }
+            buffer.flip();
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -23,6 +23,11 @@ public class SimulationConfig {
      */
     public static final int MAX_ATTEMPTS_PER_COURSE = 5;
     
+    /**
+     * Máximo de asignaturas que un estudiante cursa por semestre.
+     */
+    public static final int MAX_COURSES_PER_SEMESTER = 2;
+    
     /**
      * Rango mínimo de semestres para contar estudiantes que completan todas las asignaturas (Punto 3).
      * Modificar este valor para cambiar el límite inferior del rango.
@@ -40,6 +45,11 @@ public class SimulationConfig {
      */
     public static final int MAX_STUDENTS = 120;
     
+    /**
+     * Límite de semestres simulados, para evitar bucles infinitos.
+     */
+    public static final int MAX_SEMESTERS = 30;
+    
     // ========================================
     // PARÁMETROS DE DISTRIBUCIONES (Punto 1)
     // ========================================
@@ -1,221 +1,966 @@
 package proyecto;
 
-import org.apache.commons.math3.distribution.NormalDistribution;
-import org.apache.commons.math3.distribution.PoissonDistribution;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.Well19937c;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
 
 /**
  * Motor de simulación del sistema académico.
  * 
  * VALORES MODIFICABLES: Ver clase SimulationConfig.java
  * Todos los parámetros modificables están centralizados en SimulationConfig.
+ * Para variarlos sin recompilar, crear el motor con un
+ * {@link SimulationParameters}.
  */
 public class SimulationEngine {
     
+    
+    /**
+     * Estudiantes por fragmento en el modo paralelo. Es fijo (no depende de la
+     * cantidad de hilos) para que el resultado sea idéntico con cualquier cantidad de hilos.
+     */
+    static final int SHARD_SIZE = 16_384;
+    
+    /**
+     * Versión del motor. Incrementarla con cualquier cambio que altere los
+     * resultados para la misma semilla y los mismos parámetros, para que
+     * {@link ResultCache} no devuelva resultados de una versión anterior.
+     */
+    public static final int ENGINE_VERSION = 3;
+    
+    /** Registros que el fragmento secuencial acumula antes de volcarlos al registro de inscripciones. */
+    private static final int EVENT_BUFFER_RECORDS = 65_536;
+    
     private RandomGenerator random;
-    private List<Student> students;
+    private RandomSource randomSource = RandomSource.WELL19937C;
+    private StudentPopulation population;
     private Map<String, Course> courses;
-    private Map<String, List<Integer>> enrollmentHistory; // historial de inscripciones por semestre
+    private SimulationParameters parameters;
+    private Curriculum curriculum;
+    private Course[] courseList; // asignaturas por índice, en el orden del plan de estudios
+    private long[] prerequisiteMask; // bits de los prerrequisitos de cada asignatura
+    private long[] eligibilityMask; // bits de prerrequisitos más el bit de la propia asignatura
+    private int[] priorityOrder; // índices de asignaturas en orden de prioridad de inscripción
+    private int[][] enrollmentsBySemester; // [asignatura][semestre] cantidad de inscripciones
+    private EnrollmentEventLog eventLog; // registro de cada inscripción, opcional
+    
+    // Puntos de control (ver SimulationCheckpoint)
+    private Path checkpointFile; // null = sin puntos de control
+    private int checkpointInterval;
+    private int resumeSemester; // último semestre cerrado al restaurar, 0 = corrida nueva
+    private boolean resumeParallel;
+    private long resumeEventRecords;
+    
+    // Estadísticas que el motor actualiza a medida que ocurren los eventos
+    private final StreamingStatistics completionStatistics = new StreamingStatistics();
+    private IntHistogram completionHistogram;
+    private IntHistogram abandonmentHistogram;
+    
+    private long seed;
+    private final int studentCount;
+    
+    // Copias de los parámetros que consulta cada inscripción
+    private double passingScore;
+    private int maxAttemptsPerCourse;
+    
+    // Modo analítico: probabilidad de aprobar un intento, por asignatura
+    private boolean analyticMode;
+    private double[] passProbability;
+    private double[] logFailProbability;
+    
+    // Reducción de varianza (ver setCommonRandomNumbers y setAntithetic)
+    private boolean commonRandomNumbers;
+    private boolean antithetic;
+    
+    private SimulationTelemetry telemetry = SimulationTelemetry.getInstance(); // null = sin telemetría
+    private SemesterSnapshotPublisher snapshotPublisher; // null = sin resúmenes por semestre
+    private BooleanSupplier cancellation; // null = la corrida no se puede cancelar
+    private List<String> courseNames; // compartida por los resúmenes, se crea al publicar el primero
     
     public SimulationEngine() {
-        this.random = new Well19937c(System.currentTimeMillis());
-        this.students = new ArrayList<>();
-        this.courses = new HashMap<>();
-        this.enrollmentHistory = new HashMap<>();
+        this(System.currentTimeMillis());
+    }
+    
+    /**
+     * Crea una simulación reproducible: la misma semilla da los mismos resultados.
+     */
+    public SimulationEngine(long seed) {
+        this(seed, SimulationConfig.MAX_STUDENTS);
+    }
+    
+    public SimulationEngine(long seed, int studentCount) {
+        this(seed, studentCount, Curriculum.defaultCurriculum());
+    }
+    
+    public SimulationEngine(long seed, int studentCount, Curriculum curriculum) {
+        this(seed, studentCount, SimulationParameters.defaults().withCurriculum(curriculum));
+    }
+    
+    public SimulationEngine(long seed, int studentCount, SimulationParameters parameters) {
+        this.seed = seed;
+        this.random = new Well19937c(seed);
+        this.studentCount = studentCount;
         
+        applyParameters(parameters);
         initializeCourses();
         initializeStudents();
     }
     
+    private void applyParameters(SimulationParameters parameters) {
+        this.parameters = parameters;
+        this.curriculum = parameters.getCurriculum();
+        this.passingScore = parameters.getPassingScore();
+        this.maxAttemptsPerCourse = parameters.getMaxAttemptsPerCourse();
+    }
+    
     /**
-     * Inicializa las asignaturas con sus prerrequisitos.
+     * Prepara el motor para una nueva corrida con otra semilla y otros
+     * parámetros, reutilizando lo que los parámetros permiten: la población
+     * (si el plan tiene las mismas asignaturas) y las asignaturas con sus
+     * generadores de notas (si además sus distribuciones y el límite de
+     * semestres no cambian). El resultado es idéntico al de un motor nuevo
+     * creado con la misma semilla y los mismos parámetros.
+     */
+    public void reset(long seed, SimulationParameters parameters) {
+        boolean sameCourses = parameters.getCurriculum().getCourses().equals(curriculum.getCourses())
+                && parameters.getMaxSemesters() == this.parameters.getMaxSemesters();
+        
+        this.seed = seed;
+        random.setSeed(seed);
+        applyParameters(parameters);
+        resumeSemester = 0;
+        
+        if (sameCourses) {
+            for (Course course : courseList) {
+                course.resetCounters();
+            }
+            for (int[] counts : enrollmentsBySemester) {
+                Arrays.fill(counts, 0);
+            }
+            completionStatistics.clear();
+            completionHistogram.clear();
+            abandonmentHistogram.clear();
+        } else {
+            initializeCourses();
+        }
+        
+        if (population.hasCourses(curriculum.getCourseNames())) {
+            population.clear();
+        } else {
+            initializeStudents();
+        }
+        if (analyticMode) {
+            setAnalyticMode(true);
+        }
+    }
+    
+    /**
+     * Inicializa las asignaturas del plan de estudios con sus prerrequisitos.
      * 
-     * PARÁMETROS MODIFICABLES: Ver SimulationConfig.java
-     * Los valores de media, varianza y lambda se obtienen de la clase SimulationConfig.
+     * PARÁMETROS MODIFICABLES: Ver SimulationConfig.java (plan por defecto)
+     * o cargar otro plan con Curriculum.load().
      */
     private void initializeCourses() {
-        // ========== PRIMER BLOQUE: A -> B -> C ==========
-        // PARÁMETROS MODIFICABLES: Ver SimulationConfig.java
-        
-        // Asignatura A (sin prerrequisito) - Distribución Normal
-        Course A = new Course("A", null, Course.DistributionType.NORMAL, 
-                             SimulationConfig.COURSE_A_MEAN, 
-                             SimulationConfig.COURSE_A_VARIANCE, 
-                             SimulationConfig.COURSE_A_LAMBDA);
-        
-        // Asignatura B (requiere A aprobada) - Distribución Normal
-        Course B = new Course("B", A, Course.DistributionType.NORMAL, 
-                             SimulationConfig.COURSE_B_MEAN, 
-                             SimulationConfig.COURSE_B_VARIANCE, 
-                             SimulationConfig.COURSE_B_LAMBDA);
-        
-        // Asignatura C (requiere B aprobada) - Distribución Poisson
-        Course C = new Course("C", B, Course.DistributionType.POISSON, 
-                             SimulationConfig.COURSE_C_MEAN, 
-                             SimulationConfig.COURSE_C_VARIANCE, 
-                             SimulationConfig.COURSE_C_LAMBDA);
-        
-        // ========== SEGUNDO BLOQUE: D -> E -> F ==========
-        
-        // Asignatura D (sin prerrequisito) - Distribución Normal
-        Course D = new Course("D", null, Course.DistributionType.NORMAL, 
-                             SimulationConfig.COURSE_D_MEAN, 
-                             SimulationConfig.COURSE_D_VARIANCE, 
-                             SimulationConfig.COURSE_D_LAMBDA);
-        
-        // Asignatura E (requiere D aprobada) - Distribución Normal
-        Course E = new Course("E", D, Course.DistributionType.NORMAL, 
-                             SimulationConfig.COURSE_E_MEAN, 
-                             SimulationConfig.COURSE_E_VARIANCE, 
-                             SimulationConfig.COURSE_E_LAMBDA);
-        
-        // Asignatura F (requiere E aprobada) - Distribución Poisson
-        Course F = new Course("F", E, Course.DistributionType.POISSON, 
-                             SimulationConfig.COURSE_F_MEAN, 
-                             SimulationConfig.COURSE_F_VARIANCE, 
-                             SimulationConfig.COURSE_F_LAMBDA);
-        
-        courses.put("A", A);
-        courses.put("B", B);
-        courses.put("C", C);
-        courses.put("D", D);
-        courses.put("E", E);
-        courses.put("F", F);
-        
-        // Inicializar historial de inscripciones
-        for (String courseName : courses.keySet()) {
-            enrollmentHistory.put(courseName, new ArrayList<>());
+        courses = new LinkedHashMap<>();
+        completionStatistics.clear();
+        completionHistogram = new IntHistogram(parameters.getMaxSemesters());
+        abandonmentHistogram = new IntHistogram(parameters.getMaxSemesters());
+        
+        // Se crean en orden de prioridad: los prerrequisitos de cada asignatura
+        // ya existen, aunque se hayan declarado después en el plan
+        courseList = new Course[curriculum.size()];
+        courseNames = null;
+        for (int c : curriculum.getPriorityOrder()) {
+            CourseDefinition definition = curriculum.getCourse(c);
+            List<Course> prerequisites = new ArrayList<>();
+            for (String prerequisite : definition.getPrerequisites()) {
+                prerequisites.add(courseList[curriculum.indexOf(prerequisite)]);
+            }
+            courseList[c] = new Course(definition.getName(), prerequisites,
+                                       definition.getDistributionType(),
+                                       definition.getMean(),
+                                       definition.getVariance(),
+                                       definition.getLambda(),
+                                       definition.getGrades(),
+                                       parameters.getMaxSemesters());
+        }
+        
+        for (Course course : courseList) {
+            courses.put(course.getName(), course);
+            
+            // Cada asignatura construye su generador de notas una sola vez
+            course.attachSampler(random);
+        }
+        enrollmentsBySemester = new int[courseList.length][parameters.getMaxSemesters() + 1];
+        
+        // Elegible si (aprobadas & eligibilityMask) == prerequisiteMask:
+        // prerrequisitos aprobados y la asignatura todavía no
+        prerequisiteMask = new long[courseList.length];
+        eligibilityMask = new long[courseList.length];
+        for (int c = 0; c < courseList.length; c++) {
+            prerequisiteMask[c] = curriculum.getPrerequisiteMask(c);
+            eligibilityMask[c] = prerequisiteMask[c] | (1L << c);
         }
+        priorityOrder = curriculum.getPriorityOrder();
     }
     
     private void initializeStudents() {
-        for (int i = 1; i <= SimulationConfig.MAX_STUDENTS; i++) {
-            students.add(new Student(i));
+        population = new StudentPopulation(studentCount, curriculum.getCourseNames());
+    }
+    
+    /**
+     * Activa o desactiva el modo analítico (debe llamarse antes de ejecutar).
+     * 
+     * Como la probabilidad de aprobar un intento es fija para cada asignatura
+     * (P(nota >= nota de aprobación), exacta a partir de su distribución), en lugar
+     * de generar una nota por intento se sortea una sola vez, en la primera
+     * inscripción, el intento en el que el estudiante aprobará: una variable
+     * geométrica truncada en el máximo de intentos. Los resultados tienen la
+     * misma distribución que generando las notas una por una, con un solo
+     * número aleatorio por estudiante y asignatura.
+     */
+    public void setAnalyticMode(boolean analyticMode) {
+        this.analyticMode = analyticMode;
+        if (analyticMode) {
+            population.enableAttemptsToPass();
+            passProbability = new double[courseList.length];
+            logFailProbability = new double[courseList.length];
+            for (int c = 0; c < courseList.length; c++) {
+                passProbability[c] = courseList[c].getPassProbability(passingScore);
+                logFailProbability[c] = Math.log1p(-passProbability[c]);
+            }
         }
     }
     
+    public boolean isAnalyticMode() {
+        return analyticMode;
+    }
+    
     /**
-     * Ejecuta la simulación completa.
+     * Números aleatorios comunes: cada sorteo (la nota de un intento, o en
+     * modo analítico el intento de aprobación) usa un uniforme propio,
+     * derivado de la semilla, del estudiante, de la asignatura y del intento,
+     * y se transforma con la inversa de la distribución
+     * ({@link ScoreSampler#quantile}). Dos configuraciones simuladas con la
+     * misma semilla usan entonces los mismos uniformes para los mismos
+     * intentos, y la diferencia entre sus resultados tiene mucha menos
+     * varianza que con corridas independientes. Los modos secuencial y
+     * paralelo dan entonces las mismas inscripciones y aprobaciones. Debe
+     * llamarse antes de ejecutar.
+     */
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        this.commonRandomNumbers = commonRandomNumbers;
+    }
+    
+    public boolean isCommonRandomNumbers() {
+        return commonRandomNumbers;
+    }
+    
+    /**
+     * Corrida antitética: cada uniforme u se reemplaza por 1 - u y las notas
+     * se generan por transformación inversa. Promediando una corrida normal y
+     * su antitética con la misma semilla se obtiene un estimador con menos
+     * varianza que el de dos corridas independientes. Con números aleatorios
+     * comunes los dos miembros del par quedan alineados intento por intento;
+     * sin ellos, los flujos se desfasan en cuanto los resultados difieren.
+     * Debe llamarse antes de ejecutar.
+     */
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+    }
+    
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+    
+    /**
+     * Generador del modo secuencial (por defecto {@link RandomSource#WELL19937C}).
+     * El modo paralelo y los números aleatorios comunes no lo usan: resiembran
+     * un SplitMix64 por estudiante, que es lo que los hace independientes de
+     * la cantidad de hilos. Debe llamarse antes de ejecutar; {@link #reset}
+     * conserva el generador elegido.
+     */
+    public void setRandomSource(RandomSource source) {
+        this.randomSource = source;
+        restoreRandom(source.create(seed));
+    }
+    
+    RandomSource getRandomSource() {
+        return randomSource;
+    }
+    
+    /**
+     * Registra cada inscripción (estudiante, asignatura, semestre, intento,
+     * nota y resultado) en el registro dado; null para no registrar. Debe
+     * llamarse antes de ejecutar. En modo paralelo cada fragmento acumula sus
+     * registros y se agregan en orden de fragmento al cerrar el semestre, así
+     * que el registro es el mismo con cualquier cantidad de hilos. El motor no
+     * cierra el registro.
+     */
+    public void setEventLog(EnrollmentEventLog eventLog) {
+        this.eventLog = eventLog;
+    }
+    
+    /**
+     * Escribe un punto de control en el archivo cada everySemesters semestres
+     * (reemplazando el anterior), para poder continuar la corrida con
+     * {@link SimulationCheckpoint#restore} si el proceso se interrumpe; null
+     * para no escribirlos.
+     */
+    public void setCheckpoint(Path file, int everySemesters) {
+        if (file != null && everySemesters < 1) {
+            throw new IllegalArgumentException("Intervalo de puntos de control inválido: " + everySemesters);
+        }
+        this.checkpointFile = file;
+        this.checkpointInterval = everySemesters;
+    }
+    
+    /**
+     * Contadores donde publicar el avance de la corrida al cerrar cada
+     * semestre (por defecto {@link SimulationTelemetry#getInstance()}; null
+     * para no publicar).
+     */
+    public void setTelemetry(SimulationTelemetry telemetry) {
+        this.telemetry = telemetry;
+    }
+    
+    /**
+     * Publica un {@link SemesterSnapshot} al cerrar cada semestre, sin esperar
+     * a los suscriptores (null para no publicar). El motor no cierra el publicador.
+     */
+    public void setSnapshotPublisher(SemesterSnapshotPublisher snapshotPublisher) {
+        this.snapshotPublisher = snapshotPublisher;
+    }
+    
+    /**
+     * Condición que el motor consulta al cerrar cada semestre y cada
+     * {@link #SHARD_SIZE} estudiantes: si se cumple, la corrida se detiene con
+     * CancellationException y el motor queda a
+     * medio simular (null para no consultarla). Se puede cumplir desde
+     * cualquier hilo; {@link #reset} la conserva.
+     */
+    public void setCancellation(BooleanSupplier cancellation) {
+        this.cancellation = cancellation;
+    }
+    
+    /**
+     * Ejecuta la simulación completa en un solo hilo, con el generador
+     * aleatorio compartido del motor.
      */
     public void runSimulation() {
+        runSemesters(new SemesterShard[]{createSequentialShard()}, null);
+    }
+    
+    /**
+     * Fragmento único con todos los estudiantes y el generador compartido del motor.
+     */
+    SemesterShard createSequentialShard() {
+        // Con números aleatorios comunes cada sorteo resiembra el generador: SplitMix64 lo hace sin costo
+        RandomGenerator shardRandom = commonRandomNumbers ? new SplitMix64Random(seed) : random;
+        ScoreSampler[] samplers = new ScoreSampler[courseList.length];
+        for (int c = 0; c < courseList.length; c++) {
+            samplers[c] = commonRandomNumbers
+                    ? ScoreSampler.forCourse(courseList[c], shardRandom)
+                    : courseList[c].getSampler();
+        }
+        SemesterShard shard = new SemesterShard(0, population.size(), shardRandom, samplers,
+                                                parameters.getMaxCoursesPerSemester(),
+                                                parameters.getMaxSemesters());
+        if (eventLog != null) {
+            // Un solo fragmento: sus registros ya están en orden y se vuelcan al llenarse el buffer
+            shard.enableEvents(EVENT_BUFFER_RECORDS, eventLog);
+        }
+        return shard;
+    }
+    
+    /**
+     * Ejecuta la simulación completa repartiendo los estudiantes en fragmentos
+     * de {@link #SHARD_SIZE} que se procesan en paralelo.
+     * 
+     * Cada estudiante usa su propio flujo aleatorio en cada semestre, derivado
+     * de la semilla, del estudiante y del semestre, y los contadores de los
+     * fragmentos se suman en orden al cerrar cada semestre. Por eso el
+     * resultado es idéntico con cualquier cantidad de hilos (aunque distinto
+     * del de {@link #runSimulation()} con la misma semilla).
+     */
+    public void runParallelSimulation(int threads) {
+        int shardCount = (population.size() + SHARD_SIZE - 1) / SHARD_SIZE;
+        SemesterShard[] shards = new SemesterShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            SplitMix64Random shardRandom = new SplitMix64Random(seed);
+            ScoreSampler[] samplers = new ScoreSampler[courseList.length];
+            for (int c = 0; c < courseList.length; c++) {
+                samplers[c] = ScoreSampler.forCourse(courseList[c], shardRandom);
+            }
+            int from = i * SHARD_SIZE;
+            int to = Math.min(from + SHARD_SIZE, population.size());
+            shards[i] = new SemesterShard(from, to, shardRandom, samplers,
+                                          parameters.getMaxCoursesPerSemester(),
+                                          parameters.getMaxSemesters());
+            if (eventLog != null) {
+                shards[i].enableEvents(to - from, null);
+            }
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            runSemesters(shards, pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Avanza semestre a semestre hasta que no queden estudiantes activos.
+     * @param pool null para procesar el único fragmento en el hilo actual
+     */
+    private void runSemesters(SemesterShard[] shards, ForkJoinPool pool) {
+        boolean parallel = pool != null;
         int semester = 0;
-        int maxSemesters = 30; // Límite de semestres para evitar bucles infinitos
+        if (resumeSemester > 0) {
+            // Continuar una corrida restaurada desde un punto de control
+            if (parallel != resumeParallel) {
+                throw new IllegalStateException("El punto de control es de una corrida "
+                    + (resumeParallel ? "paralela" : "secuencial"));
+            }
+            if (eventLog != null && eventLog.size() != resumeEventRecords) {
+                throw new IllegalStateException("El registro de inscripciones tiene " + eventLog.size()
+                    + " registros y el punto de control " + resumeEventRecords);
+            }
+            semester = resumeSemester;
+            resumeSemester = 0;
+        }
         
-        while (semester < maxSemesters) {
-            semester++;
-            int activeStudents = 0;
-            
-            // Procesar cada estudiante
-            for (Student student : students) {
-                if (student.hasAbandoned() || student.hasCompletedAllCourses()) {
-                    continue;
-                }
+        SimulationTelemetry telemetry = this.telemetry;
+        if (telemetry != null) {
+            telemetry.runStarted();
+        }
+        SimulationEvents.RunEvent event = SimulationEvents.beginRun();
+        try {
+            while (semester < parameters.getMaxSemesters()) {
+                semester++;
                 
-                activeStudents++;
-                student.incrementSemester();
+                int activeStudents = runSemester(shards, pool, semester);
                 
-                // Seleccionar asignaturas disponibles para inscribir
-                List<Course> availableCourses = getAvailableCourses(student);
+                // Si no hay estudiantes activos, terminar
+                if (activeStudents == 0) {
+                    break;
+                }
                 
-                // Máximo 2 asignaturas por semestre
-                int coursesToEnroll = Math.min(2, availableCourses.size());
+                checkCancelled(semester);
                 
-                for (int i = 0; i < coursesToEnroll && i < availableCourses.size(); i++) {
-                    Course course = availableCourses.get(i);
-                    enrollStudentInCourse(student, course, semester);
+                if (checkpointFile != null && semester % checkpointInterval == 0) {
+                    writeCheckpoint(semester, parallel);
                 }
             }
-            
-            // Si no hay estudiantes activos, terminar
-            if (activeStudents == 0) {
-                break;
+        } finally {
+            if (telemetry != null) {
+                telemetry.runCompleted();
+            }
+            SimulationEvents.commitRun(event, seed, population.size(), analyticMode, parallel, semester);
+        }
+    }
+    
+    /**
+     * @throws CancellationException si se cumple la condición de {@link #setCancellation}
+     */
+    private void checkCancelled(int semester) {
+        if (cancellation != null && cancellation.getAsBoolean()) {
+            throw new CancellationException("Simulación cancelada en el semestre " + semester);
+        }
+    }
+    
+    private void writeCheckpoint(int semester, boolean parallel) {
+        try {
+            long eventRecords = -1;
+            if (eventLog != null) {
+                // El registro debe tener en disco al menos lo que el punto de control supone
+                eventLog.flush();
+                eventRecords = eventLog.size();
+            }
+            SimulationCheckpoint.write(checkpointFile, this, semester, parallel, eventRecords);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el punto de control " + checkpointFile, e);
+        }
+    }
+    
+    /**
+     * Contadores del motor, de las asignaturas y de la población, para un punto de control.
+     */
+    void writeState(SimulationCheckpoint.Output out) throws IOException {
+        completionStatistics.writeTo(out);
+        completionHistogram.writeTo(out);
+        abandonmentHistogram.writeTo(out);
+        for (int[] counts : enrollmentsBySemester) {
+            out.writeInts(counts);
+        }
+        for (Course course : courseList) {
+            course.writeCounters(out);
+        }
+        population.writeTo(out);
+    }
+    
+    void readState(SimulationCheckpoint.Input in) throws IOException {
+        completionStatistics.readFrom(in);
+        completionHistogram.readFrom(in);
+        abandonmentHistogram.readFrom(in);
+        for (int[] counts : enrollmentsBySemester) {
+            in.readInts(counts);
+        }
+        for (Course course : courseList) {
+            course.readCounters(in);
+        }
+        population.readFrom(in);
+    }
+    
+    long getSeed() {
+        return seed;
+    }
+    
+    RandomGenerator getRandom() {
+        return random;
+    }
+    
+    /**
+     * Reemplaza el generador compartido por uno restaurado y vuelve a crear
+     * los generadores de notas sobre él.
+     */
+    void restoreRandom(RandomGenerator random) {
+        this.random = random;
+        for (Course course : courseList) {
+            course.attachSampler(random);
+        }
+    }
+    
+    /**
+     * La próxima ejecución continúa después del semestre indicado.
+     */
+    void resumeAt(int semester, boolean parallel, long eventRecords) {
+        this.resumeSemester = semester;
+        this.resumeParallel = parallel;
+        this.resumeEventRecords = eventRecords;
+    }
+    
+    /**
+     * Procesa un semestre en todos los fragmentos y suma sus contadores.
+     * @return cantidad de estudiantes activos en el semestre
+     */
+    int runSemester(SemesterShard[] shards, ForkJoinPool pool, int semester) {
+        SimulationEvents.SemesterEvent event = SimulationEvents.beginSemester();
+        long start = System.nanoTime();
+        if (pool == null) {
+            processShard(shards[0], semester, false);
+        } else {
+            try {
+                pool.submit(() -> Arrays.stream(shards).parallel()
+                        .forEach(shard -> processShard(shard, semester, true)))
+                    .get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulación interrumpida", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CancellationException) {
+                    checkCancelled(semester); // ForkJoinTask.get() entrega una copia sin el mensaje
+                    throw (CancellationException) e.getCause();
+                }
+                throw new IllegalStateException("Falló el semestre " + semester, e.getCause());
+            }
+        }
+        
+        long stepEnd = System.nanoTime();
+        int activeStudents = mergeShards(shards, semester);
+        if (telemetry != null) {
+            publishTelemetry(shards, semester, activeStudents, stepEnd - start, System.nanoTime() - stepEnd);
+        }
+        SimulationEvents.commitSemester(event, semester, activeStudents, shards);
+        if (snapshotPublisher != null) {
+            snapshotPublisher.publish(createSnapshot(shards, semester, activeStudents));
+        }
+        return activeStudents;
+    }
+    
+    /**
+     * Resumen del semestre recién sumado, con los contadores de los fragmentos.
+     */
+    private SemesterSnapshot createSnapshot(SemesterShard[] shards, int semester, int activeStudents) {
+        if (courseNames == null) {
+            List<String> names = new ArrayList<>();
+            for (Course course : courseList) {
+                names.add(course.getName());
             }
+            courseNames = Collections.unmodifiableList(names);
         }
+        int[] enrollments = new int[courseList.length];
+        int[] passes = new int[courseList.length];
+        int abandonments = 0;
+        for (SemesterShard shard : shards) {
+            abandonments += shard.abandonedStudents;
+            for (int c = 0; c < courseList.length; c++) {
+                enrollments[c] += shard.enrollments[c];
+                for (int count : shard.passingTimeCounts[c]) {
+                    passes[c] += count;
+                }
+            }
+        }
+        return new SemesterSnapshot(semester, activeStudents, courseNames, enrollments, passes, abandonments,
+                                    completionStatistics.getCount(), abandonmentHistogram.getTotal());
     }
     
     /**
-     * Obtiene las asignaturas disponibles para un estudiante.
+     * Publica en la telemetría los totales del semestre. El tiempo de los
+     * sorteos se reparte del tiempo de pared del paso según la fracción del
+     * tiempo de los fragmentos que ocuparon, que vale también con varios hilos.
      */
-    private List<Course> getAvailableCourses(Student student) {
-        List<Course> available = new ArrayList<>();
+    private void publishTelemetry(SemesterShard[] shards, int semester, int activeStudents,
+                                  long stepNanos, long statisticsNanos) {
+        long enrollments = 0;
+        long abandonments = 0;
+        long completions = 0;
+        long busyNanos = 0;
+        long samplingNanos = 0;
+        long[] samplesByType = new long[Course.DistributionType.values().length];
+        for (SemesterShard shard : shards) {
+            abandonments += shard.abandonedStudents;
+            completions += shard.completions;
+            busyNanos += shard.busyNanos;
+            samplingNanos += shard.samplingNanos;
+            for (int c = 0; c < courseList.length; c++) {
+                enrollments += shard.enrollments[c];
+                samplesByType[courseList[c].getDistributionType().ordinal()] += shard.samples[c];
+            }
+        }
+        double samplingShare = busyNanos > 0 ? Math.min(1.0, samplingNanos / (double) busyNanos) : 0.0;
+        telemetry.semesterClosed(semester, activeStudents, enrollments, abandonments, completions,
+                                 samplesByType, stepNanos, samplingShare, statisticsNanos);
+    }
+    
+    /**
+     * Procesa un semestre de todos los estudiantes del fragmento.
+     * @param perStudentStream resembrar el generador del fragmento para cada estudiante
+     */
+    private void processShard(SemesterShard shard, int semester, boolean perStudentStream) {
+        long start = System.nanoTime();
+        shard.reset();
+        int[] availableCourses = shard.availableCourses;
         
-        // Orden de prioridad: primero A y D (sin prerrequisitos), luego B y E, luego C y F
-        String[] priorityOrder = {"A", "D", "B", "E", "C", "F"};
+        for (int student = shard.from; student < shard.to; student++) {
+            if ((student & (SHARD_SIZE - 1)) == 0) {
+                checkCancelled(semester); // también dentro de semestres largos
+            }
+            if (population.hasAbandoned(student) || population.hasCompletedAllCourses(student)) {
+                continue;
+            }
+            
+            shard.activeStudents++;
+            population.incrementSemester(student);
+            
+            if (perStudentStream) {
+                shard.random.setSeed(Seeds.derive(Seeds.derive(seed, student), semester));
+            }
+            
+            // Seleccionar asignaturas disponibles para inscribir (máximo 2 por semestre)
+            int coursesToEnroll = getAvailableCourses(shard, student, availableCourses);
+            
+            for (int i = 0; i < coursesToEnroll; i++) {
+                enrollStudentInCourse(shard, student, availableCourses[i], semester);
+            }
+        }
+        shard.busyNanos = System.nanoTime() - start;
+    }
+    
+    /**
+     * Suma los contadores de los fragmentos a las asignaturas, en orden de fragmento.
+     * @return cantidad de estudiantes activos en el semestre
+     */
+    private int mergeShards(SemesterShard[] shards, int semester) {
+        int activeStudents = 0;
+        for (SemesterShard shard : shards) {
+            activeStudents += shard.activeStudents;
+            completionStatistics.add(semester, shard.completions);
+            completionHistogram.add(semester, shard.completions);
+            abandonmentHistogram.add(semester, shard.abandonedStudents);
+            for (int c = 0; c < courseList.length; c++) {
+                Course course = courseList[c];
+                course.addEnrollments(shard.enrollments[c]);
+                course.addAbandonments(shard.abandonments[c]);
+                int[] passingTimes = shard.passingTimeCounts[c];
+                for (int time = 1; time < passingTimes.length; time++) {
+                    course.addPassingTimes(time, passingTimes[time]);
+                }
+                course.getScoreSketch().merge(shard.scoreSketches[c]);
+                enrollmentsBySemester[c][semester] += shard.enrollments[c];
+            }
+            if (eventLog != null) {
+                eventLog.append(shard.events);
+            }
+        }
+        return activeStudents;
+    }
+    
+    /**
+     * Obtiene las asignaturas disponibles para un estudiante, en orden de prioridad.
+     * @param available destino de los índices de asignaturas disponibles
+     * @return cantidad de asignaturas disponibles (a lo sumo available.length)
+     */
+    int getAvailableCourses(SemesterShard shard, int student, int[] available) {
+        int count = 0;
         
-        for (String courseName : priorityOrder) {
-            Course course = courses.get(courseName);
-            if (student.canEnroll(courseName, course)) {
-                available.add(course);
-                if (available.size() >= 2) {
+        for (int course : priorityOrder) {
+            if (canEnroll(shard, student, course)) {
+                available[count++] = course;
+                if (count >= available.length) {
                     break; // Máximo 2 por semestre
                 }
             }
         }
         
-        return available;
+        return count;
     }
     
     /**
-     * Inscribe un estudiante en una asignatura y genera su nota.
+     * Misma regla que {@link Student#canEnroll}, sobre los índices de la población.
      */
-    private void enrollStudentInCourse(Student student, Course course, int semester) {
-        String courseName = course.getName();
+    private boolean canEnroll(SemesterShard shard, int student, int course) {
+        if (population.hasAbandoned(student)) {
+            return false;
+        }
         
+        // Prerrequisitos aprobados y la asignatura todavía no: un AND y una comparación
+        if ((population.getPassedMask(student) & eligibilityMask[course]) != prerequisiteMask[course]) {
+            return false;
+        }
+        
+        if (population.getAttempts(student, course) >= maxAttemptsPerCourse) {
+            if (population.abandon(student, course)) {
+                shard.abandonedStudents++;
+            }
+            return false; // Máximo de intentos alcanzado
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Inscribe un estudiante en una asignatura y genera su nota.
+     */
+    void enrollStudentInCourse(SemesterShard shard, int student, int courseIndex, int semester) {
         // Registrar primera inscripción
-        student.setFirstEnrollmentSemester(courseName, semester);
+        population.setFirstEnrollmentSemester(student, courseIndex, semester);
         
         // Incrementar intentos
-        student.incrementAttempt(courseName);
-        course.incrementEnrollments();
-        enrollmentHistory.get(courseName).add(semester);
+        int attempts = population.incrementAttempt(student, courseIndex);
+        shard.enrollments[courseIndex]++;
         
-        // Generar nota según la distribución
-        double score = generateScore(course);
+        // Generar nota según la distribución (o usar el intento sorteado en modo analítico)
+        boolean passed;
+        double score = Double.NaN;
+        if (analyticMode) {
+            passed = passesAnalytically(shard, student, courseIndex, attempts);
+        } else {
+            score = drawScore(shard, student, courseIndex, attempts);
+            shard.scoreSketches[courseIndex].add(score);
+            passed = score >= passingScore;
+        }
+        int outcome = EnrollmentEventLog.OUTCOME_FAILED;
         
         // Verificar si aprueba
-        if (score >= SimulationConfig.PASSING_SCORE) {
-            student.passCourse(courseName);
+        if (passed) {
+            population.passCourse(student, courseIndex);
             // Calcular tiempo de aprobación (semestres desde primera inscripción)
-            int firstSemester = student.getFirstEnrollmentSemester(courseName);
-            double passingTime = semester - firstSemester + 1; // +1 porque cuenta el semestre actual
-            course.addPassingTime(passingTime);
+            int firstSemester = population.getFirstEnrollmentSemester(student, courseIndex);
+            int passingTime = semester - firstSemester + 1; // +1 porque cuenta el semestre actual
+            shard.passingTimeCounts[courseIndex][passingTime]++;
+            if (population.hasCompletedAllCourses(student)) {
+                shard.completions++;
+            }
+            outcome = EnrollmentEventLog.OUTCOME_PASSED;
         } else {
             // Si no aprueba y alcanzó el máximo de intentos, abandona
-            if (student.getAttempts(courseName) >= SimulationConfig.MAX_ATTEMPTS_PER_COURSE) {
-                student.abandon(courseName);
-                course.incrementAbandonments();
+            if (attempts >= maxAttemptsPerCourse) {
+                if (population.abandon(student, courseIndex)) {
+                    shard.abandonedStudents++;
+                }
+                shard.abandonments[courseIndex]++;
+                outcome = EnrollmentEventLog.OUTCOME_ABANDONED;
+            }
+        }
+        
+        if (shard.events != null) {
+            shard.recordEvent(student, courseIndex, semester, attempts, (float) score, outcome);
+        }
+        if (--shard.enrollmentEventCountdown <= 0) {
+            shard.enrollmentEventCountdown = SimulationEvents.getEnrollmentSamplingPeriod();
+            // Muestra para JFR (ver SimulationEvents)
+            SimulationEvents.enrollment(student, courseList[courseIndex].getName(), semester, attempts, score,
+                                        outcome);
+        }
+    }
+    
+    /**
+     * Modo analítico: en la primera inscripción sortea el intento en el que el
+     * estudiante aprobará y luego solo compara con la cantidad de intentos.
+     */
+    private boolean passesAnalytically(SemesterShard shard, int student, int courseIndex, int attempts) {
+        if (attempts == 1) {
+            if (commonRandomNumbers) {
+                reseedForDraw(shard, student, courseIndex, attempts);
+            }
+            boolean timed = startDraw(shard, courseIndex);
+            long start = timed ? System.nanoTime() : 0L;
+            population.setAttemptsToPass(student, courseIndex, drawAttemptsToPass(shard, courseIndex));
+            if (timed) {
+                shard.samplingNanos += (System.nanoTime() - start) * SimulationTelemetry.SAMPLING_TIMER_PERIOD;
             }
         }
+        return attempts == population.getAttemptsToPass(student, courseIndex);
     }
     
     /**
-     * Genera una nota según la distribución de la asignatura.
+     * Nota de un intento, de la distribución de la asignatura.
      */
-    private double generateScore(Course course) {
-        if (course.getDistributionType() == Course.DistributionType.NORMAL) {
-            NormalDistribution normal = new NormalDistribution(
-                random, course.getMean(), Math.sqrt(course.getVariance()));
-            return normal.sample();
-        } else { // POISSON
-            PoissonDistribution poisson = new PoissonDistribution(course.getLambda());
-            poisson.reseedRandomGenerator(random.nextLong());
-            return poisson.sample();
+    private double drawScore(SemesterShard shard, int student, int courseIndex, int attempts) {
+        boolean timed = startDraw(shard, courseIndex);
+        long start = timed ? System.nanoTime() : 0L;
+        if (commonRandomNumbers) {
+            reseedForDraw(shard, student, courseIndex, attempts);
         }
+        double score = commonRandomNumbers || antithetic
+                ? shard.samplers[courseIndex].quantile(nextUniform(shard))
+                : shard.samplers[courseIndex].sample();
+        if (timed) {
+            shard.samplingNanos += (System.nanoTime() - start) * SimulationTelemetry.SAMPLING_TIMER_PERIOD;
+        }
+        return score;
+    }
+    
+    /**
+     * Cuenta un sorteo de la asignatura.
+     * @return si hay que cronometrarlo: uno de cada SAMPLING_TIMER_PERIOD, como muestra del tiempo de los sorteos
+     */
+    private static boolean startDraw(SemesterShard shard, int courseIndex) {
+        shard.samples[courseIndex]++;
+        return (++shard.draws & (SimulationTelemetry.SAMPLING_TIMER_PERIOD - 1)) == 0;
+    }
+    
+    /**
+     * Intento en el que se aprueba: 1 + floor(ln(U) / ln(1 - p)) es geométrica
+     * en {1, 2, ...} con parámetro p. Si supera el máximo de intentos, retorna
+     * el máximo de intentos + 1 (nunca aprueba).
+     */
+    private int drawAttemptsToPass(SemesterShard shard, int courseIndex) {
+        double p = passProbability[courseIndex];
+        int neverPasses = maxAttemptsPerCourse + 1;
+        if (p >= 1.0) {
+            return 1;
+        }
+        if (p <= 0.0) {
+            return neverPasses;
+        }
+        double attempts = 1.0 + Math.floor(Math.log(1.0 - nextUniform(shard)) / logFailProbability[courseIndex]);
+        return attempts >= neverPasses ? neverPasses : (int) attempts;
+    }
+    
+    /**
+     * Uniforme en [0, 1) del fragmento, o su complemento en una corrida antitética.
+     */
+    private double nextUniform(SemesterShard shard) {
+        double u = shard.random.nextDouble();
+        return antithetic ? 1.0 - u : u;
+    }
+    
+    /**
+     * Números aleatorios comunes: el flujo de cada sorteo depende solo de la
+     * semilla, el estudiante, la asignatura y el intento.
+     */
+    private void reseedForDraw(SemesterShard shard, int student, int course, int attempt) {
+        shard.random.setSeed(Seeds.derive(Seeds.derive(Seeds.derive(seed, student), course), attempt));
     }
     
+    /**
+     * Vista de los estudiantes como objetos {@link Student} creados bajo demanda.
+     */
     public List<Student> getStudents() {
-        return students;
+        return population.asStudentList();
+    }
+    
+    public StudentPopulation getPopulation() {
+        return population;
     }
     
     public Map<String, Course> getCourses() {
         return courses;
     }
     
+    public Curriculum getCurriculum() {
+        return curriculum;
+    }
+    
+    public SimulationParameters getParameters() {
+        return parameters;
+    }
+    
+    /**
+     * Asignaturas en orden de índice (el mismo que usa la población).
+     */
+    public List<Course> getCourseList() {
+        return Collections.unmodifiableList(Arrays.asList(courseList));
+    }
+    
+    /**
+     * Semestre de cada inscripción, por asignatura. Se arma bajo demanda a
+     * partir de los contadores por semestre; para el detalle de cada
+     * inscripción (estudiante, intento, nota y resultado) usar
+     * {@link #setEventLog(EnrollmentEventLog)}.
+     */
     public Map<String, List<Integer>> getEnrollmentHistory() {
-        return enrollmentHistory;
+        Map<String, List<Integer>> history = new HashMap<>();
+        for (int c = 0; c < courseList.length; c++) {
+            List<Integer> semesters = new ArrayList<>();
+            for (int semester = 1; semester < enrollmentsBySemester[c].length; semester++) {
+                for (int k = 0; k < enrollmentsBySemester[c][semester]; k++) {
+                    semesters.add(semester);
+                }
+            }
+            history.put(courseList[c].getName(), semesters);
+        }
+        return history;
+    }
+    
+    /**
+     * Cantidad de inscripciones en la asignatura durante el semestre.
+     */
+    public int getEnrollments(int course, int semester) {
+        return enrollmentsBySemester[course][semester];
+    }
+    
+    /**
+     * Media, varianza, mínimo y máximo del semestre en que los estudiantes
+     * completan todas las asignaturas.
+     */
+    public StreamingStatistics getCompletionStatistics() {
+        return completionStatistics;
+    }
+    
+    /**
+     * Cantidad de estudiantes que completan todas las asignaturas, por semestre.
+     */
+    public IntHistogram getCompletionHistogram() {
+        return completionHistogram;
+    }
+    
+    /**
+     * Cantidad de estudiantes que abandonan, por semestre.
+     */
+    public IntHistogram getAbandonmentHistogram() {
+        return abandonmentHistogram;
     }
     
     /**
@@ -225,6 +970,6 @@ public class SimulationEngine {
     public static int getMaxStudents() {
         return SimulationConfig.MAX_STUDENTS;
     }
-    
+
 }
 
@@ -0,0 +1,240 @@
+package proyecto;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Eventos de Java Flight Recorder del ciclo de vida de la simulación: la
+ * corrida, cada semestre, cada consulta de estadísticas, cada gráfico y una
+ * muestra de las inscripciones. Se graban con las herramientas estándar, por
+ * ejemplo {@code java -XX:StartFlightRecording=filename=sim.jfr ...}, y
+ * aparecen en JDK Mission Control junto a las pausas del GC y las muestras de
+ * CPU de la categoría "Simulación".
+ *
+ * Sin una grabación activa no cuestan nada: mientras JFR no se inició, los
+ * métodos de esta clase ni siquiera crean los eventos (cargar la primera clase
+ * de evento inicia JFR y tarda cientos de milisegundos), y con JFR iniciado
+ * pero sin grabar, el JIT elimina el objeto y {@link Event#commit()} no hace
+ * nada. Las inscripciones además se muestrean: sólo una de cada
+ * {@link #getEnrollmentSamplingPeriod()} llega a crear un evento.
+ */
+public final class SimulationEvents {
+    /** Por defecto se registra una de cada 1000 inscripciones. */
+    public static final int DEFAULT_ENROLLMENT_SAMPLING_PERIOD = 1000;
+    
+    private static volatile int enrollmentSamplingPeriod = DEFAULT_ENROLLMENT_SAMPLING_PERIOD;
+    
+    private SimulationEvents() {
+    }
+    
+    /**
+     * Registrar una de cada period inscripciones (1 = todas).
+     */
+    public static void setEnrollmentSamplingPeriod(int period) {
+        if (period < 1) {
+            throw new IllegalArgumentException("El período de muestreo debe ser al menos 1: " + period);
+        }
+        enrollmentSamplingPeriod = period;
+    }
+    
+    public static int getEnrollmentSamplingPeriod() {
+        return enrollmentSamplingPeriod;
+    }
+    
+    /**
+     * Si JFR ya se inició (con -XX:StartFlightRecording, jcmd o la API). Antes
+     * de eso no puede haber grabaciones y no se crean eventos.
+     */
+    static boolean isRecorderInitialized() {
+        return FlightRecorder.isInitialized();
+    }
+    
+    static RunEvent beginRun() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        RunEvent event = new RunEvent();
+        event.begin();
+        return event;
+    }
+    
+    static void commitRun(RunEvent event, long seed, int students, boolean analytic, boolean parallel,
+                          int semesters) {
+        if (event != null && event.shouldCommit()) {
+            event.seed = seed;
+            event.students = students;
+            event.analytic = analytic;
+            event.parallel = parallel;
+            event.semesters = semesters;
+            event.commit();
+        }
+    }
+    
+    static SemesterEvent beginSemester() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        SemesterEvent event = new SemesterEvent();
+        event.begin();
+        return event;
+    }
+    
+    /**
+     * @param shards fragmentos del semestre, de los que se suman las inscripciones
+     */
+    static void commitSemester(SemesterEvent event, int semester, int activeStudents, SemesterShard[] shards) {
+        if (event != null && event.shouldCommit()) {
+            event.semester = semester;
+            event.activeStudents = activeStudents;
+            for (SemesterShard shard : shards) {
+                for (int enrollments : shard.enrollments) {
+                    event.enrollments += enrollments;
+                }
+            }
+            event.commit();
+        }
+    }
+    
+    static StatisticsQueryEvent beginQuery(String query) {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        StatisticsQueryEvent event = new StatisticsQueryEvent();
+        event.query = query;
+        event.begin();
+        return event;
+    }
+    
+    static void commitQuery(StatisticsQueryEvent event) {
+        if (event != null) {
+            event.commit();
+        }
+    }
+    
+    static ChartRenderEvent beginChart() {
+        if (!isRecorderInitialized()) {
+            return null;
+        }
+        ChartRenderEvent event = new ChartRenderEvent();
+        event.begin();
+        return event;
+    }
+    
+    static void commitChart(ChartRenderEvent event, String chart, String target) {
+        if (event != null && event.shouldCommit()) {
+            event.chart = chart;
+            event.target = target;
+            event.commit();
+        }
+    }
+    
+    /**
+     * Registra una inscripción de la muestra.
+     * @param outcome resultado con las constantes de {@link EnrollmentEventLog}
+     */
+    static void enrollment(int student, String course, int semester, int attempt, double score, int outcome) {
+        if (!isRecorderInitialized()) {
+            return;
+        }
+        EnrollmentEvent event = new EnrollmentEvent();
+        if (event.shouldCommit()) {
+            event.student = student;
+            event.course = course;
+            event.semester = semester;
+            event.attempt = attempt;
+            event.score = score;
+            event.passed = outcome == EnrollmentEventLog.OUTCOME_PASSED;
+            event.abandoned = outcome == EnrollmentEventLog.OUTCOME_ABANDONED;
+            event.commit();
+        }
+    }
+    
+    @Name("proyecto.SimulationRun")
+    @Label("Corrida de simulación")
+    @Category("Simulación")
+    @Description("Una corrida completa, desde el primer semestre hasta que no quedan estudiantes activos")
+    static final class RunEvent extends Event {
+        @Label("Semilla")
+        long seed;
+        
+        @Label("Estudiantes")
+        int students;
+        
+        @Label("Modo analítico")
+        boolean analytic;
+        
+        @Label("Paralela")
+        boolean parallel;
+        
+        @Label("Semestres")
+        int semesters;
+    }
+    
+    @Name("proyecto.Semester")
+    @Label("Semestre")
+    @Category("Simulación")
+    @Description("Proceso de un semestre: avance de los estudiantes y suma de los contadores de los fragmentos")
+    @StackTrace(false)
+    static final class SemesterEvent extends Event {
+        @Label("Semestre")
+        int semester;
+        
+        @Label("Estudiantes activos")
+        int activeStudents;
+        
+        @Label("Inscripciones")
+        long enrollments;
+    }
+    
+    @Name("proyecto.StatisticsQuery")
+    @Label("Consulta de estadísticas")
+    @Category("Simulación")
+    static final class StatisticsQueryEvent extends Event {
+        @Label("Consulta")
+        String query;
+    }
+    
+    @Name("proyecto.ChartRender")
+    @Label("Gráfico")
+    @Category("Simulación")
+    static final class ChartRenderEvent extends Event {
+        @Label("Gráfico")
+        String chart;
+        
+        @Label("Destino")
+        String target;
+    }
+    
+    @Name("proyecto.Enrollment")
+    @Label("Inscripción (muestra)")
+    @Category("Simulación")
+    @Description("Una de cada N inscripciones, con N configurable (ver SimulationEvents)")
+    @StackTrace(false)
+    static final class EnrollmentEvent extends Event {
+        @Label("Estudiante")
+        int student;
+        
+        @Label("Asignatura")
+        String course;
+        
+        @Label("Semestre")
+        int semester;
+        
+        @Label("Intento")
+        int attempt;
+        
+        @Label("Nota")
+        double score;
+        
+        @Label("Aprobó")
+        boolean passed;
+        
+        @Label("Abandonó")
+        boolean abandoned;
+    }
+}
@@ -0,0 +1,111 @@
+package proyecto;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultados escalares de una corrida, obtenidos de {@link StatisticsGenerator}.
+ * Son los valores que se promedian entre réplicas.
+ */
+public class SimulationMetrics {
+    /**
+     * Sufijo de la métrica course.X.passResidual: (aprobadas - p * inscripciones)
+     * por estudiante, con p la probabilidad exacta de aprobar un intento. Su
+     * esperanza es 0 (ver {@link ControlVariateSummary}).
+     */
+    public static final String PASS_RESIDUAL = "passResidual";
+    
+    private final Map<String, Double> values;
+    
+    public SimulationMetrics(Map<String, Double> values) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+    }
+    
+    /**
+     * Extrae las métricas de una simulación ya ejecutada.
+     */
+    public static SimulationMetrics from(SimulationEngine engine, StatisticsGenerator statistics) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        int students = engine.getPopulation().size();
+        
+        StreamingStatistics completionTimes = statistics.getCompletionTimeStatistics();
+        long completions = completionTimes.getCount();
+        double completionMean = completions > 0 ? completionTimes.getMean() : Double.NaN;
+        long abandonments = statistics.getTotalAbandonments();
+        
+        values.put("completion.mean", completionMean);
+        for (double q : StatisticsGenerator.QUANTILES) {
+            values.put("completion." + StatisticsGenerator.quantileName(q), statistics.getCompletionTimeQuantile(q));
+        }
+        values.put("completion.count", (double) completions);
+        values.put("completion.rate", completions / (double) students);
+        values.put("completion.inRange", (double) statistics.getStudentsCompletedBetween3And15Semesters());
+        values.put("abandonment.count", (double) abandonments);
+        values.put("abandonment.rate", abandonments / (double) students);
+        
+        double passingScore = engine.getParameters().getPassingScore();
+        for (Course course : engine.getCourseList()) {
+            String prefix = "course." + course.getName() + ".";
+            values.put(prefix + "passingTime", course.getAveragePassingTime());
+            values.put(prefix + "enrollments", (double) course.getTotalEnrollments());
+            values.put(prefix + "abandonments", (double) course.getTotalAbandonments());
+            values.put(prefix + "abandonmentRate", course.getTotalAbandonments() / (double) students);
+            // Cada intento aprueba con la probabilidad exacta p, sin importar la historia:
+            // aprobadas - p * inscripciones tiene media exactamente 0 (variable de control)
+            double expectedPasses = course.getPassProbability(passingScore) * course.getTotalEnrollments();
+            values.put(prefix + PASS_RESIDUAL, (course.getTotalPasses() - expectedPasses) / students);
+        }
+        
+        return new SimulationMetrics(values);
+    }
+    
+    /**
+     * Métricas guardadas en los resultados de {@link StatisticsGenerator#getResults()},
+     * por ejemplo leídos de {@link ResultCache} (los null vuelven a ser NaN).
+     */
+    public static SimulationMetrics fromResults(Map<String, Object> results) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        Object metrics = results.get("metrics");
+        if (!(metrics instanceof Map)) {
+            throw new IllegalArgumentException("Los resultados no tienen métricas");
+        }
+        for (Map.Entry<?, ?> entry : ((Map<?, ?>) metrics).entrySet()) {
+            Object value = entry.getValue();
+            values.put((String) entry.getKey(), value instanceof Number ? ((Number) value).doubleValue() : Double.NaN);
+        }
+        return new SimulationMetrics(values);
+    }
+    
+    /**
+     * Diferencia métrica a métrica (this - other), por ejemplo entre dos
+     * configuraciones simuladas con la misma semilla.
+     */
+    public SimulationMetrics minus(SimulationMetrics other) {
+        Map<String, Double> difference = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            difference.put(entry.getKey(), entry.getValue() - other.get(entry.getKey()));
+        }
+        return new SimulationMetrics(difference);
+    }
+    
+    /**
+     * Promedio métrica a métrica de dos corridas, por ejemplo un par antitético.
+     */
+    public static SimulationMetrics average(SimulationMetrics first, SimulationMetrics second) {
+        Map<String, Double> average = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : first.values.entrySet()) {
+            average.put(entry.getKey(), (entry.getValue() + second.get(entry.getKey())) / 2.0);
+        }
+        return new SimulationMetrics(average);
+    }
+    
+    public Map<String, Double> getValues() {
+        return values;
+    }
+    
+    public double get(String name) {
+        Double value = values.get(name);
+        return value != null ? value : Double.NaN;
+    }
+}
@@ -0,0 +1,220 @@
+package proyecto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parámetros de una simulación como objeto inmutable, para poder variarlos
+ * en tiempo de ejecución (por ejemplo, en un barrido de parámetros) sin
+ * modificar SimulationConfig ni recompilar.
+ *
+ * {@link #defaults()} toma los valores de SimulationConfig; cada método
+ * withX retorna una copia con un solo valor cambiado.
+ */
+public final class SimulationParameters {
+    private final Curriculum curriculum;
+    private final double passingScore;
+    private final int maxAttemptsPerCourse;
+    private final int maxCoursesPerSemester;
+    private final int maxSemesters;
+    private final int minSemestersCompletion;
+    private final int maxSemestersCompletion;
+    
+    public SimulationParameters(Curriculum curriculum, double passingScore, int maxAttemptsPerCourse,
+                                int maxCoursesPerSemester, int maxSemesters,
+                                int minSemestersCompletion, int maxSemestersCompletion) {
+        if (maxAttemptsPerCourse < 1 || maxAttemptsPerCourse > Byte.MAX_VALUE - 1) {
+            throw new IllegalArgumentException("Máximo de intentos fuera de rango: " + maxAttemptsPerCourse);
+        }
+        if (maxCoursesPerSemester < 1) {
+            throw new IllegalArgumentException("Máximo de asignaturas por semestre inválido: "
+                + maxCoursesPerSemester);
+        }
+        if (maxSemesters < 1 || maxSemesters > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Límite de semestres fuera de rango: " + maxSemesters);
+        }
+        if (minSemestersCompletion > maxSemestersCompletion) {
+            throw new IllegalArgumentException("Rango de semestres de finalización vacío: "
+                + minSemestersCompletion + "-" + maxSemestersCompletion);
+        }
+        this.curriculum = curriculum;
+        this.passingScore = passingScore;
+        this.maxAttemptsPerCourse = maxAttemptsPerCourse;
+        this.maxCoursesPerSemester = maxCoursesPerSemester;
+        this.maxSemesters = maxSemesters;
+        this.minSemestersCompletion = minSemestersCompletion;
+        this.maxSemestersCompletion = maxSemestersCompletion;
+    }
+    
+    /**
+     * Plan por defecto y valores de SimulationConfig.
+     */
+    public static SimulationParameters defaults() {
+        return new SimulationParameters(Curriculum.defaultCurriculum(),
+                                        SimulationConfig.PASSING_SCORE,
+                                        SimulationConfig.MAX_ATTEMPTS_PER_COURSE,
+                                        SimulationConfig.MAX_COURSES_PER_SEMESTER,
+                                        SimulationConfig.MAX_SEMESTERS,
+                                        SimulationConfig.MIN_SEMESTERS_COMPLETION,
+                                        SimulationConfig.MAX_SEMESTERS_COMPLETION);
+    }
+    
+    public Curriculum getCurriculum() {
+        return curriculum;
+    }
+    
+    public double getPassingScore() {
+        return passingScore;
+    }
+    
+    public int getMaxAttemptsPerCourse() {
+        return maxAttemptsPerCourse;
+    }
+    
+    public int getMaxCoursesPerSemester() {
+        return maxCoursesPerSemester;
+    }
+    
+    public int getMaxSemesters() {
+        return maxSemesters;
+    }
+    
+    public int getMinSemestersCompletion() {
+        return minSemestersCompletion;
+    }
+    
+    public int getMaxSemestersCompletion() {
+        return maxSemestersCompletion;
+    }
+    
+    public SimulationParameters withCurriculum(Curriculum curriculum) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    public SimulationParameters withPassingScore(double passingScore) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    public SimulationParameters withMaxAttemptsPerCourse(int maxAttemptsPerCourse) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    public SimulationParameters withMaxCoursesPerSemester(int maxCoursesPerSemester) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    public SimulationParameters withMaxSemesters(int maxSemesters) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    public SimulationParameters withCompletionRange(int minSemestersCompletion, int maxSemestersCompletion) {
+        return new SimulationParameters(curriculum, passingScore, maxAttemptsPerCourse, maxCoursesPerSemester,
+                                        maxSemesters, minSemestersCompletion, maxSemestersCompletion);
+    }
+    
+    /**
+     * Copia con un parámetro de la distribución de una asignatura cambiado.
+     * @param parameter "mean", "variance" o "lambda"
+     */
+    public SimulationParameters withCourseParameter(String courseName, String parameter, double value) {
+        int index = curriculum.indexOf(courseName);
+        if (index < 0) {
+            throw new IllegalArgumentException("Asignatura desconocida: " + courseName);
+        }
+        CourseDefinition course = curriculum.getCourse(index);
+        if (course.getDistributionType() == Course.DistributionType.EMPIRICAL) {
+            throw new IllegalArgumentException("La asignatura " + courseName
+                + " tiene una distribución empírica, sin parámetro " + parameter);
+        }
+        double mean = course.getMean();
+        double variance = course.getVariance();
+        double lambda = course.getLambda();
+        switch (parameter) {
+            case "mean":
+                mean = value;
+                break;
+            case "variance":
+                variance = value;
+                break;
+            case "lambda":
+                lambda = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Parámetro de asignatura desconocido: " + parameter);
+        }
+        
+        List<CourseDefinition> courses = new ArrayList<>(curriculum.getCourses());
+        courses.set(index, new CourseDefinition(course.getName(), course.getDistributionType(),
+                                                mean, variance, lambda, course.getPrerequisites()));
+        return withCurriculum(new Curriculum(courses));
+    }
+    
+    /**
+     * Copia con el parámetro indicado por nombre cambiado. Nombres admitidos:
+     * passingScore, maxAttempts, maxCoursesPerSemester, maxSemesters y
+     * course.X.mean, course.X.variance o course.X.lambda para la asignatura X.
+     * Los parámetros enteros se redondean.
+     */
+    public SimulationParameters with(String name, double value) {
+        if (name.startsWith("course.")) {
+            int dot = name.lastIndexOf('.');
+            if (dot <= "course.".length()) {
+                throw new IllegalArgumentException("Parámetro desconocido: " + name);
+            }
+            return withCourseParameter(name.substring("course.".length(), dot), name.substring(dot + 1), value);
+        }
+        switch (name) {
+            case "passingScore":
+                return withPassingScore(value);
+            case "maxAttempts":
+                return withMaxAttemptsPerCourse((int) Math.round(value));
+            case "maxCoursesPerSemester":
+                return withMaxCoursesPerSemester((int) Math.round(value));
+            case "maxSemesters":
+                return withMaxSemesters((int) Math.round(value));
+            default:
+                throw new IllegalArgumentException("Parámetro desconocido: " + name);
+        }
+    }
+    
+    /**
+     * Valor del parámetro indicado por nombre (mismos nombres que {@link #with}).
+     */
+    public double get(String name) {
+        if (name.startsWith("course.")) {
+            int dot = name.lastIndexOf('.');
+            int index = dot > "course.".length() ? curriculum.indexOf(name.substring("course.".length(), dot)) : -1;
+            if (index < 0) {
+                throw new IllegalArgumentException("Parámetro desconocido: " + name);
+            }
+            CourseDefinition course = curriculum.getCourse(index);
+            switch (name.substring(dot + 1)) {
+                case "mean":
+                    return course.getMean();
+                case "variance":
+                    return course.getVariance();
+                case "lambda":
+                    return course.getLambda();
+                default:
+                    throw new IllegalArgumentException("Parámetro de asignatura desconocido: " + name);
+            }
+        }
+        switch (name) {
+            case "passingScore":
+                return passingScore;
+            case "maxAttempts":
+                return maxAttemptsPerCourse;
+            case "maxCoursesPerSemester":
+                return maxCoursesPerSemester;
+            case "maxSemesters":
+                return maxSemesters;
+            default:
+                throw new IllegalArgumentException("Parámetro desconocido: " + name);
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package proyecto;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Servicio HTTP de simulación que corre en un proceso de larga duración, con
+ * la JVM ya cargada y compilada por el JIT, sobre el servidor HTTP del JDK.
+ *
+ * Endpoints:
+ *   POST /simulate  cuerpo JSON con seed, students, analytic y parameters
+ *                   (nombres de {@link SimulationParameters#with}); responde
+ *                   los resultados de {@link StatisticsGenerator#getResults()}
+ *   GET  /health    estado del servicio, solicitudes atendidas y latencia media
+ *
+ * Las simulaciones se ejecutan en un pool de hilos acotado con una cola
+ * acotada: si la cola está llena se responde 503 en lugar de acumular
+ * trabajo. Las conexiones también: los hilos HTTP (que esperan el resultado
+ * de su simulación) tienen una cola acotada, y las conexiones que no entran
+ * las atiende un hilo aparte que responde 503 sin simular. Cada hilo del pool reutiliza su motor entre solicitudes
+ * ({@link SimulationEngine#reset}), por lo que la respuesta es la misma que
+ * la de una corrida nueva con la misma semilla y los mismos parámetros. Una
+ * simulación que supera el tiempo máximo se responde con 504 y se detiene
+ * (ver {@link SimulationEngine#setCancellation}), liberando su hilo.
+ */
+public class SimulationServer {
+    /** Tiempo máximo de espera de una simulación antes de responder 504. */
+    private static final long REQUEST_TIMEOUT_SECONDS = 60;
+    /** Máximo de estudiantes por solicitud, para acotar la memoria por hilo. */
+    private static final int MAX_STUDENTS_PER_REQUEST = 1_000_000;
+    
+    private final HttpServer server;
+    private final ExecutorService httpExecutor;
+    private final ExecutorService overflowExecutor; // conexiones rechazadas por httpExecutor
+    private final ThreadLocal<Boolean> overloaded = new ThreadLocal<>(); // true en overflowExecutor
+    private final ThreadPoolExecutor workers;
+    private final SimulationParameters baseParameters;
+    private final ThreadLocal<SimulationEngine> engines = new ThreadLocal<>();
+    private final StreamingStatistics latencyMillis = new StreamingStatistics();
+    private volatile ResultCache cache;
+    
+    /**
+     * @param workerThreads simulaciones simultáneas
+     * @param queueCapacity simulaciones en espera antes de rechazar con 503
+     * @param baseParameters parámetros sobre los que se aplican los de cada solicitud
+     */
+    public SimulationServer(int port, int workerThreads, int queueCapacity,
+                            SimulationParameters baseParameters) throws IOException {
+        this.baseParameters = baseParameters;
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 0L, TimeUnit.MILLISECONDS,
+                                              new ArrayBlockingQueue<>(queueCapacity));
+        // Un hilo HTTP por simulación en curso o en espera; si están todos ocupados, unas pocas conexiones
+        // esperan y el resto recibe 503 desde overflowExecutor (o desde el hilo que acepta conexiones, si
+        // también ese está saturado)
+        int httpThreads = workerThreads + queueCapacity;
+        this.overflowExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                                                       new ArrayBlockingQueue<>(queueCapacity),
+                                                       new ThreadPoolExecutor.CallerRunsPolicy());
+        this.httpExecutor = new ThreadPoolExecutor(httpThreads, httpThreads, 0L, TimeUnit.MILLISECONDS,
+                                                   new ArrayBlockingQueue<>(queueCapacity),
+                                                   (exchange, executor) -> rejectConnection(exchange));
+        this.server = HttpServer.create(new InetSocketAddress(port), 0);
+        server.setExecutor(httpExecutor);
+        server.createContext("/simulate", this::handleSimulate);
+        server.createContext("/health", this::handleHealth);
+    }
+    
+    public void start() {
+        server.start();
+    }
+    
+    /**
+     * Detiene el servidor, esperando a lo sumo delaySeconds a las solicitudes en curso.
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        workers.shutdown();
+        httpExecutor.shutdown();
+        overflowExecutor.shutdown();
+    }
+    
+    /**
+     * Atiende una conexión que no entró en httpExecutor: /simulate responde 503.
+     */
+    private void rejectConnection(Runnable exchange) {
+        if (httpExecutor.isShutdown()) {
+            return;
+        }
+        overflowExecutor.execute(() -> {
+            overloaded.set(Boolean.TRUE);
+            try {
+                exchange.run();
+            } finally {
+                overloaded.remove();
+            }
+        });
+    }
+    
+    /**
+     * Responde desde la caché las solicitudes ya calculadas (null para no usar caché).
+     */
+    public void setCache(ResultCache cache) {
+        this.cache = cache;
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Ejecuta corridas con la configuración base en todos los hilos del pool
+     * para que el JIT compile el motor antes de la primera solicitud.
+     */
+    public void warmUp(int runsPerThread) {
+        Future<?>[] tasks = new Future<?>[workers.getCorePoolSize()];
+        for (int t = 0; t < tasks.length; t++) {
+            tasks[t] = workers.submit(() -> {
+                for (int i = 0; i < runsPerThread; i++) {
+                    runSimulation(baseParameters, i, SimulationConfig.MAX_STUDENTS, i % 2 == 0);
+                }
+            });
+        }
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Falló el precalentamiento", e.getCause());
+            }
+        }
+    }
+    
+    /**
+     * Interpreta una solicitud (ya convertida de JSON) y ejecuta la simulación
+     * en el hilo actual.
+     */
+    Map<String, Object> simulate(Map<String, Object> request) {
+        long seed = request.containsKey("seed") ? toLong(request.get("seed"), "seed") : System.currentTimeMillis();
+        long requestedStudents = request.containsKey("students")
+                ? toLong(request.get("students"), "students")
+                : SimulationConfig.MAX_STUDENTS;
+        if (requestedStudents < 1 || requestedStudents > MAX_STUDENTS_PER_REQUEST) {
+            throw new IllegalArgumentException("students debe estar entre 1 y " + MAX_STUDENTS_PER_REQUEST);
+        }
+        int students = (int) requestedStudents;
+        boolean analytic = Boolean.TRUE.equals(request.get("analytic"));
+        
+        SimulationParameters parameters = baseParameters;
+        Object overrides = request.get("parameters");
+        if (overrides instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) overrides).entrySet()) {
+                if (!(entry.getValue() instanceof Number)) {
+                    throw new IllegalArgumentException("El parámetro " + entry.getKey() + " debe ser numérico");
+                }
+                parameters = parameters.with((String) entry.getKey(), ((Number) entry.getValue()).doubleValue());
+            }
+        } else if (overrides != null) {
+            throw new IllegalArgumentException("parameters debe ser un objeto");
+        }
+        
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("seed", seed);
+        response.put("analytic", analytic);
+        ResultCache cache = this.cache;
+        if (cache != null) {
+            SimulationParameters requested = parameters;
+            String key = ResultCache.key(parameters, seed, students, analytic, ResultCache.MODE_SEQUENTIAL);
+            response.putAll(cache.computeIfAbsent(key, () -> runSimulation(requested, seed, students, analytic)));
+        } else {
+            response.putAll(runSimulation(parameters, seed, students, analytic));
+        }
+        return response;
+    }
+    
+    private Map<String, Object> runSimulation(SimulationParameters parameters, long seed,
+                                              int students, boolean analytic) {
+        SimulationEngine engine = engines.get();
+        if (engine == null || engine.getPopulation().size() != students) {
+            engine = new SimulationEngine(seed, students, parameters);
+            engines.set(engine);
+        } else {
+            engine.reset(seed, parameters);
+        }
+        // Un 504 cancela la tarea e interrumpe este hilo: el motor se detiene y el hilo queda libre
+        Thread worker = Thread.currentThread();
+        engine.setCancellation(worker::isInterrupted);
+        engine.setAnalyticMode(analytic);
+        engine.runSimulation();
+        return new StatisticsGenerator(engine).getResults();
+    }
+    
+    private void handleSimulate(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                respondError(exchange, 405, "Usar POST");
+                return;
+            }
+            if (Boolean.TRUE.equals(overloaded.get())) {
+                respondError(exchange, 503, "Servidor ocupado, reintentar más tarde");
+                return;
+            }
+            Object request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = Json.parse(new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            if (!(request instanceof Map)) {
+                respondError(exchange, 400, "Se esperaba un objeto JSON");
+                return;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> fields = (Map<String, Object>) request;
+            
+            Future<Map<String, Object>> result;
+            try {
+                result = workers.submit(() -> simulate(fields));
+            } catch (RejectedExecutionException e) {
+                respondError(exchange, 503, "Servidor ocupado, reintentar más tarde");
+                return;
+            }
+            
+            try {
+                respond(exchange, 200, result.get(REQUEST_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            } catch (TimeoutException e) {
+                result.cancel(true);
+                respondError(exchange, 504, "La simulación superó " + REQUEST_TIMEOUT_SECONDS + " s");
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException) {
+                    respondError(exchange, 400, e.getCause().getMessage());
+                } else {
+                    respondError(exchange, 500, String.valueOf(e.getCause()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respondError(exchange, 503, "Servidor detenido");
+            }
+        } catch (IllegalArgumentException e) {
+            respondError(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+            synchronized (latencyMillis) {
+                latencyMillis.add((System.nanoTime() - start) / 1e6);
+            }
+        }
+    }
+    
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        Map<String, Object> health = new LinkedHashMap<>();
+        health.put("status", "ok");
+        synchronized (latencyMillis) {
+            health.put("requests", latencyMillis.getCount());
+            health.put("meanLatencyMillis", latencyMillis.getMean());
+            health.put("maxLatencyMillis", latencyMillis.getCount() > 0 ? latencyMillis.getMax() : 0.0);
+        }
+        ResultCache cache = this.cache;
+        if (cache != null) {
+            health.put("cacheHits", cache.getHits());
+            health.put("cacheMisses", cache.getMisses());
+        }
+        health.put("activeSimulations", workers.getActiveCount());
+        health.put("queuedSimulations", workers.getQueue().size());
+        try {
+            respond(exchange, 200, health);
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("error", message);
+        respond(exchange, status, error);
+    }
+    
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private static long toLong(Object value, String name) {
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(name + " debe ser numérico");
+        }
+        if (value instanceof Long) {
+            return (Long) value;
+        }
+        double number = ((Number) value).doubleValue();
+        if (number != Math.rint(number)) {
+            throw new IllegalArgumentException(name + " debe ser entero");
+        }
+        return (long) number;
+    }
+}
@@ -0,0 +1,224 @@
+package proyecto;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores de telemetría compartidos por todos los motores de la JVM,
+ * visibles con jconsole o cualquier cliente JMX bajo {@link #OBJECT_NAME}.
+ *
+ * Los motores no tocan estos contadores en cada inscripción: acumulan en los
+ * contadores de sus fragmentos, que ya existen, y publican los totales una vez
+ * por semestre. Los contadores son {@link LongAdder} porque varias réplicas
+ * publican a la vez desde hilos distintos. El tiempo de los sorteos se estima
+ * cronometrando uno de cada {@link #SAMPLING_TIMER_PERIOD}, para que la
+ * telemetría pueda quedar siempre activa.
+ */
+public class SimulationTelemetry implements SimulationTelemetryMXBean {
+    public static final String OBJECT_NAME = "proyecto:type=SimulationTelemetry";
+    /** Se cronometra uno de cada SAMPLING_TIMER_PERIOD sorteos (potencia de 2). */
+    static final int SAMPLING_TIMER_PERIOD = 64;
+    /** Constante de tiempo de {@link #getEnrollmentsPerSecond()}: pesa sobre todo los últimos segundos. */
+    static final double RATE_TIME_CONSTANT_SECONDS = 5.0;
+    
+    private static final SimulationTelemetry INSTANCE = new SimulationTelemetry();
+    
+    private final LongAdder activeRuns = new LongAdder(); // no se pone en cero con reset
+    private final LongAdder runsCompleted = new LongAdder();
+    private final LongAdder semesters = new LongAdder();
+    private final LongAdder enrollments = new LongAdder();
+    private final LongAdder abandonments = new LongAdder();
+    private final LongAdder completions = new LongAdder();
+    private final LongAdder[] samples = new LongAdder[Course.DistributionType.values().length];
+    private final LongAdder stepNanos = new LongAdder();
+    private final LongAdder samplingNanos = new LongAdder();
+    private final LongAdder statisticsNanos = new LongAdder();
+    private volatile int currentSemester;
+    private volatile int activeStudents;
+    
+    // Inscripciones recientes con decaimiento exponencial (ver getEnrollmentsPerSecond), con el
+    // monitor de la instancia: se actualizan una vez por semestre y motor
+    private double recentEnrollments;
+    private long recentNanos;
+    
+    SimulationTelemetry() {
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = new LongAdder();
+        }
+    }
+    
+    /**
+     * Instancia en la que publican los motores por defecto.
+     */
+    public static SimulationTelemetry getInstance() {
+        return INSTANCE;
+    }
+    
+    /**
+     * Registra la instancia compartida en el servidor de MBeans de la
+     * plataforma. Llamarlo más de una vez no tiene efecto.
+     */
+    public static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+        } catch (InstanceAlreadyExistsException e) {
+            // Otro hilo la registró primero
+        } catch (JMException e) {
+            throw new IllegalStateException("No se pudo registrar la telemetría JMX", e);
+        }
+    }
+    
+    void runStarted() {
+        activeRuns.increment();
+    }
+    
+    void runCompleted() {
+        activeRuns.decrement();
+        runsCompleted.increment();
+    }
+    
+    /**
+     * Publica los totales de un semestre cerrado.
+     * @param samplesByType sorteos por ordinal de {@link Course.DistributionType}
+     * @param samplingShare fracción del tiempo de los fragmentos dedicada a sorteos
+     */
+    void semesterClosed(int semester, int activeStudents, long enrollments, long abandonments,
+                        long completions, long[] samplesByType, long stepNanos, double samplingShare,
+                        long statisticsNanos) {
+        this.currentSemester = semester;
+        this.activeStudents = activeStudents;
+        semesters.increment();
+        this.enrollments.add(enrollments);
+        addRecentEnrollments(enrollments, System.nanoTime());
+        this.abandonments.add(abandonments);
+        this.completions.add(completions);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i].add(samplesByType[i]);
+        }
+        long sampling = Math.round(stepNanos * samplingShare);
+        this.stepNanos.add(stepNanos - sampling);
+        this.samplingNanos.add(sampling);
+        this.statisticsNanos.add(statisticsNanos);
+    }
+    
+    @Override
+    public int getCurrentSemester() {
+        return currentSemester;
+    }
+    
+    @Override
+    public int getActiveStudents() {
+        return activeStudents;
+    }
+    
+    @Override
+    public long getActiveRuns() {
+        return activeRuns.sum();
+    }
+    
+    @Override
+    public long getCompletedRuns() {
+        return runsCompleted.sum();
+    }
+    
+    @Override
+    public long getSemesters() {
+        return semesters.sum();
+    }
+    
+    @Override
+    public long getEnrollments() {
+        return enrollments.sum();
+    }
+    
+    /**
+     * Ritmo actual, no el promedio desde el arranque: las inscripciones de
+     * cada semestre cerrado se suman a un acumulado que decae como
+     * exp(-t / {@link #RATE_TIME_CONSTANT_SECONDS}), y el ritmo es ese
+     * acumulado dividido por la constante de tiempo. Con un ritmo constante
+     * converge a ese ritmo en unos pocos segundos, y baja a 0 cuando ningún
+     * motor publica (el total sigue en {@link #getEnrollments()}).
+     */
+    @Override
+    public double getEnrollmentsPerSecond() {
+        return enrollmentsPerSecond(System.nanoTime());
+    }
+    
+    synchronized void addRecentEnrollments(long count, long now) {
+        recentEnrollments = decayed(now) + count;
+        recentNanos = now;
+    }
+    
+    synchronized double enrollmentsPerSecond(long now) {
+        return decayed(now) / RATE_TIME_CONSTANT_SECONDS;
+    }
+    
+    private double decayed(long now) {
+        if (recentEnrollments == 0) {
+            return 0.0;
+        }
+        double seconds = Math.max(0, now - recentNanos) / 1e9;
+        return recentEnrollments * Math.exp(-seconds / RATE_TIME_CONSTANT_SECONDS);
+    }
+    
+    @Override
+    public Map<String, Long> getSamplesByDistribution() {
+        Map<String, Long> values = new LinkedHashMap<>();
+        for (Course.DistributionType type : Course.DistributionType.values()) {
+            values.put(type.name(), samples[type.ordinal()].sum());
+        }
+        return values;
+    }
+    
+    @Override
+    public long getAbandonments() {
+        return abandonments.sum();
+    }
+    
+    @Override
+    public long getCompletions() {
+        return completions.sum();
+    }
+    
+    @Override
+    public double getStepMillis() {
+        return stepNanos.sum() / 1e6;
+    }
+    
+    @Override
+    public double getSamplingMillis() {
+        return samplingNanos.sum() / 1e6;
+    }
+    
+    @Override
+    public double getStatisticsMillis() {
+        return statisticsNanos.sum() / 1e6;
+    }
+    
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[]{runsCompleted, semesters, enrollments,
+                                                 abandonments, completions, stepNanos, samplingNanos,
+                                                 statisticsNanos}) {
+            counter.reset();
+        }
+        for (LongAdder counter : samples) {
+            counter.reset();
+        }
+        currentSemester = 0;
+        activeStudents = 0;
+        synchronized (this) {
+            recentEnrollments = 0;
+        }
+    }
+}
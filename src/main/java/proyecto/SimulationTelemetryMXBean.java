@@ -0,0 +1,47 @@
+package proyecto;
+
+import java.util.Map;
+
+/**
+ * Telemetría de las simulaciones en curso, publicada por JMX (ver
+ * {@link SimulationTelemetry}). Los contadores suman todos los motores de la
+ * JVM y se actualizan al cerrar cada semestre.
+ */
+public interface SimulationTelemetryMXBean {
+    /** Último semestre cerrado por algún motor. */
+    int getCurrentSemester();
+    
+    /** Estudiantes activos en el último semestre cerrado. */
+    int getActiveStudents();
+    
+    /** Corridas empezadas y todavía no terminadas. */
+    long getActiveRuns();
+    
+    long getCompletedRuns();
+    
+    long getSemesters();
+    
+    long getEnrollments();
+    
+    /** Inscripciones por segundo en los últimos segundos (promedio con decaimiento exponencial). */
+    double getEnrollmentsPerSecond();
+    
+    /** Sorteos de cada tipo de distribución: notas o, en modo analítico, intentos de aprobación. */
+    Map<String, Long> getSamplesByDistribution();
+    
+    long getAbandonments();
+    
+    long getCompletions();
+    
+    /** Tiempo de pared del avance de los estudiantes, sin contar los sorteos. */
+    double getStepMillis();
+    
+    /** Tiempo de pared estimado de los sorteos de notas o intentos. */
+    double getSamplingMillis();
+    
+    /** Tiempo de pared de la suma de contadores, histogramas y sketches al cerrar cada semestre. */
+    double getStatisticsMillis();
+    
+    /** Pone todos los contadores en cero, salvo las corridas activas. */
+    void reset();
+}
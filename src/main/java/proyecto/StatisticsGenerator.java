@@ -7,6 +7,9 @@ import java.util.stream.Collectors;
  * Genera todas las estadísticas requeridas de la simulación.
  */
 public class StatisticsGenerator {
+    /** Cuantiles de los reportes y resultados: mediana, p90 y p99. */
+    public static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    
     private SimulationEngine engine;
     
     public StatisticsGenerator(SimulationEngine engine) {
@@ -16,26 +19,89 @@ public class StatisticsGenerator {
     /**
      * 1. Calcula el promedio de tiempo que le toma a cada estudiante 
      *    avanzar las 6 asignaturas.
+     * 
+     * Lista reconstruida a partir del histograma de semestres de finalización
+     * (ordenada de menor a mayor). Para el resumen usar
+     * {@link #getCompletionTimeStatistics()} y {@link #getCompletionTimeQuantile},
+     * que no dependen de la cantidad de estudiantes.
      */
     public List<Double> getCompletionTimes() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("completionTimes");
         List<Double> completionTimes = new ArrayList<>();
+        IntHistogram histogram = engine.getCompletionHistogram();
         
-        for (Student student : engine.getStudents()) {
-            if (student.hasCompletedAllCourses()) {
-                int semesters = student.getSemesterCompleted();
-                if (semesters > 0) {
-                    completionTimes.add((double) semesters);
-                }
+        for (int semesters = 1; semesters <= histogram.getMaxValue(); semesters++) {
+            for (long k = histogram.getCount(semesters); k > 0; k--) {
+                completionTimes.add((double) semesters);
             }
         }
         
+        SimulationEvents.commitQuery(event);
         return completionTimes;
     }
     
+    /**
+     * Media, varianza, mínimo y máximo del tiempo para completar todas las asignaturas.
+     */
+    public StreamingStatistics getCompletionTimeStatistics() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("completionTimeStatistics");
+        StreamingStatistics statistics = engine.getCompletionStatistics();
+        SimulationEvents.commitQuery(event);
+        return statistics;
+    }
+    
+    /**
+     * Cuantil exacto q del semestre de finalización (NaN si nadie completó).
+     */
+    public double getCompletionTimeQuantile(double q) {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("completionTimeQuantile");
+        double quantile = engine.getCompletionHistogram().quantile(q);
+        SimulationEvents.commitQuery(event);
+        return quantile;
+    }
+    
+    /**
+     * Cuantiles de {@link #QUANTILES} como mapa "p50", "p90", "p99".
+     */
+    static Map<String, Double> quantiles(IntHistogram histogram) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double q : QUANTILES) {
+            values.put(quantileName(q), histogram.quantile(q));
+        }
+        return values;
+    }
+    
+    static Map<String, Double> quantiles(QuantileSketch sketch) {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (double q : QUANTILES) {
+            values.put(quantileName(q), sketch.quantile(q));
+        }
+        return values;
+    }
+    
+    static String quantileName(double q) {
+        return "p" + Math.round(q * 100);
+    }
+    
+    /**
+     * Cantidad de estudiantes que completan todas las asignaturas, por semestre.
+     */
+    public IntHistogram getCompletionTimeHistogram() {
+        return engine.getCompletionHistogram();
+    }
+    
+    /**
+     * Asignaturas de la simulación, en el orden del plan de estudios.
+     */
+    public List<Course> getCourses() {
+        return engine.getCourseList();
+    }
+    
     /**
      * 2. Calcula el promedio de tiempo para aprobar cada asignatura.
      */
     public Map<String, Double> getAveragePassingTimePerCourse() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("averagePassingTimePerCourse");
         Map<String, Double> averages = new HashMap<>();
         
         for (Map.Entry<String, Course> entry : engine.getCourses().entrySet()) {
@@ -43,6 +109,7 @@ public class StatisticsGenerator {
             averages.put(entry.getKey(), avgTime);
         }
         
+        SimulationEvents.commitQuery(event);
         return averages;
     }
     
@@ -50,18 +117,11 @@ public class StatisticsGenerator {
      * 3. Total de alumnos que superan todas las asignaturas entre el rango configurado de semestres.
      */
     public int getStudentsCompletedBetween3And15Semesters() {
-        int count = 0;
-        
-        for (Student student : engine.getStudents()) {
-            if (student.hasCompletedAllCourses()) {
-                int semesters = student.getSemesterCompleted();
-                if (semesters >= SimulationConfig.MIN_SEMESTERS_COMPLETION && 
-                    semesters <= SimulationConfig.MAX_SEMESTERS_COMPLETION) {
-                    count++;
-                }
-            }
-        }
-        
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("studentsCompletedInRange");
+        SimulationParameters parameters = engine.getParameters();
+        int count = (int) engine.getCompletionHistogram().getCountBetween(
+            parameters.getMinSemestersCompletion(), parameters.getMaxSemestersCompletion());
+        SimulationEvents.commitQuery(event);
         return count;
     }
     
@@ -69,6 +129,7 @@ public class StatisticsGenerator {
      * 4. Clasifica las asignaturas de acuerdo a la dificultad.
      */
     public List<Map.Entry<String, Double>> getCoursesByDifficulty() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("coursesByDifficulty");
         Map<String, Double> difficultyMap = new HashMap<>();
         
         for (Map.Entry<String, Course> entry : engine.getCourses().entrySet()) {
@@ -77,21 +138,25 @@ public class StatisticsGenerator {
         }
         
         // Ordenar de mayor a menor dificultad
-        return difficultyMap.entrySet().stream()
+        List<Map.Entry<String, Double>> ranking = difficultyMap.entrySet().stream()
                 .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
                 .collect(Collectors.toList());
+        SimulationEvents.commitQuery(event);
+        return ranking;
     }
     
     /**
      * 5. Total de alumnos que se inscriben en cada asignatura.
      */
     public Map<String, Integer> getTotalEnrollmentsPerCourse() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("totalEnrollmentsPerCourse");
         Map<String, Integer> enrollments = new HashMap<>();
         
         for (Map.Entry<String, Course> entry : engine.getCourses().entrySet()) {
             enrollments.put(entry.getKey(), entry.getValue().getTotalEnrollments());
         }
         
+        SimulationEvents.commitQuery(event);
         return enrollments;
     }
     
@@ -99,22 +164,43 @@ public class StatisticsGenerator {
      * 6. Cantidad de abandonos por semestre.
      */
     public Map<Integer, Integer> getAbandonmentsPerSemester() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("abandonmentsPerSemester");
         Map<Integer, Integer> abandonments = new HashMap<>();
+        IntHistogram histogram = engine.getAbandonmentHistogram();
         
-        for (Student student : engine.getStudents()) {
-            if (student.hasAbandoned()) {
-                int semester = student.getAbandonmentSemester();
-                abandonments.put(semester, abandonments.getOrDefault(semester, 0) + 1);
+        for (int semester = 0; semester <= histogram.getMaxValue(); semester++) {
+            long count = histogram.getCount(semester);
+            if (count > 0) {
+                abandonments.put(semester, (int) count);
             }
         }
         
+        SimulationEvents.commitQuery(event);
         return abandonments;
     }
     
+    /**
+     * Cantidad de estudiantes que abandonan, por semestre.
+     */
+    public IntHistogram getAbandonmentHistogram() {
+        return engine.getAbandonmentHistogram();
+    }
+    
+    /**
+     * Total de estudiantes que abandonaron.
+     */
+    public long getTotalAbandonments() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("totalAbandonments");
+        long total = engine.getAbandonmentHistogram().getTotal();
+        SimulationEvents.commitQuery(event);
+        return total;
+    }
+    
     /**
      * 7. Asignatura que provoca más abandonos.
      */
     public String getCourseWithMostAbandonments() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("courseWithMostAbandonments");
         String courseName = null;
         int maxAbandonments = -1;
         
@@ -126,40 +212,81 @@ public class StatisticsGenerator {
             }
         }
         
+        SimulationEvents.commitQuery(event);
         return courseName != null ? courseName : "Ninguna";
     }
     
+    /**
+     * Todos los resultados de la simulación como mapa de valores simples
+     * (números, textos, listas y mapas), listo para convertir a JSON.
+     */
+    public Map<String, Object> getResults() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("results");
+        Map<String, Object> results = new LinkedHashMap<>();
+        results.put("students", engine.getPopulation().size());
+        results.put("metrics", SimulationMetrics.from(engine, this).getValues());
+        results.put("completionHistogram", getCompletionTimeHistogram().getCounts());
+        results.put("abandonmentHistogram", getAbandonmentHistogram().getCounts());
+        
+        // Cuantiles exactos de los tiempos y aproximados (sketch KLL) de las notas
+        Map<String, Object> quantiles = new LinkedHashMap<>();
+        quantiles.put("completion", quantiles(getCompletionTimeHistogram()));
+        for (Course course : getCourses()) {
+            Map<String, Object> courseQuantiles = new LinkedHashMap<>();
+            courseQuantiles.put("passingTime", quantiles(course.getPassingTimeHistogram()));
+            courseQuantiles.put("score", quantiles(course.getScoreSketch()));
+            quantiles.put(course.getName(), courseQuantiles);
+        }
+        results.put("quantiles", quantiles);
+        
+        List<String> ranking = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : getCoursesByDifficulty()) {
+            ranking.add(entry.getKey());
+        }
+        results.put("difficultyRanking", ranking);
+        results.put("courseWithMostAbandonments", getCourseWithMostAbandonments());
+        SimulationEvents.commitQuery(event);
+        return results;
+    }
+    
     /**
      * Genera un reporte completo con todas las estadísticas.
      */
     public void printFullReport() {
+        SimulationEvents.StatisticsQueryEvent event = SimulationEvents.beginQuery("fullReport");
         System.out.println("=".repeat(80));
         System.out.println("REPORTE FINAL DE SIMULACIÓN");
         System.out.println("=".repeat(80));
         
         // 1. Promedio de tiempo para completar las 6 asignaturas
-        List<Double> completionTimes = getCompletionTimes();
-        if (!completionTimes.isEmpty()) {
-            double avgCompletion = completionTimes.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            System.out.println("\n1. PROMEDIO DE TIEMPO PARA COMPLETAR LAS 6 ASIGNATURAS:");
-            System.out.printf("   Promedio: %.2f semestres\n", avgCompletion);
-            System.out.printf("   Mínimo: %.2f semestres\n", Collections.min(completionTimes));
-            System.out.printf("   Máximo: %.2f semestres\n", Collections.max(completionTimes));
-            System.out.printf("   Total estudiantes que completaron: %d\n", completionTimes.size());
+        StreamingStatistics completionTimes = getCompletionTimeStatistics();
+        if (completionTimes.getCount() > 0) {
+            System.out.printf("\n1. PROMEDIO DE TIEMPO PARA COMPLETAR LAS %d ASIGNATURAS:\n",
+                              engine.getCourses().size());
+            System.out.printf("   Promedio: %.2f semestres\n", completionTimes.getMean());
+            System.out.printf("   Mediana: %.0f, p90: %.0f, p99: %.0f semestres\n",
+                              getCompletionTimeQuantile(0.5), getCompletionTimeQuantile(0.9),
+                              getCompletionTimeQuantile(0.99));
+            System.out.printf("   Mínimo: %.2f semestres\n", completionTimes.getMin());
+            System.out.printf("   Máximo: %.2f semestres\n", completionTimes.getMax());
+            System.out.printf("   Total estudiantes que completaron: %d\n", completionTimes.getCount());
         }
         
         // 2. Promedio de tiempo para aprobar cada asignatura
         System.out.println("\n2. PROMEDIO DE TIEMPO PARA APROBAR CADA ASIGNATURA:");
         Map<String, Double> avgPassingTimes = getAveragePassingTimePerCourse();
         for (Map.Entry<String, Double> entry : avgPassingTimes.entrySet()) {
-            System.out.printf("   %s: %.2f semestres\n", entry.getKey(), entry.getValue());
+            IntHistogram passingTimes = engine.getCourses().get(entry.getKey()).getPassingTimeHistogram();
+            System.out.printf("   %s: %.2f semestres (mediana %.0f, p90 %.0f, p99 %.0f)\n", entry.getKey(),
+                              entry.getValue(), passingTimes.quantile(0.5), passingTimes.quantile(0.9),
+                              passingTimes.quantile(0.99));
         }
         
         // 3. Estudiantes que completan en el rango configurado de semestres
         int completed = getStudentsCompletedBetween3And15Semesters();
         System.out.printf("\n3. ESTUDIANTES QUE COMPLETAN TODAS LAS ASIGNATURAS (%d-%d semestres):\n", 
-                         SimulationConfig.MIN_SEMESTERS_COMPLETION, 
-                         SimulationConfig.MAX_SEMESTERS_COMPLETION);
+                         engine.getParameters().getMinSemestersCompletion(), 
+                         engine.getParameters().getMaxSemestersCompletion());
         System.out.printf("   Total: %d estudiantes\n", completed);
         
         // 4. Clasificación por dificultad
@@ -200,7 +327,19 @@ public class StatisticsGenerator {
             System.out.println("   Ninguna");
         }
         
+        // 8. Distribución de notas (no hay notas en modo analítico)
+        if (getCourses().get(0).getScoreSketch().getCount() > 0) {
+            System.out.println("\n8. NOTAS POR ASIGNATURA (cuantiles aproximados):");
+            for (Course course : getCourses()) {
+                QuantileSketch scores = course.getScoreSketch();
+                System.out.printf("   %s: p10 %.1f, mediana %.1f, p90 %.1f (%d notas)\n", course.getName(),
+                                  scores.quantile(0.1), scores.quantile(0.5), scores.quantile(0.9),
+                                  scores.getCount());
+            }
+        }
+        
         System.out.println("\n" + "=".repeat(80));
+        SimulationEvents.commitQuery(event);
     }
 }
 
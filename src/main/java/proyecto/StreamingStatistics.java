@@ -0,0 +1,153 @@
+package proyecto;
+
+import org.apache.commons.math3.distribution.TDistribution;
+
+import java.io.IOException;
+
+/**
+ * Acumulador de media, varianza, mínimo y máximo con memoria constante
+ * (algoritmo de Welford). Dos acumuladores se pueden combinar con
+ * {@link #merge(StreamingStatistics)}.
+ */
+public class StreamingStatistics {
+    private long count;
+    private double mean;
+    private double m2; // suma de cuadrados de las diferencias a la media
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+    
+    /**
+     * Agrega count veces el mismo valor, en tiempo constante.
+     */
+    public void add(double value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        if (this.count == 0) {
+            this.count = count;
+            mean = value;
+            m2 = 0.0;
+            min = value;
+            max = value;
+            return;
+        }
+        long total = this.count + count;
+        double delta = value - mean;
+        mean += delta * count / total;
+        m2 += delta * delta * ((double) this.count * count / total);
+        this.count = total;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+    
+    /**
+     * Agrega los valores acumulados en otro acumulador (Chan et al.).
+     */
+    public void merge(StreamingStatistics other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            min = other.min;
+            max = other.max;
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+    
+    /**
+     * Vuelve al estado inicial, sin valores.
+     */
+    public void clear() {
+        count = 0;
+        mean = 0.0;
+        m2 = 0.0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+    
+    void writeTo(SimulationCheckpoint.Output out) throws IOException {
+        out.writeLong(count);
+        out.writeDouble(mean);
+        out.writeDouble(m2);
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+    
+    void readFrom(SimulationCheckpoint.Input in) throws IOException {
+        count = in.readLong();
+        mean = in.readDouble();
+        m2 = in.readDouble();
+        min = in.readDouble();
+        max = in.readDouble();
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    /**
+     * Media de los valores, o 0 si no hay valores.
+     */
+    public double getMean() {
+        return mean;
+    }
+    
+    /**
+     * Varianza muestral (denominador n-1), o NaN con menos de dos valores.
+     */
+    public double getVariance() {
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+    
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+    
+    public double getMin() {
+        return count > 0 ? min : Double.NaN;
+    }
+    
+    public double getMax() {
+        return count > 0 ? max : Double.NaN;
+    }
+    
+    /**
+     * Semiancho del intervalo de confianza de la media (t de Student).
+     * @param confidence nivel de confianza, por ejemplo 0.95
+     */
+    public double getConfidenceHalfWidth(double confidence) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        TDistribution t = new TDistribution(count - 1);
+        double quantile = t.inverseCumulativeProbability(1.0 - (1.0 - confidence) / 2.0);
+        return quantile * getStandardDeviation() / Math.sqrt(count);
+    }
+}
@@ -1,59 +1,51 @@
 package proyecto;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Representa un estudiante en la simulación.
+ *
+ * Es una vista liviana sobre {@link StudentPopulation}: no guarda estado propio,
+ * solo la población y la posición del estudiante dentro de ella.
  */
 public class Student {
-    private int id;
-    private Map<String, Integer> attempts; // intentos por asignatura
-    private Map<String, Boolean> passedCourses; // asignaturas aprobadas
-    private Map<String, Integer> firstEnrollmentSemester; // semestre de primera inscripción
-    private boolean abandoned;
-    private int abandonmentSemester;
-    private int currentSemester;
-    
-    public Student(int id) {
-        this.id = id;
-        this.attempts = new HashMap<>();
-        this.passedCourses = new HashMap<>();
-        this.firstEnrollmentSemester = new HashMap<>();
-        this.abandoned = false;
-        this.abandonmentSemester = -1;
-        this.currentSemester = 0;
-        
-        // Inicializar contadores para todas las asignaturas
-        for (String courseName : new String[]{"A", "B", "C", "D", "E", "F"}) {
-            attempts.put(courseName, 0);
-            passedCourses.put(courseName, false);
-            firstEnrollmentSemester.put(courseName, -1);
-        }
+    private final StudentPopulation population;
+    private final int index;
+    
+    Student(StudentPopulation population, int index) {
+        this.population = population;
+        this.index = index;
     }
     
     public int getId() {
-        return id;
+        return index + 1;
+    }
+    
+    /**
+     * Posición del estudiante dentro de su población.
+     */
+    public int getIndex() {
+        return index;
     }
     
     public boolean hasPassed(String courseName) {
-        return passedCourses.getOrDefault(courseName, false);
+        int course = population.indexOf(courseName);
+        return course >= 0 && population.hasPassed(index, course);
     }
     
     public void passCourse(String courseName) {
-        passedCourses.put(courseName, true);
+        population.passCourse(index, requireCourse(courseName));
     }
     
     public int getAttempts(String courseName) {
-        return attempts.getOrDefault(courseName, 0);
+        int course = population.indexOf(courseName);
+        return course >= 0 ? population.getAttempts(index, course) : 0;
     }
     
     public void incrementAttempt(String courseName) {
-        attempts.put(courseName, attempts.getOrDefault(courseName, 0) + 1);
+        population.incrementAttempt(index, requireCourse(courseName));
     }
     
     public boolean canEnroll(String courseName, Course course) {
-        if (abandoned) {
+        if (hasAbandoned()) {
             return false;
         }
         
@@ -66,10 +58,9 @@ public class Student {
             return false; // Máximo de intentos alcanzado
         }
         
-        // Verificar prerrequisito
-        if (course.getPrerequisite() != null) {
-            String prereqName = course.getPrerequisite().getName();
-            if (!hasPassed(prereqName)) {
+        // Verificar prerrequisitos
+        for (Course prerequisite : course.getPrerequisites()) {
+            if (!hasPassed(prerequisite.getName())) {
                 return false;
             }
         }
@@ -78,58 +69,56 @@ public class Student {
     }
     
     public boolean hasAbandoned() {
-        return abandoned;
+        return population.hasAbandoned(index);
     }
     
     public void abandon(String courseName) {
-        if (!abandoned) {
-            this.abandoned = true;
-            this.abandonmentSemester = currentSemester;
-        }
+        population.abandon(index, requireCourse(courseName));
     }
     
     public String getAbandonmentCourse() {
         // Retorna el nombre de la asignatura que causó el abandono
-        // (la que tiene el máximo de intentos sin aprobar)
-        for (Map.Entry<String, Integer> entry : attempts.entrySet()) {
-            if (entry.getValue() >= SimulationConfig.MAX_ATTEMPTS_PER_COURSE && !hasPassed(entry.getKey())) {
-                return entry.getKey();
-            }
-        }
-        return null;
+        int course = population.getAbandonmentCourse(index);
+        return course >= 0 ? population.getCourseName(course) : null;
     }
     
     public int getAbandonmentSemester() {
-        return abandonmentSemester;
+        return population.getAbandonmentSemester(index);
     }
     
     public void incrementSemester() {
-        this.currentSemester++;
+        population.incrementSemester(index);
     }
     
     public int getCurrentSemester() {
-        return currentSemester;
+        return population.getCurrentSemester(index);
     }
     
     public boolean hasCompletedAllCourses() {
-        return passedCourses.values().stream().allMatch(Boolean::booleanValue);
+        return population.hasCompletedAllCourses(index);
     }
     
     public int getSemesterCompleted() {
         if (hasCompletedAllCourses()) {
-            return currentSemester;
+            return getCurrentSemester();
         }
         return -1; // No completó todas las asignaturas
     }
     
     public void setFirstEnrollmentSemester(String courseName, int semester) {
-        if (firstEnrollmentSemester.get(courseName) == -1) {
-            firstEnrollmentSemester.put(courseName, semester);
-        }
+        population.setFirstEnrollmentSemester(index, requireCourse(courseName), semester);
     }
     
     public int getFirstEnrollmentSemester(String courseName) {
-        return firstEnrollmentSemester.getOrDefault(courseName, -1);
+        int course = population.indexOf(courseName);
+        return course >= 0 ? population.getFirstEnrollmentSemester(index, course) : -1;
+    }
+    
+    private int requireCourse(String courseName) {
+        int course = population.indexOf(courseName);
+        if (course < 0) {
+            throw new IllegalArgumentException("Asignatura desconocida: " + courseName);
+        }
+        return course;
     }
 }
-
@@ -0,0 +1,323 @@
+package proyecto;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Almacena el estado de todos los estudiantes en columnas de tipos primitivos
+ * (struct-of-arrays), indexadas por estudiante y por índice de asignatura.
+ *
+ * Cada estudiante ocupa unas pocas decenas de bytes: intentos en un byte por
+ * asignatura, semestre de primera inscripción en un short por asignatura y las
+ * asignaturas aprobadas como una máscara de bits en un long.
+ * {@link Student} es solo una vista liviana sobre esta estructura.
+ *
+ * Las columnas por asignatura se parten en bloques de {@link #CHUNK_STUDENTS}
+ * estudiantes, así que su tamaño total no está limitado por el índice int de
+ * un arreglo: con 64 asignaturas se pueden representar tantos estudiantes como
+ * quepan en memoria (hasta Integer.MAX_VALUE).
+ */
+public class StudentPopulation {
+    /** Máximo de asignaturas representables en la máscara de aprobadas. */
+    public static final int MAX_COURSES = Long.SIZE;
+    
+    private static final int CHUNK_BITS = 20;
+    /** Estudiantes por bloque de las columnas por asignatura. */
+    public static final int CHUNK_STUDENTS = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_STUDENTS - 1;
+    
+    private final int size;
+    private final int courseCount;
+    private final String[] courseNames;
+    private final Map<String, Integer> courseIndex;
+    private final long allCoursesMask;
+    
+    // Columnas por asignatura: [bloque][estudiante del bloque * courseCount + asignatura] (ver slot)
+    private final byte[][] attempts;
+    private final short[][] firstEnrollmentSemester; // -1 = nunca
+    private final long[] passedMask;             // bit i = asignatura i aprobada
+    private final short[] currentSemester;
+    private final short[] abandonmentSemester;   // -1 = no abandonó
+    private final byte[] abandonmentCourse;      // -1 = no abandonó
+    private byte[][] attemptsToPass;             // solo en modo analítico, 0 = sin sortear
+    
+    public StudentPopulation(int size, String[] courseNames) {
+        if (courseNames.length > MAX_COURSES) {
+            throw new IllegalArgumentException(
+                "Se admiten como máximo " + MAX_COURSES + " asignaturas: " + courseNames.length);
+        }
+        if (size < 0) {
+            throw new IllegalArgumentException("Cantidad de estudiantes inválida: " + size);
+        }
+        this.size = size;
+        this.courseCount = courseNames.length;
+        this.courseNames = courseNames.clone();
+        this.courseIndex = new HashMap<>();
+        for (int c = 0; c < courseCount; c++) {
+            courseIndex.put(courseNames[c], c);
+        }
+        this.allCoursesMask = courseCount == MAX_COURSES ? -1L : (1L << courseCount) - 1;
+        
+        int chunks = (int) (((long) size + CHUNK_MASK) >>> CHUNK_BITS);
+        this.attempts = new byte[chunks][];
+        this.firstEnrollmentSemester = new short[chunks][];
+        for (int k = 0; k < chunks; k++) {
+            attempts[k] = new byte[chunkLength(k)];
+            firstEnrollmentSemester[k] = new short[chunkLength(k)];
+            Arrays.fill(firstEnrollmentSemester[k], (short) -1);
+        }
+        this.passedMask = new long[size];
+        this.currentSemester = new short[size];
+        this.abandonmentSemester = new short[size];
+        this.abandonmentCourse = new byte[size];
+        
+        Arrays.fill(abandonmentSemester, (short) -1);
+        Arrays.fill(abandonmentCourse, (byte) -1);
+    }
+    
+    /**
+     * Largo del bloque k de una columna por asignatura (el último puede ser más corto).
+     */
+    private int chunkLength(int chunk) {
+        return Math.min(CHUNK_STUDENTS, size - (chunk << CHUNK_BITS)) * courseCount;
+    }
+    
+    /**
+     * Posición de (estudiante, asignatura) dentro del bloque del estudiante.
+     */
+    private int slot(int student, int course) {
+        return (student & CHUNK_MASK) * courseCount + course;
+    }
+    
+    /**
+     * Vuelve todos los estudiantes al estado inicial, sin reservar memoria nueva.
+     */
+    public void clear() {
+        for (int k = 0; k < attempts.length; k++) {
+            Arrays.fill(attempts[k], (byte) 0);
+            Arrays.fill(firstEnrollmentSemester[k], (short) -1);
+            if (attemptsToPass != null) {
+                Arrays.fill(attemptsToPass[k], (byte) 0);
+            }
+        }
+        Arrays.fill(passedMask, 0L);
+        Arrays.fill(currentSemester, (short) 0);
+        Arrays.fill(abandonmentSemester, (short) -1);
+        Arrays.fill(abandonmentCourse, (byte) -1);
+    }
+    
+    /**
+     * Indica si la población tiene exactamente estas asignaturas, en este orden.
+     */
+    public boolean hasCourses(String[] names) {
+        return Arrays.equals(courseNames, names);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public int getCourseCount() {
+        return courseCount;
+    }
+    
+    public String getCourseName(int course) {
+        return courseNames[course];
+    }
+    
+    /**
+     * Retorna el índice de la asignatura o -1 si no existe.
+     */
+    public int indexOf(String courseName) {
+        Integer index = courseIndex.get(courseName);
+        return index != null ? index : -1;
+    }
+    
+    public long getAllCoursesMask() {
+        return allCoursesMask;
+    }
+    
+    // ---------- Intentos ----------
+    
+    public int getAttempts(int student, int course) {
+        return attempts[student >>> CHUNK_BITS][slot(student, course)];
+    }
+    
+    /**
+     * Incrementa los intentos y retorna la nueva cantidad.
+     */
+    public int incrementAttempt(int student, int course) {
+        return ++attempts[student >>> CHUNK_BITS][slot(student, course)];
+    }
+    
+    /**
+     * Reserva la columna de intentos necesarios para aprobar (modo analítico).
+     */
+    public void enableAttemptsToPass() {
+        if (attemptsToPass == null) {
+            attemptsToPass = new byte[attempts.length][];
+            for (int k = 0; k < attemptsToPass.length; k++) {
+                attemptsToPass[k] = new byte[chunkLength(k)];
+            }
+        }
+    }
+    
+    /**
+     * Intento en el que el estudiante aprobará la asignatura, sorteado en su
+     * primera inscripción (modo analítico), o 0 si todavía no se sorteó.
+     */
+    public int getAttemptsToPass(int student, int course) {
+        return attemptsToPass[student >>> CHUNK_BITS][slot(student, course)];
+    }
+    
+    public void setAttemptsToPass(int student, int course, int attempts) {
+        attemptsToPass[student >>> CHUNK_BITS][slot(student, course)] = (byte) attempts;
+    }
+    
+    // ---------- Aprobaciones ----------
+    
+    public boolean hasPassed(int student, int course) {
+        return (passedMask[student] & (1L << course)) != 0;
+    }
+    
+    public void passCourse(int student, int course) {
+        passedMask[student] |= 1L << course;
+    }
+    
+    public long getPassedMask(int student) {
+        return passedMask[student];
+    }
+    
+    public boolean hasCompletedAllCourses(int student) {
+        return passedMask[student] == allCoursesMask;
+    }
+    
+    // ---------- Semestres ----------
+    
+    public int getFirstEnrollmentSemester(int student, int course) {
+        return firstEnrollmentSemester[student >>> CHUNK_BITS][slot(student, course)];
+    }
+    
+    /**
+     * Registra el semestre de primera inscripción solo si aún no fue registrado.
+     */
+    public void setFirstEnrollmentSemester(int student, int course, int semester) {
+        short[] chunk = firstEnrollmentSemester[student >>> CHUNK_BITS];
+        int slot = slot(student, course);
+        if (chunk[slot] == -1) {
+            chunk[slot] = (short) semester;
+        }
+    }
+    
+    public int getCurrentSemester(int student) {
+        return currentSemester[student];
+    }
+    
+    public void incrementSemester(int student) {
+        currentSemester[student]++;
+    }
+    
+    // ---------- Abandono ----------
+    
+    public boolean hasAbandoned(int student) {
+        return abandonmentCourse[student] != -1;
+    }
+    
+    /**
+     * Marca el abandono del estudiante (solo la primera vez).
+     * @return true si el estudiante abandonó en esta llamada
+     */
+    public boolean abandon(int student, int course) {
+        if (abandonmentCourse[student] != -1) {
+            return false;
+        }
+        abandonmentCourse[student] = (byte) course;
+        abandonmentSemester[student] = currentSemester[student];
+        return true;
+    }
+    
+    public int getAbandonmentSemester(int student) {
+        return abandonmentSemester[student];
+    }
+    
+    /**
+     * Retorna el índice de la asignatura que causó el abandono o -1.
+     */
+    public int getAbandonmentCourse(int student) {
+        return abandonmentCourse[student];
+    }
+    
+    // ---------- Puntos de control ----------
+    
+    /**
+     * Escribe cada columna tal como está en memoria, bloque por bloque (ver SimulationCheckpoint).
+     */
+    void writeTo(SimulationCheckpoint.Output out) throws IOException {
+        for (int k = 0; k < attempts.length; k++) {
+            out.writeBytes(attempts[k]);
+            out.writeShorts(firstEnrollmentSemester[k]);
+        }
+        out.writeLongs(passedMask);
+        out.writeShorts(currentSemester);
+        out.writeShorts(abandonmentSemester);
+        out.writeBytes(abandonmentCourse);
+        out.writeBoolean(attemptsToPass != null);
+        if (attemptsToPass != null) {
+            for (byte[] chunk : attemptsToPass) {
+                out.writeBytes(chunk);
+            }
+        }
+    }
+    
+    /**
+     * Lee las columnas escritas por {@link #writeTo} sobre los arreglos ya
+     * reservados, que deben tener el mismo tamaño.
+     */
+    void readFrom(SimulationCheckpoint.Input in) throws IOException {
+        for (int k = 0; k < attempts.length; k++) {
+            in.readBytes(attempts[k]);
+            in.readShorts(firstEnrollmentSemester[k]);
+        }
+        in.readLongs(passedMask);
+        in.readShorts(currentSemester);
+        in.readShorts(abandonmentSemester);
+        in.readBytes(abandonmentCourse);
+        if (in.readBoolean()) {
+            enableAttemptsToPass();
+            for (byte[] chunk : attemptsToPass) {
+                in.readBytes(chunk);
+            }
+        }
+    }
+    
+    // ---------- Vistas ----------
+    
+    public Student getStudent(int student) {
+        return new Student(this, student);
+    }
+    
+    /**
+     * Vista de la población como lista de {@link Student}. Las vistas se crean
+     * bajo demanda, no se guarda ningún objeto por estudiante.
+     */
+    public List<Student> asStudentList() {
+        return new AbstractList<Student>() {
+            @Override
+            public Student get(int index) {
+                if (index < 0 || index >= size) {
+                    throw new IndexOutOfBoundsException("Estudiante inexistente: " + index);
+                }
+                return new Student(StudentPopulation.this, index);
+            }
+            
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+}
@@ -0,0 +1,133 @@
+package proyecto;
+
+import org.apache.commons.math3.random.BitsStreamGenerator;
+
+/**
+ * Generador xoshiro256** (Blackman y Vigna): 256 bits de estado, período
+ * 2^256 - 1, y unas pocas operaciones por número.
+ *
+ * Tiene saltos: {@link #jump()} avanza el estado 2^128 números y
+ * {@link #longJump()} 2^192, así que copias del mismo generador separadas por
+ * saltos dan flujos que no se superponen (ver {@link RandomSource#streams}).
+ */
+public class Xoshiro256StarStarRandom extends BitsStreamGenerator {
+    private static final long serialVersionUID = 1L;
+    private static final long[] JUMP = {
+        0x180EC6D33CFD0ABAL, 0xD5A61266F0C9392CL, 0xA9582618E03FC9AAL, 0x39ABDC4529B1661CL
+    };
+    private static final long[] LONG_JUMP = {
+        0x76E15D3EFEFDCBBFL, 0xC5004E441C522FB3L, 0x77710069854EE241L, 0x39109BB02ACBE635L
+    };
+    
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+    
+    public Xoshiro256StarStarRandom(long seed) {
+        setSeed(seed);
+    }
+    
+    /**
+     * Copia con el mismo estado.
+     */
+    public Xoshiro256StarStarRandom(Xoshiro256StarStarRandom other) {
+        this.s0 = other.s0;
+        this.s1 = other.s1;
+        this.s2 = other.s2;
+        this.s3 = other.s3;
+    }
+    
+    @Override
+    public void setSeed(int seed) {
+        setSeed((long) seed);
+    }
+    
+    @Override
+    public void setSeed(int[] seed) {
+        long combined = 0;
+        for (int value : seed) {
+            combined = combined * 0x100000001B3L + value;
+        }
+        setSeed(combined);
+    }
+    
+    /**
+     * Llena el estado con cuatro salidas de SplitMix64, como recomiendan los
+     * autores: nunca queda en cero y semillas parecidas dan estados sin relación.
+     */
+    @Override
+    public void setSeed(long seed) {
+        SplitMix64Random expander = new SplitMix64Random(seed);
+        s0 = expander.nextLong();
+        s1 = expander.nextLong();
+        s2 = expander.nextLong();
+        s3 = expander.nextLong();
+        clear(); // descarta la gaussiana guardada por nextGaussian()
+    }
+    
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s1 * 5, 7) * 9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+    
+    @Override
+    protected int next(int bits) {
+        return (int) (nextLong() >>> (64 - bits));
+    }
+    
+    /**
+     * Los 53 bits altos de un solo número (la versión heredada arma el double
+     * con dos llamadas de 26 bits). También acelera nextGaussian(), que usa
+     * dos doubles por par de gaussianas.
+     */
+    @Override
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+    
+    /**
+     * Avanza 2^128 números: equivale a 2^128 llamadas a {@link #nextLong()}.
+     */
+    public void jump() {
+        jump(JUMP);
+    }
+    
+    /**
+     * Avanza 2^192 números.
+     */
+    public void longJump() {
+        jump(LONG_JUMP);
+    }
+    
+    private void jump(long[] polynomial) {
+        long t0 = 0;
+        long t1 = 0;
+        long t2 = 0;
+        long t3 = 0;
+        for (long word : polynomial) {
+            for (int b = 0; b < 64; b++) {
+                if ((word & (1L << b)) != 0) {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+        clear();
+    }
+}
@@ -0,0 +1,59 @@
+package proyecto;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Las réplicas repartidas entre procesos de trabajo dan el mismo resumen,
+ * bit a bit, que las mismas réplicas en un solo proceso.
+ */
+class DistributedReplicationRunnerTest {
+    private static final int STUDENTS = 300;
+    private static final int REPLICAS = 23;
+    private static final long SEED = 42;
+    
+    @Test
+    void sameSummaryAsSingleProcess() {
+        ReplicationRunner local = new ReplicationRunner(2, STUDENTS);
+        DistributedReplicationRunner distributed = distributed();
+        
+        assertSameSummary(local.run(REPLICAS, SEED), distributed.run(REPLICAS, SEED));
+    }
+    
+    @Test
+    void sameSummaryWithJumpStreamsAndAntitheticPairs() {
+        ReplicationRunner local = new ReplicationRunner(2, STUDENTS);
+        local.setRandomSource(RandomSource.XOSHIRO256);
+        local.setAntithetic(true);
+        DistributedReplicationRunner distributed = distributed();
+        distributed.setRandomSource(RandomSource.XOSHIRO256);
+        distributed.setAntithetic(true);
+        
+        assertSameSummary(local.run(REPLICAS, SEED), distributed.run(REPLICAS, SEED));
+    }
+    
+    /** Dos procesos y tramos de 5 réplicas: varios tramos por proceso y el último incompleto. */
+    private static DistributedReplicationRunner distributed() {
+        DistributedReplicationRunner distributed =
+                new DistributedReplicationRunner(2, 1, STUDENTS, SimulationParameters.defaults());
+        distributed.setSliceSize(5);
+        distributed.addJvmOption("-Xmx256m");
+        return distributed;
+    }
+    
+    private static void assertSameSummary(ReplicationSummary expected, ReplicationSummary actual) {
+        assertEquals(expected.getReplications(), actual.getReplications());
+        assertEquals(expected.getStatistics().keySet(), actual.getStatistics().keySet());
+        for (Map.Entry<String, StreamingStatistics> entry : expected.getStatistics().entrySet()) {
+            StreamingStatistics statistics = actual.get(entry.getKey());
+            assertEquals(entry.getValue().getCount(), statistics.getCount(), entry.getKey());
+            assertEquals(entry.getValue().getMean(), statistics.getMean(), 0, entry.getKey());
+            assertEquals(entry.getValue().getVariance(), statistics.getVariance(), 0, entry.getKey());
+            assertEquals(entry.getValue().getMin(), statistics.getMin(), 0, entry.getKey());
+            assertEquals(entry.getValue().getMax(), statistics.getMax(), 0, entry.getKey());
+        }
+    }
+}
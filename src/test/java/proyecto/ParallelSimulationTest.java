@@ -0,0 +1,50 @@
+package proyecto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * El modo paralelo da exactamente el mismo resultado con cualquier cantidad
+ * de hilos (ver {@link SimulationEngine#runParallelSimulation}).
+ */
+class ParallelSimulationTest {
+    /** Varios fragmentos, y el último incompleto. */
+    private static final int STUDENTS = 3 * SimulationEngine.SHARD_SIZE + 1_000;
+    private static final long SEED = 42;
+    
+    @Test
+    void sameResultsWithAnyThreadCount() {
+        SimulationEngine reference = run(1);
+        for (int threads : new int[] {2, 3, 8}) {
+            SimulationEngine engine = run(threads);
+            assertEquals(results(reference), results(engine), "resultados con " + threads + " hilos");
+            assertEquals(reference.getEnrollmentHistory(), engine.getEnrollmentHistory(),
+                         "inscripciones con " + threads + " hilos");
+        }
+    }
+    
+    @Test
+    void sameResultsWithAnyThreadCountInAnalyticMode() {
+        SimulationEngine reference = run(1, true);
+        SimulationEngine engine = run(4, true);
+        assertEquals(results(reference), results(engine));
+    }
+    
+    private static SimulationEngine run(int threads) {
+        return run(threads, false);
+    }
+    
+    private static SimulationEngine run(int threads, boolean analyticMode) {
+        SimulationEngine engine = new SimulationEngine(SEED, STUDENTS);
+        engine.setAnalyticMode(analyticMode);
+        engine.setTelemetry(null);
+        engine.runParallelSimulation(threads);
+        return engine;
+    }
+    
+    /** Los resultados como JSON, que compara también los histogramas y escribe cada double exacto. */
+    static String results(SimulationEngine engine) {
+        return Json.write(new StatisticsGenerator(engine).getResults());
+    }
+}
@@ -0,0 +1,86 @@
+package proyecto;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Una corrida interrumpida y continuada desde su punto de control da
+ * exactamente el mismo resultado que la corrida sin interrumpir.
+ */
+class SimulationCheckpointTest {
+    private static final int STUDENTS = 2 * SimulationEngine.SHARD_SIZE + 500;
+    private static final long SEED = 7;
+    private static final int CHECKPOINT_EVERY = 2;
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void resumeSequentialRun() throws IOException {
+        assertResumeMatchesUninterrupted(false, false, RandomSource.WELL19937C);
+    }
+    
+    @Test
+    void resumeSequentialRunWithOtherRandomSource() throws IOException {
+        assertResumeMatchesUninterrupted(false, false, RandomSource.XOSHIRO256);
+    }
+    
+    @Test
+    void resumeParallelRun() throws IOException {
+        assertResumeMatchesUninterrupted(true, false, RandomSource.WELL19937C);
+    }
+    
+    @Test
+    void resumeAnalyticRun() throws IOException {
+        assertResumeMatchesUninterrupted(false, true, RandomSource.WELL19937C);
+    }
+    
+    private void assertResumeMatchesUninterrupted(boolean parallel, boolean analyticMode, RandomSource source)
+            throws IOException {
+        SimulationEngine uninterrupted = engine(analyticMode, source);
+        run(uninterrupted, parallel);
+        
+        // Se interrumpe en cuanto existe el primer punto de control: al cerrar
+        // el semestre siguiente, o dentro de él en modo paralelo
+        Path file = directory.resolve("corrida.ckpt");
+        SimulationEngine interrupted = engine(analyticMode, source);
+        interrupted.setCheckpoint(file, CHECKPOINT_EVERY);
+        interrupted.setCancellation(() -> Files.exists(file));
+        assertThrows(CancellationException.class, () -> run(interrupted, parallel));
+        
+        SimulationCheckpoint checkpoint = SimulationCheckpoint.read(file);
+        assertEquals(CHECKPOINT_EVERY, checkpoint.getSemester());
+        assertEquals(parallel, checkpoint.isParallel());
+        assertEquals(source, checkpoint.getRandomSource());
+        SimulationEngine resumed = checkpoint.restore(SimulationParameters.defaults());
+        resumed.setTelemetry(null);
+        run(resumed, parallel);
+        
+        assertEquals(ParallelSimulationTest.results(uninterrupted), ParallelSimulationTest.results(resumed));
+        assertEquals(uninterrupted.getEnrollmentHistory(), resumed.getEnrollmentHistory());
+    }
+    
+    private static SimulationEngine engine(boolean analyticMode, RandomSource source) {
+        SimulationEngine engine = new SimulationEngine(SEED, STUDENTS);
+        engine.setRandomSource(source);
+        engine.setAnalyticMode(analyticMode);
+        engine.setTelemetry(null);
+        return engine;
+    }
+    
+    private static void run(SimulationEngine engine, boolean parallel) {
+        if (parallel) {
+            engine.runParallelSimulation(2);
+        } else {
+            engine.runSimulation();
+        }
+    }
+}
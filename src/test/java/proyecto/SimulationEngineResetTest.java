@@ -0,0 +1,73 @@
+package proyecto;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Un motor reutilizado con {@link SimulationEngine#reset} da el mismo
+ * resultado que uno nuevo, tanto si conserva las asignaturas y la población
+ * como si tiene que volver a crearlas (ver {@link ParameterSweep}).
+ */
+class SimulationEngineResetTest {
+    private static final int STUDENTS = 5_000;
+    private static final SimulationParameters DEFAULTS = SimulationParameters.defaults();
+    
+    @Test
+    void resetWithSameParameters() {
+        assertResetMatchesFresh(DEFAULTS, false, false);
+    }
+    
+    @Test
+    void resetWithOtherPassingScore() {
+        assertResetMatchesFresh(DEFAULTS.withPassingScore(65), false, false);
+    }
+    
+    @Test
+    void resetWithOtherCourseDistribution() {
+        assertResetMatchesFresh(DEFAULTS.with("course.C.mean", 70), false, false);
+    }
+    
+    @Test
+    void resetWithOtherSemesterLimit() {
+        assertResetMatchesFresh(DEFAULTS.withMaxSemesters(12), false, false);
+    }
+    
+    @Test
+    void resetInParallelMode() {
+        assertResetMatchesFresh(DEFAULTS.with("course.F.mean", 65), true, false);
+    }
+    
+    @Test
+    void resetInAnalyticMode() {
+        assertResetMatchesFresh(DEFAULTS.withPassingScore(58), false, true);
+    }
+    
+    private static void assertResetMatchesFresh(SimulationParameters next, boolean parallel, boolean analyticMode) {
+        SimulationEngine reused = engine(1, DEFAULTS, analyticMode);
+        run(reused, parallel);
+        reused.reset(2, next);
+        run(reused, parallel);
+        
+        SimulationEngine fresh = engine(2, next, analyticMode);
+        run(fresh, parallel);
+        
+        assertEquals(ParallelSimulationTest.results(fresh), ParallelSimulationTest.results(reused));
+        assertEquals(fresh.getEnrollmentHistory(), reused.getEnrollmentHistory());
+    }
+    
+    private static SimulationEngine engine(long seed, SimulationParameters parameters, boolean analyticMode) {
+        SimulationEngine engine = new SimulationEngine(seed, STUDENTS, parameters);
+        engine.setAnalyticMode(analyticMode);
+        engine.setTelemetry(null);
+        return engine;
+    }
+    
+    private static void run(SimulationEngine engine, boolean parallel) {
+        if (parallel) {
+            engine.runParallelSimulation(2);
+        } else {
+            engine.runSimulation();
+        }
+    }
+}